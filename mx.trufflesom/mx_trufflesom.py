@@ -242,6 +242,43 @@ def tests_junit(args, **kwargs):
         print(f"Run JUnit for {t} interpreter:")
         mx.run_mx(["unittest", "--suite", "trufflesom", "-Dsom.interp=" + t])
 
+    print("Run interpreter JUnit tests for BC interpreter with stack in frame slots:")
+    mx.run_mx(
+        [
+            "unittest",
+            "--suite",
+            "trufflesom",
+            "-Dsom.interp=BC",
+            "-Dsom.frameSlotStack=true",
+            "BasicInterpreterTests",
+            "SomTests",
+        ]
+    )
+
+    for t in INTERP_TYPES:
+        print(f"Run block splitting JUnit tests for {t} interpreter:")
+        mx.run_mx(
+            [
+                "unittest",
+                "--suite",
+                "trufflesom",
+                "-Dsom.interp=" + t,
+                "-Dsom.splitBlockDispatch=true",
+                "BlockSplittingTests",
+            ]
+        )
+
+    print("Run JUnit tests for inline caches that keep hot entries:")
+    mx.run_mx(
+        [
+            "unittest",
+            "--suite",
+            "trufflesom",
+            "-Dsom.inlineCacheHotEntries=2",
+            "HotEntriesTests",
+        ]
+    )
+
 
 @mx.command(suite.name, "tests-som")
 def tests_som(args, **kwargs):
@@ -260,6 +297,20 @@ def tests_som(args, **kwargs):
             ]
         )
 
+    print("Run Unit Tests on BC interpreter with stack in frame slots:")
+    mx.run(
+        [
+            suite.dir + "/som",
+            "-G",
+            "--no-embedded-graal",
+            "-Dsom.interp=BC",
+            "-Dsom.frameSlotStack=true",
+            "-cp",
+            suite.dir + "/Smalltalk",
+            suite.dir + "/TestSuite/TestHarness.som",
+        ]
+    )
+
 
 @mx.command(suite.name, "tests-somsom")
 def tests_somsom(args, **kwargs):
@@ -123,6 +123,7 @@ class Inliner {
       for (int a : inline.introduceTemps()) {
         args[i] = scopeBuilder.introduceTempForInlinedVersion(
             (Inlinable) argNodes[a], coord);
+        i += 1;
       }
 
       for (Class<?> c : inline.additionalArgs()) {
@@ -214,7 +214,7 @@ public class MethodGenerationContext
   }
 
   public final SInvokable assemble(final ExpressionNode body, final long coord) {
-    currentScope.finalizeVariables(locals.size());
+    currentScope.finalizeVariables(locals.size(), getNumberOfStackSlots());
 
     if (primitive) {
       return Primitives.constructEmptyPrimitive(
@@ -224,6 +224,11 @@ public class MethodGenerationContext
     return assembleMethod(body, coord);
   }
 
+  /** Number of frame slots needed in addition to the locals. */
+  protected int getNumberOfStackSlots() {
+    return 0;
+  }
+
   protected SMethod assembleMethod(final ExpressionNode methodBody, final long coord) {
     ExpressionNode body = methodBody;
     if (needsToCatchNonLocalReturn()) {
@@ -500,13 +505,13 @@ public class MethodGenerationContext
       final Inlinable<MethodGenerationContext> blockOrVal, final long coord)
       throws ProgramDefinitionError {
     Local loopIdx;
-    if (blockOrVal instanceof BlockNode) {
+    if (blockOrVal instanceof BlockNode
+        && ((BlockNode) blockOrVal).getArguments().length == 2) {
       Argument[] args = ((BlockNode) blockOrVal).getArguments();
-      assert args.length == 2;
       loopIdx = getLocal(args[1].getQualifiedName(holderGenc.getSource()));
     } else {
-      // if it is a literal, we still need a memory location for counting, so,
-      // add a synthetic local
+      // if it is a literal, or a block that does not take exactly one argument,
+      // we still need a memory location for counting, so, add a synthetic local
       loopIdx = addLocalAndUpdateScope(symbolFor(
           "!i" + SourceCoordinate.getLocationQualifier(
               holderGenc.getSource(), coord)),
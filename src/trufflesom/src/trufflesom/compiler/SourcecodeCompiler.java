@@ -53,7 +53,14 @@ public abstract class SourcecodeCompiler {
     String fname = path + File.separator + file + ".som";
     File f = new File(fname);
     Source source = SomLanguage.getSource(f);
+    return compileClass(source, file, systemClass, probe);
+  }
 
+  @TruffleBoundary
+  public SClass compileClass(final Source source, final String file,
+      final SClass systemClass,
+      final StructuralProbe<SSymbol, SClass, SInvokable, Field, Variable> probe)
+      throws ProgramDefinitionError {
     Parser<?> parser = createParser(source.getCharacters().toString(), source, probe);
     SClass result = compile(parser, systemClass);
 
@@ -90,7 +90,7 @@ public abstract class Variable implements trufflesom.bdt.inlining.Variable<Expre
   public static final class Argument extends Variable {
     public final int index;
 
-    Argument(final SSymbol name, final int index, final long coord) {
+    public Argument(final SSymbol name, final int index, final long coord) {
       super(name, coord);
       this.index = index;
     }
@@ -149,7 +149,7 @@ public abstract class Variable implements trufflesom.bdt.inlining.Variable<Expre
 
     @CompilationFinal private FrameDescriptor descriptor;
 
-    Local(final SSymbol name, final long coord, final int index) {
+    public Local(final SSymbol name, final long coord, final int index) {
       super(name, coord);
       this.slotIndex = index;
     }
@@ -0,0 +1,814 @@
+package trufflesom.compiler.bc;
+
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.source.Source;
+
+import trufflesom.bdt.basic.ProgramDefinitionError;
+import trufflesom.bdt.source.SourceCoordinate;
+import trufflesom.compiler.ClassGenerationContext;
+import trufflesom.compiler.Field;
+import trufflesom.compiler.MethodGenerationContext;
+import trufflesom.compiler.Parser;
+import trufflesom.compiler.ParserBc;
+import trufflesom.compiler.SourcecodeCompiler;
+import trufflesom.compiler.Variable;
+import trufflesom.compiler.Variable.Argument;
+import trufflesom.compiler.Variable.Internal;
+import trufflesom.compiler.Variable.Local;
+import trufflesom.interpreter.LexicalScope;
+import trufflesom.interpreter.Method;
+import trufflesom.interpreter.SomLanguage;
+import trufflesom.interpreter.bc.Bytecodes;
+import trufflesom.interpreter.nodes.ArgumentReadNode.LocalArgumentReadNode;
+import trufflesom.interpreter.nodes.ExpressionNode;
+import trufflesom.interpreter.nodes.FieldNode.FieldReadNode;
+import trufflesom.interpreter.nodes.FieldNode.FieldWriteNode;
+import trufflesom.interpreter.nodes.FieldNode.WriteAndReturnSelf;
+import trufflesom.interpreter.nodes.GlobalNode;
+import trufflesom.interpreter.nodes.ReturnNonLocalNode.CatchNonLocalReturnNode;
+import trufflesom.interpreter.nodes.bc.BytecodeLoopNode;
+import trufflesom.interpreter.nodes.bc.BytecodeLoopNode.BackJump;
+import trufflesom.interpreter.nodes.literals.LiteralNode;
+import trufflesom.primitives.Primitives;
+import trufflesom.vm.Universe;
+import trufflesom.vm.VmSettings;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable;
+import trufflesom.vmobjects.SInvokable.SMethod;
+import trufflesom.vmobjects.SInvokable.SPrimitive;
+import trufflesom.vmobjects.SObject;
+import trufflesom.vmobjects.SSymbol;
+
+
+/**
+ * Persistent on-disk cache for classes compiled to bytecode.
+ *
+ * <p>
+ * The cache stores the result of parsing and bytecode generation for a class,
+ * i.e., the bytecodes, literals, lexical scopes, and trivial method bodies.
+ * Entries are keyed by the hash of the class' source, and are only valid
+ * for the VM build that wrote them, and as long as the superclass still
+ * defines the same fields, since field accesses are compiled to indexes
+ * that include the inherited fields. Anything that is not understood when
+ * reading an entry is treated as a cache miss, and the class is parsed as usual.
+ *
+ * <p>
+ * Classes with methods that cannot be represented in the cache are simply
+ * not cached.
+ */
+public final class BytecodeCache {
+
+  private static final int MAGIC          = 0x534F4D42; // SOMB
+  private static final int FORMAT_VERSION = 3;
+
+  private static final String FILE_EXTENSION = ".sombc";
+
+  private static final byte VAR_ARGUMENT = 0;
+  private static final byte VAR_LOCAL    = 1;
+  private static final byte VAR_INTERNAL = 2;
+
+  private static final byte INVOKABLE_METHOD    = 0;
+  private static final byte INVOKABLE_PRIMITIVE = 1;
+
+  private static final byte BODY_BYTECODES   = 0;
+  private static final byte BODY_LITERAL     = 1;
+  private static final byte BODY_GLOBAL      = 2;
+  private static final byte BODY_FIELD_READ  = 3;
+  private static final byte BODY_FIELD_WRITE = 4;
+
+  private static final byte LIT_LONG    = 0;
+  private static final byte LIT_DOUBLE  = 1;
+  private static final byte LIT_BIGINT  = 2;
+  private static final byte LIT_STRING  = 3;
+  private static final byte LIT_SYMBOL  = 4;
+  private static final byte LIT_TRUE    = 5;
+  private static final byte LIT_FALSE   = 6;
+  private static final byte LIT_NIL     = 7;
+  private static final byte LIT_BLOCK   = 8;
+
+  /** Classes whose code is part of what ends up in the cache. */
+  private static final Class<?>[] BUILD_ID_CLASSES = {
+      BytecodeCache.class, BytecodeMethodGenContext.class, MethodGenerationContext.class,
+      BytecodeGenerator.class, Parser.class, ParserBc.class, Bytecodes.class,
+      BytecodeLoopNode.class};
+
+  private static String vmBuildId;
+
+  private final File cacheDir;
+
+  private int hits;
+  private int misses;
+
+  public BytecodeCache(final File cacheDir) {
+    this.cacheDir = cacheDir;
+  }
+
+  public int getNumberOfHits() {
+    return hits;
+  }
+
+  public int getNumberOfMisses() {
+    return misses;
+  }
+
+  /**
+   * Load the class from the cache, or compile it with the given compiler
+   * and store the result in the cache.
+   */
+  @TruffleBoundary
+  public SClass compileClass(final SourcecodeCompiler compiler, final String path,
+      final String file, final SClass systemClass)
+      throws IOException, ProgramDefinitionError {
+    File f = new File(path + File.separator + file + ".som");
+    Source source = SomLanguage.getSource(f);
+
+    String sourceHash = hash(source.getCharacters().toString());
+    File cacheFile = new File(cacheDir, file + "_" + sourceHash + FILE_EXTENSION);
+
+    SClass result = load(cacheFile, source, file, sourceHash, systemClass);
+    if (result != null) {
+      hits += 1;
+      return result;
+    }
+
+    misses += 1;
+    result = compiler.compileClass(source, file, systemClass, null);
+    store(cacheFile, result, sourceHash);
+    return result;
+  }
+
+  private SClass load(final File cacheFile, final Source source, final String file,
+      final String sourceHash, final SClass systemClass) {
+    if (!cacheFile.isFile()) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+          || !getVmBuildId().equals(readString(in))
+          || !sourceHash.equals(readString(in))
+          || !file.equals(readString(in))) {
+        return null;
+      }
+      return readClass(in, source, file, systemClass);
+    } catch (IOException | ProgramDefinitionError | RuntimeException e) {
+      // a corrupted or outdated entry is just a miss, it gets overwritten
+      return null;
+    }
+  }
+
+  private void store(final File cacheFile, final SClass clazz, final String sourceHash) {
+    Path tmp = null;
+    try {
+      if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+        return;
+      }
+
+      tmp = Files.createTempFile(cacheDir.toPath(), cacheFile.getName(), ".tmp");
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, getVmBuildId());
+        writeString(out, sourceHash);
+        writeString(out, clazz.getName().getString());
+        writeClass(out, clazz);
+      }
+
+      try {
+        Files.move(tmp, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmp = null;
+    } catch (IOException | RuntimeException e) {
+      // the cache is only an optimization, failing to write it is fine,
+      // and a class whose content cannot be written is just not cached
+    } finally {
+      if (tmp != null) {
+        try {
+          Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+          // ignore, nothing else we can do
+        }
+      }
+    }
+  }
+
+  private static void writeClass(final DataOutputStream out, final SClass clazz)
+      throws IOException {
+    SObject superClass = clazz.getSuperClass();
+    int numInheritedFields = 0;
+    int numInheritedClassFields = 0;
+
+    if (superClass instanceof SClass) {
+      SClass sc = (SClass) superClass;
+      out.writeBoolean(true);
+      writeString(out, sc.getName().getString());
+      writeFieldNames(out, sc.getInstanceFieldDefinitions());
+      writeFieldNames(out, sc.getSOMClass().getInstanceFieldDefinitions());
+      numInheritedFields = sc.getNumberOfInstanceFields();
+      numInheritedClassFields = sc.getSOMClass().getNumberOfInstanceFields();
+    } else {
+      out.writeBoolean(false);
+    }
+
+    out.writeLong(SourceCoordinate.create(clazz.getSourceSection()));
+    if ("Object".equals(clazz.getName().getString())) {
+      out.writeLong(Universe.selfCoord);
+    }
+
+    writeFields(out, clazz.getInstanceFieldDefinitions(), numInheritedFields);
+    writeInvokables(out, clazz, clazz.getInstanceInvokablesForDisassembler());
+
+    SClass classSide = clazz.getSOMClass();
+    writeFields(out, classSide.getInstanceFieldDefinitions(), numInheritedClassFields);
+    writeInvokables(out, classSide, classSide.getInstanceInvokablesForDisassembler());
+  }
+
+  private static SClass readClass(final DataInputStream in, final Source source,
+      final String name, final SClass systemClass) throws IOException, ProgramDefinitionError {
+    ClassGenerationContext cgenc = new ClassGenerationContext(source, null);
+    cgenc.setName(symbolFor(name));
+
+    if (in.readBoolean()) {
+      SClass superClass = Universe.loadClass(symbolFor(readString(in)));
+      if (superClass == null
+          || !sameFieldNames(in, superClass.getInstanceFieldDefinitions())
+          || !sameFieldNames(in, superClass.getSOMClass().getInstanceFieldDefinitions())) {
+        // the superclass changed its fields, the cached field indexes are stale
+        return null;
+      }
+      cgenc.setSuperClass(superClass);
+    }
+
+    cgenc.setSourceCoord(in.readLong());
+    boolean isObject = "Object".equals(cgenc.getName().getString());
+    long selfCoord = isObject ? in.readLong() : 0;
+
+    int numFields = in.readInt();
+    for (int i = 0; i < numFields; i += 1) {
+      cgenc.addInstanceField(symbolFor(readString(in)), in.readLong());
+    }
+
+    int numMethods = in.readInt();
+    for (int i = 0; i < numMethods; i += 1) {
+      cgenc.addInstanceMethod(readInvokable(in, source), null);
+    }
+
+    cgenc.switchToClassSide();
+
+    numFields = in.readInt();
+    for (int i = 0; i < numFields; i += 1) {
+      cgenc.addClassField(symbolFor(readString(in)), in.readLong());
+    }
+
+    numMethods = in.readInt();
+    for (int i = 0; i < numMethods; i += 1) {
+      cgenc.addClassMethod(readInvokable(in, source), null);
+    }
+
+    SClass result;
+    if (systemClass == null) {
+      result = cgenc.assemble();
+    } else {
+      cgenc.assembleSystemClass(systemClass);
+      result = systemClass;
+    }
+
+    // only set once the entry was read completely, a failed read is just a miss
+    if (isObject) {
+      Universe.selfCoord = selfCoord;
+      Universe.selfSource = source;
+    }
+    return result;
+  }
+
+  private static void writeFieldNames(final DataOutputStream out, final Field[] fields)
+      throws IOException {
+    out.writeInt(fields.length);
+    for (Field f : fields) {
+      writeString(out, f.getName().getString());
+    }
+  }
+
+  private static boolean sameFieldNames(final DataInputStream in, final Field[] fields)
+      throws IOException {
+    int numFields = in.readInt();
+    if (numFields != fields.length) {
+      return false;
+    }
+
+    for (Field f : fields) {
+      if (!f.getName().getString().equals(readString(in))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void writeFields(final DataOutputStream out, final Field[] fields,
+      final int numInherited) throws IOException {
+    out.writeInt(fields.length - numInherited);
+    for (int i = numInherited; i < fields.length; i += 1) {
+      writeString(out, fields[i].getName().getString());
+      out.writeLong(fields[i].getSourceCoordinate());
+    }
+  }
+
+  private static void writeInvokables(final DataOutputStream out, final SClass holder,
+      final Collection<SInvokable> invokables) throws IOException {
+    List<SInvokable> own = new ArrayList<>();
+    if (invokables != null) {
+      for (SInvokable i : invokables) {
+        if (i.getHolder() == holder) {
+          own.add(i);
+        }
+      }
+    }
+
+    out.writeInt(own.size());
+    for (SInvokable i : own) {
+      if (i instanceof SPrimitive) {
+        out.writeByte(INVOKABLE_PRIMITIVE);
+        writeString(out, i.getSignature().getString());
+        out.writeLong(i.getSourceCoordinate());
+      } else {
+        out.writeByte(INVOKABLE_METHOD);
+        writeMethod(out, (SMethod) i, null);
+      }
+    }
+  }
+
+  private static SInvokable readInvokable(final DataInputStream in, final Source source)
+      throws IOException {
+    byte kind = in.readByte();
+    if (kind == INVOKABLE_PRIMITIVE) {
+      SSymbol signature = symbolFor(readString(in));
+      return Primitives.constructEmptyPrimitive(signature, source, in.readLong(), null);
+    }
+
+    if (kind != INVOKABLE_METHOD) {
+      throw new IOException("Unexpected invokable kind " + kind);
+    }
+    return readMethod(in, source, null);
+  }
+
+  private static void writeMethod(final DataOutputStream out, final SMethod method,
+      final LexicalScope outerScope) throws IOException {
+    if (!(method.getInvokable() instanceof Method)) {
+      throw new NotCacheable();
+    }
+
+    Method ivk = (Method) method.getInvokable();
+    LexicalScope scope = ivk.getScope();
+    if (scope.getOuterScopeOrNull() != outerScope || scope.getMethod() != ivk) {
+      throw new NotCacheable();
+    }
+
+    writeString(out, method.getSignature().getString());
+    writeString(out, ivk.getName());
+    out.writeLong(ivk.getSourceCoordinate());
+
+    Variable[] vars = scope.getVariables();
+    if (vars == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(vars.length);
+      for (Variable v : vars) {
+        writeVariable(out, v);
+      }
+    }
+    out.writeInt(scope.getNumberOfLocals());
+    out.writeInt(scope.getNumberOfStackSlots());
+
+    ExpressionNode body = ivk.getUninitializedBody();
+    if (body instanceof CatchNonLocalReturnNode) {
+      out.writeBoolean(true);
+      body = body.getFirstMethodBodyNode();
+    } else {
+      out.writeBoolean(false);
+    }
+    writeBody(out, body, scope);
+  }
+
+  private static SMethod readMethod(final DataInputStream in, final Source source,
+      final LexicalScope outerScope) throws IOException {
+    SSymbol signature = symbolFor(readString(in));
+    String name = readString(in);
+    long coord = in.readLong();
+
+    LexicalScope scope = new LexicalScope(outerScope);
+    int numVars = in.readInt();
+    if (numVars >= 0) {
+      Variable[] vars = new Variable[numVars];
+      for (int i = 0; i < numVars; i += 1) {
+        vars[i] = readVariable(in);
+      }
+      scope.setVariables(vars);
+    }
+    int numLocals = in.readInt();
+    scope.finalizeVariables(numLocals, in.readInt());
+
+    boolean catchNonLocalReturn = in.readBoolean();
+
+    List<SMethod> embeddedBlocks = new ArrayList<>();
+    ExpressionNode body = readBody(in, source, scope, embeddedBlocks);
+    body.initialize(coord);
+
+    if (catchNonLocalReturn) {
+      body = new CatchNonLocalReturnNode(
+          body, getFrameOnStackMarker(scope)).initialize(body.getSourceCoordinate());
+    }
+
+    Method truffleMethod = new Method(name, source, coord, body, scope,
+        (ExpressionNode) body.deepCopy());
+    return new SMethod(signature, truffleMethod, embeddedBlocks.toArray(new SMethod[0]));
+  }
+
+  private static Internal getFrameOnStackMarker(final LexicalScope scope) throws IOException {
+    if (scope.getVariables() != null) {
+      for (Variable v : scope.getVariables()) {
+        if (v instanceof Internal) {
+          return (Internal) v;
+        }
+      }
+    }
+    throw new IOException("Frame-on-stack marker missing");
+  }
+
+  private static void writeVariable(final DataOutputStream out, final Variable v)
+      throws IOException {
+    if (v instanceof Argument) {
+      out.writeByte(VAR_ARGUMENT);
+      out.writeInt(((Argument) v).index);
+    } else if (v instanceof Internal) {
+      out.writeByte(VAR_INTERNAL);
+      out.writeInt(((Internal) v).getIndex());
+    } else {
+      out.writeByte(VAR_LOCAL);
+      out.writeInt(((Local) v).getIndex());
+    }
+    writeString(out, v.name.getString());
+    out.writeLong(v.coord);
+  }
+
+  private static Variable readVariable(final DataInputStream in) throws IOException {
+    byte kind = in.readByte();
+    int index = in.readInt();
+    SSymbol name = symbolFor(readString(in));
+    long coord = in.readLong();
+
+    switch (kind) {
+      case VAR_ARGUMENT:
+        return new Argument(name, index, coord);
+      case VAR_LOCAL:
+        return new Local(name, coord, index);
+      case VAR_INTERNAL:
+        return new Internal(name, coord, index);
+      default:
+        throw new IOException("Unexpected variable kind " + kind);
+    }
+  }
+
+  private static void writeBody(final DataOutputStream out, final ExpressionNode body,
+      final LexicalScope scope) throws IOException {
+    if (body instanceof BytecodeLoopNode) {
+      BytecodeLoopNode node = (BytecodeLoopNode) body;
+      out.writeByte(BODY_BYTECODES);
+
+      byte[] bytecodes = node.getBytecodeArray();
+      out.writeInt(bytecodes.length);
+      out.write(bytecodes);
+
+      out.writeInt(node.getNumberOfLocals());
+      out.writeInt(node.getMaximumNumberOfStackElements());
+      out.writeInt(node.getFrameOnStackMarkerIndex());
+
+      BackJump[] loops = node.getInlinedLoops();
+      out.writeInt(loops == null ? -1 : loops.length);
+      if (loops != null) {
+        for (BackJump l : loops) {
+          out.writeInt(l.getLoopBeginIdx());
+          out.writeInt(l.getBackwardsJumpIdx());
+        }
+      }
+
+      Object[] literals = node.getLiterals();
+      out.writeInt(literals.length);
+      for (Object lit : literals) {
+        writeLiteral(out, lit, scope);
+      }
+    } else if (body instanceof GlobalNode) {
+      out.writeByte(BODY_GLOBAL);
+      writeString(out, ((GlobalNode) body).getInvocationIdentifier().getString());
+    } else if (body instanceof LiteralNode) {
+      out.writeByte(BODY_LITERAL);
+      writeLiteral(out, body.executeGeneric(null), scope);
+    } else if (body instanceof FieldReadNode) {
+      FieldReadNode read = (FieldReadNode) body;
+      out.writeByte(BODY_FIELD_READ);
+      out.writeInt(read.getFieldIndex());
+      writeArgumentRead(out, read.getSelf(), scope);
+    } else if (body instanceof WriteAndReturnSelf) {
+      FieldWriteNode write = ((WriteAndReturnSelf) body).getWrite();
+      out.writeByte(BODY_FIELD_WRITE);
+      out.writeInt(write.getFieldIndex());
+      writeArgumentRead(out, write.getSelf(), scope);
+      writeArgumentRead(out, write.getValue(), scope);
+    } else {
+      throw new NotCacheable();
+    }
+  }
+
+  private static ExpressionNode readBody(final DataInputStream in, final Source source,
+      final LexicalScope scope, final List<SMethod> embeddedBlocks) throws IOException {
+    byte kind = in.readByte();
+    switch (kind) {
+      case BODY_BYTECODES: {
+        byte[] bytecodes = new byte[in.readInt()];
+        in.readFully(bytecodes);
+
+        int numLocals = in.readInt();
+        int maxStackDepth = in.readInt();
+        int frameOnStackMarkerIndex = in.readInt();
+
+        BackJump[] loops = null;
+        int numLoops = in.readInt();
+        if (numLoops >= 0) {
+          loops = new BackJump[numLoops];
+          for (int i = 0; i < numLoops; i += 1) {
+            loops[i] = new BackJump(in.readInt(), in.readInt());
+          }
+        }
+
+        Object[] literals = new Object[in.readInt()];
+        for (int i = 0; i < literals.length; i += 1) {
+          literals[i] = readLiteral(in, source, scope, embeddedBlocks);
+        }
+
+        return new BytecodeLoopNode(bytecodes, numLocals, literals, maxStackDepth,
+            frameOnStackMarkerIndex, loops);
+      }
+      case BODY_LITERAL:
+        return LiteralNode.create(readLiteral(in, source, scope, embeddedBlocks));
+      case BODY_GLOBAL:
+        return GlobalNode.create(symbolFor(readString(in)), null);
+      case BODY_FIELD_READ: {
+        int fieldIdx = in.readInt();
+        return new FieldReadNode(new LocalArgumentReadNode(readArgument(in, scope)), fieldIdx);
+      }
+      case BODY_FIELD_WRITE: {
+        int fieldIdx = in.readInt();
+        Argument self = readArgument(in, scope);
+        Argument val = readArgument(in, scope);
+        return FieldWriteNode.createForMethod(fieldIdx, self, val);
+      }
+      default:
+        throw new IOException("Unexpected body kind " + kind);
+    }
+  }
+
+  /**
+   * Arguments are referenced by their position in the variables of the
+   * scope they belong to, which might be the outer scope for trivial blocks.
+   */
+  private static void writeArgumentRead(final DataOutputStream out, final ExpressionNode node,
+      final LexicalScope scope) throws IOException {
+    if (node == null || node.getClass() != LocalArgumentReadNode.class) {
+      throw new NotCacheable();
+    }
+    Argument arg = ((LocalArgumentReadNode) node).arg;
+
+    int contextLevel = 0;
+    LexicalScope s = scope;
+    while (s != null) {
+      Variable[] vars = s.getVariables();
+      if (vars != null) {
+        for (int i = 0; i < vars.length; i += 1) {
+          if (vars[i] == arg) {
+            out.writeInt(contextLevel);
+            out.writeInt(i);
+            return;
+          }
+        }
+      }
+      s = s.getOuterScopeOrNull();
+      contextLevel += 1;
+    }
+    throw new NotCacheable();
+  }
+
+  private static Argument readArgument(final DataInputStream in, final LexicalScope scope)
+      throws IOException {
+    int contextLevel = in.readInt();
+    int varIdx = in.readInt();
+
+    LexicalScope s = scope;
+    for (int i = 0; i < contextLevel; i += 1) {
+      s = s.getOuterScope();
+    }
+    return (Argument) s.getVariables()[varIdx];
+  }
+
+  private static void writeLiteral(final DataOutputStream out, final Object lit,
+      final LexicalScope scope) throws IOException {
+    if (lit instanceof Long) {
+      out.writeByte(LIT_LONG);
+      out.writeLong((Long) lit);
+    } else if (lit instanceof Double) {
+      out.writeByte(LIT_DOUBLE);
+      out.writeDouble((Double) lit);
+    } else if (lit instanceof BigInteger) {
+      byte[] bytes = ((BigInteger) lit).toByteArray();
+      out.writeByte(LIT_BIGINT);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    } else if (lit instanceof String) {
+      out.writeByte(LIT_STRING);
+      writeString(out, (String) lit);
+    } else if (lit instanceof SSymbol) {
+      out.writeByte(LIT_SYMBOL);
+      writeString(out, ((SSymbol) lit).getString());
+    } else if (lit == Boolean.TRUE) {
+      out.writeByte(LIT_TRUE);
+    } else if (lit == Boolean.FALSE) {
+      out.writeByte(LIT_FALSE);
+    } else if (lit == Nil.nilObject) {
+      out.writeByte(LIT_NIL);
+    } else if (lit instanceof SMethod) {
+      SMethod block = (SMethod) lit;
+      out.writeByte(LIT_BLOCK);
+      out.writeBoolean(isEmbedded(scope, block));
+      writeMethod(out, block, scope);
+    } else {
+      throw new NotCacheable();
+    }
+  }
+
+  private static Object readLiteral(final DataInputStream in, final Source source,
+      final LexicalScope scope, final List<SMethod> embeddedBlocks) throws IOException {
+    byte kind = in.readByte();
+    switch (kind) {
+      case LIT_LONG:
+        return in.readLong();
+      case LIT_DOUBLE:
+        return in.readDouble();
+      case LIT_BIGINT: {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new BigInteger(bytes);
+      }
+      case LIT_STRING:
+        return readString(in);
+      case LIT_SYMBOL:
+        return symbolFor(readString(in));
+      case LIT_TRUE:
+        return true;
+      case LIT_FALSE:
+        return false;
+      case LIT_NIL:
+        return Nil.nilObject;
+      case LIT_BLOCK: {
+        boolean embedded = in.readBoolean();
+        SMethod block = readMethod(in, source, scope);
+        if (embedded) {
+          scope.addEmbeddedScope(((Method) block.getInvokable()).getScope());
+          embeddedBlocks.add(block);
+        }
+        return block;
+      }
+      default:
+        throw new IOException("Unexpected literal kind " + kind);
+    }
+  }
+
+  /**
+   * Blocks that were inlined remain in the literals, but their scope
+   * is not embedded in the outer scope anymore.
+   */
+  private static boolean isEmbedded(final LexicalScope scope, final SMethod block) {
+    LexicalScope[] embedded = scope.getEmbeddedScopes();
+    if (embedded == null) {
+      return false;
+    }
+
+    LexicalScope blockScope = ((Method) block.getInvokable()).getScope();
+    for (LexicalScope s : embedded) {
+      if (s == blockScope) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void writeString(final DataOutputStream out, final String str)
+      throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(final DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static String hash(final String str) {
+    return toHex(digest().digest(str.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * The build id changes whenever one of the classes that determines
+   * the content of the cache is recompiled, or a setting that changes
+   * the generated code differs.
+   */
+  private static synchronized String getVmBuildId() {
+    if (vmBuildId == null) {
+      StringBuilder sb = new StringBuilder();
+      sb.append(FORMAT_VERSION).append(':').append(Bytecodes.NUM_BYTECODES);
+      appendCompilationSettings(sb);
+
+      for (Class<?> c : BUILD_ID_CLASSES) {
+        sb.append(':').append(getClassFileStamp(c));
+      }
+      vmBuildId = hash(sb.toString());
+    }
+    return vmBuildId;
+  }
+
+  /** Settings that change the bytecodes, literals, or scopes of compiled methods. */
+  private static void appendCompilationSettings(final StringBuilder sb) {
+    sb.append(":frameSlotStack=").append(VmSettings.UseFrameSlotStack);
+  }
+
+  private static String getClassFileStamp(final Class<?> c) {
+    String name = c.getName();
+    URL url = c.getResource(name.substring(name.lastIndexOf('.') + 1) + ".class");
+    if (url == null) {
+      return "?";
+    }
+
+    try {
+      URLConnection conn = url.openConnection();
+      long lastModified = conn.getLastModified();
+      long size = conn.getContentLengthLong();
+      // release the file handle that was opened to get the meta data
+      conn.getInputStream().close();
+      return url + "@" + lastModified + "/" + size;
+    } catch (IOException e) {
+      return url.toString();
+    }
+  }
+
+  private static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(final byte[] bytes) {
+    StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+      sb.append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  /** Signals that a class uses something that the cache cannot represent. */
+  private static final class NotCacheable extends IOException {
+    private static final long serialVersionUID = -1693164766733960392L;
+
+    NotCacheable() {
+      super(null, null);
+    }
+  }
+}
@@ -29,6 +29,7 @@ import static trufflesom.interpreter.bc.Bytecodes.DUP;
 import static trufflesom.interpreter.bc.Bytecodes.HALT;
 import static trufflesom.interpreter.bc.Bytecodes.INC;
 import static trufflesom.interpreter.bc.Bytecodes.INC_FIELD_PUSH;
+import static trufflesom.interpreter.bc.Bytecodes.INC_LOCAL_PUSH;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP2;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP2_BACKWARDS;
@@ -109,6 +110,13 @@ public final class BytecodeGenerator {
     emit3(mgenc, INC_FIELD_PUSH, fieldIdx, ctx, 1);
   }
 
+  public static void emitINCLOCALPUSH(final BytecodeMethodGenContext mgenc,
+      final byte localIdx, final byte ctx) {
+    assert localIdx >= 0;
+    assert ctx >= 0;
+    emit3(mgenc, INC_LOCAL_PUSH, localIdx, ctx, 1);
+  }
+
   public static void emitPOP(final BytecodeMethodGenContext mgenc) {
     if (!mgenc.optimizeDupPopPopSequence()) {
       emit1(mgenc, POP, -1);
@@ -251,6 +259,10 @@ public final class BytecodeGenerator {
       final byte ctx) {
     assert idx >= 0;
     assert ctx >= 0;
+    if (mgenc.optimizeIncLocal(idx, ctx)) {
+      return;
+    }
+
     if (ctx == 0) {
       if (idx == 0) {
         emit1(mgenc, POP_LOCAL_0, -1);
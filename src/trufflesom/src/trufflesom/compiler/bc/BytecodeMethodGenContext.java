@@ -9,6 +9,8 @@ import static trufflesom.interpreter.bc.Bytecodes.DUP;
 import static trufflesom.interpreter.bc.Bytecodes.INC;
 import static trufflesom.interpreter.bc.Bytecodes.INC_FIELD;
 import static trufflesom.interpreter.bc.Bytecodes.INC_FIELD_PUSH;
+import static trufflesom.interpreter.bc.Bytecodes.INC_LOCAL;
+import static trufflesom.interpreter.bc.Bytecodes.INC_LOCAL_PUSH;
 import static trufflesom.interpreter.bc.Bytecodes.INVALID;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP2;
@@ -74,6 +76,7 @@ import trufflesom.interpreter.nodes.bc.BytecodeLoopNode;
 import trufflesom.interpreter.nodes.bc.BytecodeLoopNode.BackJump;
 import trufflesom.interpreter.nodes.literals.LiteralNode;
 import trufflesom.vm.NotYetImplementedException;
+import trufflesom.vm.VmSettings;
 import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SAbstractObject;
 import trufflesom.vmobjects.SClass;
@@ -150,6 +153,11 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
     return maxStackDepth;
   }
 
+  @Override
+  protected int getNumberOfStackSlots() {
+    return VmSettings.UseFrameSlotStack ? maxStackDepth : 0;
+  }
+
   public void addBytecode(final byte code, final int stackEffect) {
     bytecode.add(code);
 
@@ -285,6 +293,15 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
       assert Bytecodes.getBytecodeLength(INC_FIELD) == 3;
       assert bytecode.get(bcOffset) == INC_FIELD;
       bytecode.set(bcOffset, INC_FIELD_PUSH);
+    } else if (last4Bytecodes[3] == INC_LOCAL) {
+      // same as for INC_FIELD, the block needs the value to return it
+      last4Bytecodes[3] = INC_LOCAL_PUSH;
+
+      int bcOffset = bytecode.size() - 3;
+      assert Bytecodes.getBytecodeLength(INC_LOCAL_PUSH) == 3;
+      assert Bytecodes.getBytecodeLength(INC_LOCAL) == 3;
+      assert bytecode.get(bcOffset) == INC_LOCAL;
+      bytecode.set(bcOffset, INC_LOCAL_PUSH);
     }
   }
 
@@ -475,6 +492,9 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
   private static final byte[] PUSH_FIELD_BYTECODES = new byte[] {
       PUSH_FIELD, PUSH_FIELD_0, PUSH_FIELD_1};
 
+  private static final byte[] PUSH_LOCAL_BYTECODES = new byte[] {
+      PUSH_LOCAL, PUSH_LOCAL_0, PUSH_LOCAL_1, PUSH_LOCAL_2};
+
   private static final byte[] POP_FIELD_BYTECODES = new byte[] {
       POP_FIELD, POP_FIELD_0, POP_FIELD_1};
 
@@ -601,7 +621,11 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
     }
 
     if (lastBytecodeIs(0, INC_FIELD_PUSH) != INVALID) {
-      return optimizeIncFieldPush();
+      return optimizeIncPush(INC_FIELD_PUSH, INC_FIELD);
+    }
+
+    if (lastBytecodeIs(0, INC_LOCAL_PUSH) != INVALID) {
+      return optimizeIncPush(INC_LOCAL_PUSH, INC_LOCAL);
     }
 
     final byte popCandidate = lastBytecodeIsOneOf(0, POP_X_BYTECODES);
@@ -665,7 +689,8 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
       case POP_LOCAL:
       case POP_ARGUMENT:
       case POP_FIELD:
-      case INC_FIELD_PUSH: {
+      case INC_FIELD_PUSH:
+      case INC_LOCAL_PUSH: {
         int bcOffset = getOffsetOfLastBytecode(idxFromEnd);
         return bytecode.get(bcOffset + 1);
       }
@@ -684,20 +709,28 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
 
     switch (actual) {
       case POP_FIELD_0:
-      case PUSH_FIELD_0: {
+      case PUSH_FIELD_0:
+      case PUSH_LOCAL_0: {
         ctx = 0;
         idx = 0;
         break;
       }
       case POP_FIELD_1:
-      case PUSH_FIELD_1: {
+      case PUSH_FIELD_1:
+      case PUSH_LOCAL_1: {
         ctx = 0;
         idx = 1;
         break;
       }
+      case PUSH_LOCAL_2: {
+        ctx = 0;
+        idx = 2;
+        break;
+      }
 
       case PUSH_FIELD:
-      case POP_FIELD: {
+      case POP_FIELD:
+      case PUSH_LOCAL: {
         int bcOffset = getOffsetOfLastBytecode(idxFromEnd);
         idx = bytecode.get(bcOffset + 1);
         ctx = bytecode.get(bcOffset + 2);
@@ -711,14 +744,15 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
     return new byte[] {idx, ctx};
   }
 
-  private boolean optimizeIncFieldPush() {
-    assert Bytecodes.getBytecodeLength(INC_FIELD_PUSH) == 3;
+  private boolean optimizeIncPush(final byte incPush, final byte inc) {
+    assert Bytecodes.getBytecodeLength(incPush) == 3;
+    assert Bytecodes.getBytecodeLength(inc) == 3;
 
     int bcIdx = bytecode.size() - 3;
-    assert bytecode.get(bcIdx) == INC_FIELD_PUSH;
+    assert bytecode.get(bcIdx) == incPush;
 
-    bytecode.set(bcIdx, INC_FIELD);
-    last4Bytecodes[3] = INC_FIELD;
+    bytecode.set(bcIdx, inc);
+    last4Bytecodes[3] = inc;
 
     return true;
   }
@@ -764,6 +798,47 @@ public class BytecodeMethodGenContext extends MethodGenerationContext {
     return false;
   }
 
+  /**
+   * Try using a INC_LOCAL bytecode instead of the following sequence.
+   *
+   * <pre>
+   *   PUSH_LOCAL
+   *   INC
+   *   DUP
+   *   POP_LOCAL
+   * </pre>
+   *
+   * @return true, if it optimized it.
+   */
+  public boolean optimizeIncLocal(final byte localIdx, final byte ctx) {
+    if (isCurrentlyInliningBlock) {
+      return false;
+    }
+
+    if (lastBytecodeIs(0, DUP) == INVALID) {
+      return false;
+    }
+    if (lastBytecodeIs(1, INC) == INVALID) {
+      return false;
+    }
+
+    if (lastBytecodeIsOneOf(2, PUSH_LOCAL_BYTECODES) == INVALID) {
+      return false;
+    }
+
+    byte[] idxCtxPushLocal = getIndexAndContext(2);
+
+    if (localIdx == idxCtxPushLocal[0] && ctx == idxCtxPushLocal[1]) {
+      // remove the PUSH_LOCAL, INC, and DUP, the POP_LOCAL wasn't emitted yet
+      removeLastBytecodes(3);
+
+      resetLastBytecodeBuffer();
+      BytecodeGenerator.emitINCLOCALPUSH(this, localIdx, ctx);
+      return true;
+    }
+    return false;
+  }
+
   /**
    * This is going to try to optimize PUSH_FIELD_n, RETURN_LOCAL sequences.
    * The RETURN_LOCAL hasn't been written yet, so, we only need to check the PUSH_FIELD_n
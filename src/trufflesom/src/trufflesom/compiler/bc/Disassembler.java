@@ -29,6 +29,8 @@ package trufflesom.compiler.bc;
 import static trufflesom.compiler.bc.BytecodeMethodGenContext.getJumpOffset;
 import static trufflesom.interpreter.bc.Bytecodes.INC_FIELD;
 import static trufflesom.interpreter.bc.Bytecodes.INC_FIELD_PUSH;
+import static trufflesom.interpreter.bc.Bytecodes.INC_LOCAL;
+import static trufflesom.interpreter.bc.Bytecodes.INC_LOCAL_PUSH;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP2;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP2_BACKWARDS;
@@ -59,6 +61,7 @@ import static trufflesom.interpreter.bc.Bytecodes.Q_SEND;
 import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_1;
 import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_2;
 import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_3;
+import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_PIC;
 import static trufflesom.interpreter.bc.Bytecodes.RETURN_NON_LOCAL;
 import static trufflesom.interpreter.bc.Bytecodes.SEND;
 import static trufflesom.interpreter.bc.Bytecodes.SUPER_SEND;
@@ -175,6 +178,8 @@ public class Disassembler {
       Universe.errorPrint(getPaddedBytecodeName(bytecode) + "  ");
 
       switch (bytecode) {
+        case INC_LOCAL:
+        case INC_LOCAL_PUSH:
         case POP_LOCAL:
         case PUSH_LOCAL: {
           int idx = bytecodes.get(b + 1);
@@ -308,6 +313,7 @@ public class Disassembler {
         case Q_SEND_1:
         case Q_SEND_2:
         case Q_SEND_3:
+        case Q_SEND_PIC:
         case SEND:
         case SUPER_SEND: {
           int idx = bytecodes.get(b + 1);
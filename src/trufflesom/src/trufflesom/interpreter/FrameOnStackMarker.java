@@ -23,26 +23,62 @@
  */
 package trufflesom.interpreter;
 
+import com.oracle.truffle.api.frame.Frame;
+
+
 /**
- * The FrameOnStackMarker is a marker to represent the identity of frames, and
- * to keep track on the status of whether the frame is still on the stack.
- * Currently it is used to implement non-local returns by marking
- * stack frames with it, and checking for the marker during unwinding.
+ * The FrameOnStackMarker keeps track on the status of whether a frame is still on the
+ * stack. Currently it is used to implement non-local returns by marking the frames of
+ * methods, which are the targets of non-local returns, and checking for the marker
+ * before unwinding.
+ *
+ * <p>
+ * The marker is kept in a frame slot of the method, and the frame itself represents
+ * the identity of the activation. Thus, no marker object needs to be allocated for each
+ * activation of a method with non-local returns.
+ *
+ * <p>
+ * A return to the activation stores its result in the slot before unwinding. This way,
+ * the activation recognizes that it is the target of a {@link ReturnException} by
+ * looking at its own frame, without having to compare frames.
  *
  * @author Stefan Marr
  */
 public final class FrameOnStackMarker {
-  private boolean isOnStack;
+  private FrameOnStackMarker() {}
+
+  private static final Object ON_STACK     = new Object();
+  private static final Object NOT_ON_STACK = new Object();
+
+  public static void markOnStack(final Frame frame, final int markerIndex) {
+    frame.setObject(markerIndex, ON_STACK);
+  }
+
+  public static void frameNoLongerOnStack(final Frame frame, final int markerIndex) {
+    frame.setObject(markerIndex, NOT_ON_STACK);
+  }
 
-  public FrameOnStackMarker() {
-    isOnStack = true;
+  public static boolean isOnStack(final Frame frame, final int markerIndex) {
+    return frame.getObject(markerIndex) == ON_STACK;
   }
 
-  public void frameNoLongerOnStack() {
-    isOnStack = false;
+  /** Records the result of a return to the activation of the given frame. */
+  public static void setReturnValue(final Frame frame, final int markerIndex,
+      final Object result) {
+    assert isOnStack(frame, markerIndex);
+    frame.setObject(markerIndex, result);
   }
 
-  public boolean isOnStack() {
-    return isOnStack;
+  /**
+   * @return the result of a return to the activation of the given frame, or null if the
+   *         return is for another activation
+   */
+  public static Object getReturnValue(final Frame frame, final int markerIndex) {
+    Object result = frame.getObject(markerIndex);
+    if (result == ON_STACK) {
+      return null;
+    }
+    assert result != NOT_ON_STACK;
+    return result;
   }
 }
@@ -0,0 +1,91 @@
+package trufflesom.interpreter;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.source.Source;
+
+import trufflesom.compiler.MethodGenerationContext;
+import trufflesom.compiler.Variable.Local;
+import trufflesom.interpreter.nodes.ExpressionNode;
+import trufflesom.interpreter.nodes.specialized.InlinedBlockLoopNode;
+import trufflesom.vmobjects.SBlock;
+import trufflesom.vmobjects.SInvokable.SMethod;
+
+
+/**
+ * The method of a block literal that was inlined into a loop, see
+ * {@link InlinedBlockLoopNode}. It is only used when the loop needs to send its message
+ * with a block after all.
+ *
+ * <p>
+ * It runs a copy of the inlined body in the frame of the method the literal was inlined
+ * into, which is the context of the block. The argument is passed in the local that
+ * replaced the parameter of the block.
+ */
+public final class InlinedBlockMethod extends Invokable {
+
+  @Child private ExpressionNode body;
+
+  private final Local argument;
+  private final int   argumentIndex;
+
+  /** The method the literal was inlined into. */
+  private final Invokable home;
+
+  public InlinedBlockMethod(final String name, final Source source, final long sourceCoord,
+      final ExpressionNode body, final Local argument, final Invokable home) {
+    super(name, source, sourceCoord, new FrameDescriptor());
+    this.body = body;
+    this.argument = argument;
+    this.argumentIndex = argument.getIndex();
+    this.home = home;
+  }
+
+  @Override
+  public Object execute(final VirtualFrame frame) {
+    Object[] args = frame.getArguments();
+    MaterializedFrame context = ((SBlock) args[0]).getContext();
+
+    if (args.length > 1) {
+      FrameDescriptor descriptor = argument.getFrameDescriptor();
+      if (descriptor.getSlotKind(argumentIndex) == FrameSlotKind.Illegal) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        descriptor.setSlotKind(argumentIndex, FrameSlotKind.Object);
+      }
+      context.setObject(argumentIndex, args[1]);
+    }
+    return body.executeGeneric(context);
+  }
+
+  @Override
+  public Node deepCopy() {
+    return new InlinedBlockMethod(
+        name, source, sourceCoord, NodeUtil.cloneNode(body), argument, home);
+  }
+
+  @Override
+  public ExpressionNode inline(final MethodGenerationContext mgenc, final SMethod outer) {
+    throw new UnsupportedOperationException(
+        "The body of an inlined block is already part of the method it was inlined into.");
+  }
+
+  @Override
+  public void propagateLoopCountThroughoutLexicalScope(final long count) {
+    home.propagateLoopCountThroughoutLexicalScope(count);
+  }
+
+  @Override
+  public boolean isTrivial() {
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "InlinedBlock(" + name + ")";
+  }
+}
@@ -12,6 +12,7 @@ import trufflesom.bdt.source.SourceCoordinate;
 import trufflesom.compiler.MethodGenerationContext;
 import trufflesom.interpreter.nodes.ExpressionNode;
 import trufflesom.interpreter.nodes.dispatch.AbstractDispatchNode;
+import trufflesom.interpreter.nodes.dispatch.BlockSplitting;
 import trufflesom.vmobjects.SClass;
 import trufflesom.vmobjects.SInvokable.SMethod;
 
@@ -23,6 +24,12 @@ public abstract class Invokable extends RootNode implements WithSource {
 
   protected SClass holder;
 
+  /** Set when callers should get their own copy, see {@link BlockSplitting}. */
+  private boolean splittingRequested;
+
+  /** Set for the copies made for a single caller, see {@link BlockSplitting}. */
+  private boolean splitForCaller;
+
   protected Invokable(final String name, final Source source, final long sourceCoord,
       final FrameDescriptor frameDescriptor) {
     super(SomLanguage.getCurrent(), frameDescriptor);
@@ -91,6 +98,22 @@ public abstract class Invokable extends RootNode implements WithSource {
     this.holder = holder;
   }
 
+  public void requestSplitting() {
+    splittingRequested = true;
+  }
+
+  public boolean isSplittingRequested() {
+    return splittingRequested;
+  }
+
+  public void markSplitForCaller() {
+    splitForCaller = true;
+  }
+
+  public boolean isSplitForCaller() {
+    return splitForCaller;
+  }
+
   @Override
   public abstract boolean isTrivial();
 
@@ -26,6 +26,7 @@ public final class LexicalScope implements Scope<LexicalScope, Method> {
   @CompilationFinal(dimensions = 1) private LexicalScope[] embeddedScopes;
 
   private int numberOfLocals;
+  private int numberOfStackSlots;
 
   public LexicalScope(final LexicalScope outerScope) {
     this.outerScope = outerScope;
@@ -61,6 +62,14 @@ public final class LexicalScope implements Scope<LexicalScope, Method> {
     return null;
   }
 
+  public int getNumberOfLocals() {
+    return numberOfLocals;
+  }
+
+  public int getNumberOfStackSlots() {
+    return numberOfStackSlots;
+  }
+
   public boolean isBlock() {
     return outerScope != null;
   }
@@ -71,14 +80,26 @@ public final class LexicalScope implements Scope<LexicalScope, Method> {
   }
 
   public void finalizeVariables(final int numLocals) {
-    Builder builder = FrameDescriptor.newBuilder(numLocals);
+    finalizeVariables(numLocals, 0);
+  }
+
+  /**
+   * Create the frame descriptor with slots for the locals, followed by
+   * slots that the bytecode interpreter can use as operand stack.
+   */
+  public void finalizeVariables(final int numLocals, final int numStackSlots) {
+    Builder builder = FrameDescriptor.newBuilder(numLocals + numStackSlots);
     builder.defaultValue(Nil.nilObject);
     builder.addSlots(numLocals, FrameSlotKind.Illegal);
+    if (numStackSlots > 0) {
+      builder.addSlots(numStackSlots, FrameSlotKind.Illegal);
+    }
     frameDescriptor = builder.build();
 
     assert frameDescriptor != null;
 
     numberOfLocals = numLocals;
+    numberOfStackSlots = numStackSlots;
 
     if (variables == null) {
       return;
@@ -173,7 +194,7 @@ public final class LexicalScope implements Scope<LexicalScope, Method> {
     }
     split.setVariables(newVars);
     split.setMethod(method);
-    split.finalizeVariables(numberOfLocals);
+    split.finalizeVariables(numberOfLocals, numberOfStackSlots);
 
     return split;
   }
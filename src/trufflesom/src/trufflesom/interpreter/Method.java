@@ -66,6 +66,10 @@ public final class Method extends Invokable {
     return currentLexicalScope;
   }
 
+  public ExpressionNode getUninitializedBody() {
+    return uninitializedBody;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (o == this) {
@@ -24,22 +24,16 @@ package trufflesom.interpreter;
 import com.oracle.truffle.api.nodes.ControlFlowException;
 
 
+/**
+ * Unwinds the stack to the activation of the method that is the target of a return.
+ * The result is stored in the frame of the target, see {@link FrameOnStackMarker},
+ * which identifies the target. Thus, the exception carries no state, and a single
+ * instance is thrown for all returns.
+ */
 public final class ReturnException extends ControlFlowException {
   private static final long serialVersionUID = 8003954137724716L;
 
-  private final transient Object             result;
-  private final transient FrameOnStackMarker target;
-
-  public ReturnException(final Object result, final FrameOnStackMarker target) {
-    this.result = result;
-    this.target = target;
-  }
-
-  public Object result() {
-    return result;
-  }
+  public static final ReturnException INSTANCE = new ReturnException();
 
-  public boolean reachedTarget(final FrameOnStackMarker current) {
-    return current == target;
-  }
+  private ReturnException() {}
 }
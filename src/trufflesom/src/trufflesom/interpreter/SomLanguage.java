@@ -22,8 +22,13 @@ import com.oracle.truffle.api.source.Source;
 
 import trufflesom.compiler.SourcecodeCompiler.AstCompiler;
 import trufflesom.compiler.SourcecodeCompiler.BcCompiler;
+import trufflesom.interpreter.bc.BytecodeProfile;
+import trufflesom.interpreter.nodes.dispatch.BlockSplitting;
+import trufflesom.interpreter.objectstorage.LayoutTrace;
 import trufflesom.interpreter.objectstorage.StorageAnalyzer;
+import trufflesom.interpreter.objectstorage.StorageLocation;
 import trufflesom.tools.nodestats.Tags.AnyNode;
+import trufflesom.vm.MethodCache;
 import trufflesom.vm.NotYetImplementedException;
 import trufflesom.vm.Universe;
 import trufflesom.vm.Universe.SomExit;
@@ -80,6 +85,17 @@ public class SomLanguage extends TruffleLanguage<SomLanguage> {
 
   @Override
   protected void disposeContext(final SomLanguage lang) {
+    if (VmSettings.BytecodeProfileFile != null) {
+      BytecodeProfile.writeReport(VmSettings.BytecodeProfileFile);
+    }
+    if (VmSettings.LayoutTraceFile != null) {
+      LayoutTrace.writeReport(VmSettings.LayoutTraceFile);
+    }
+    if (VmSettings.BlockDispatchReportFile != null) {
+      BlockSplitting.writeReport(VmSettings.BlockDispatchReportFile);
+    }
+    MethodCache.invalidate();
+    StorageLocation.resetSharedLocations();
     current = null;
   }
 
@@ -0,0 +1,172 @@
+package trufflesom.interpreter.bc;
+
+import static trufflesom.interpreter.bc.Bytecodes.HALT;
+import static trufflesom.interpreter.bc.Bytecodes.JUMP_BYTECODES;
+import static trufflesom.interpreter.bc.Bytecodes.NUM_BYTECODES;
+import static trufflesom.interpreter.bc.Bytecodes.PUSH_GLOBAL;
+import static trufflesom.interpreter.bc.Bytecodes.Q_PUSH_GLOBAL;
+import static trufflesom.interpreter.bc.Bytecodes.Q_SEND;
+import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_1;
+import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_2;
+import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_3;
+import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_PIC;
+import static trufflesom.interpreter.bc.Bytecodes.RETURN_FIELD_0;
+import static trufflesom.interpreter.bc.Bytecodes.RETURN_FIELD_1;
+import static trufflesom.interpreter.bc.Bytecodes.RETURN_FIELD_2;
+import static trufflesom.interpreter.bc.Bytecodes.RETURN_LOCAL;
+import static trufflesom.interpreter.bc.Bytecodes.RETURN_NON_LOCAL;
+import static trufflesom.interpreter.bc.Bytecodes.RETURN_SELF;
+import static trufflesom.interpreter.bc.Bytecodes.SEND;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import trufflesom.vm.ReportWriter;
+
+
+/**
+ * Counts how often bytecodes, and sequences of two and three bytecodes, are executed.
+ *
+ * <p>
+ * A sequence is the bytecode being executed followed by its static successors in the
+ * bytecode array. Sequences across jumps and returns are not counted, since such bytecodes
+ * cannot be combined into a superinstruction. Quickened bytecodes are counted as the
+ * bytecode they were derived from, so that the report reflects what the compiler emits.
+ *
+ * <p>
+ * The report is meant to identify candidates for new superinstructions. It is enabled with
+ * <code>-Dsom.bytecodeProfile=report.yml</code> and only supported in the interpreter.
+ */
+public final class BytecodeProfile {
+  private static final int NUM_REPORTED = 30;
+
+  private static long[] singles;
+  private static long[] pairs;
+  private static long[] triples;
+
+  private BytecodeProfile() {}
+
+  @TruffleBoundary
+  public static synchronized void record(final byte[] bytecodes, final int bytecodeIndex) {
+    if (singles == null) {
+      singles = new long[NUM_BYTECODES];
+      pairs = new long[NUM_BYTECODES * NUM_BYTECODES];
+      triples = new long[NUM_BYTECODES * NUM_BYTECODES * NUM_BYTECODES];
+    }
+
+    byte first = normalize(bytecodes[bytecodeIndex]);
+    singles[first] += 1;
+
+    if (endsSequence(first)) {
+      return;
+    }
+
+    int secondIdx = bytecodeIndex + Bytecodes.getBytecodeLength(first);
+    if (secondIdx >= bytecodes.length) {
+      return;
+    }
+
+    byte second = normalize(bytecodes[secondIdx]);
+    pairs[first * NUM_BYTECODES + second] += 1;
+
+    if (endsSequence(second)) {
+      return;
+    }
+
+    int thirdIdx = secondIdx + Bytecodes.getBytecodeLength(second);
+    if (thirdIdx >= bytecodes.length) {
+      return;
+    }
+
+    byte third = normalize(bytecodes[thirdIdx]);
+    triples[(first * NUM_BYTECODES + second) * NUM_BYTECODES + third] += 1;
+  }
+
+  private static byte normalize(final byte bytecode) {
+    switch (bytecode) {
+      case Q_PUSH_GLOBAL:
+        return PUSH_GLOBAL;
+      case Q_SEND:
+      case Q_SEND_1:
+      case Q_SEND_2:
+      case Q_SEND_3:
+      case Q_SEND_PIC:
+        return SEND;
+      default:
+        return bytecode;
+    }
+  }
+
+  private static boolean endsSequence(final byte bytecode) {
+    switch (bytecode) {
+      case HALT:
+      case RETURN_LOCAL:
+      case RETURN_NON_LOCAL:
+      case RETURN_SELF:
+      case RETURN_FIELD_0:
+      case RETURN_FIELD_1:
+      case RETURN_FIELD_2:
+        return true;
+      default:
+        return Bytecodes.isOneOf(bytecode, JUMP_BYTECODES);
+    }
+  }
+
+  public static synchronized String createReport() {
+    StringBuilder builder = new StringBuilder();
+    if (singles == null) {
+      builder.append("# no bytecodes were executed\n");
+      return builder.toString();
+    }
+
+    builder.append("bytecodes:\n");
+    appendTop(builder, singles, 1);
+    builder.append("pairs:\n");
+    appendTop(builder, pairs, 2);
+    builder.append("triples:\n");
+    appendTop(builder, triples, 3);
+    return builder.toString();
+  }
+
+  private static void appendTop(final StringBuilder builder, final long[] counts,
+      final int length) {
+    List<Integer> indexes = new ArrayList<>();
+    for (int i = 0; i < counts.length; i += 1) {
+      if (counts[i] > 0) {
+        indexes.add(i);
+      }
+    }
+
+    indexes.sort((a, b) -> Long.compare(counts[b], counts[a]));
+
+    int n = Math.min(NUM_REPORTED, indexes.size());
+    for (int i = 0; i < n; i += 1) {
+      int idx = indexes.get(i);
+
+      String[] names = new String[length];
+      for (int j = length - 1; j >= 0; j -= 1) {
+        names[j] = Bytecodes.getBytecodeName((byte) (idx % NUM_BYTECODES));
+        idx /= NUM_BYTECODES;
+      }
+
+      builder.append("  - sequence: [");
+      builder.append(String.join(", ", names));
+      builder.append("]\n");
+      builder.append("    count: ");
+      builder.append(counts[indexes.get(i)]);
+      builder.append('\n');
+    }
+  }
+
+  public static void writeReport(final String file) {
+    ReportWriter.write(file, createReport(), "bytecode profile");
+  }
+
+  public static synchronized void reset() {
+    singles = null;
+    pairs = null;
+    triples = null;
+  }
+}
@@ -112,6 +112,10 @@ public class Bytecodes {
   public static final byte Q_SEND_1      = 58;
   public static final byte Q_SEND_2      = 59;
   public static final byte Q_SEND_3      = 60;
+  public static final byte Q_SEND_PIC    = 61;
+
+  public static final byte INC_LOCAL      = 62;
+  public static final byte INC_LOCAL_PUSH = 63;
 
   public static final byte INVALID = -1;
 
@@ -166,7 +170,7 @@ public class Bytecodes {
   }
 
   static {
-    NUM_BYTECODES = Q_SEND_3 + 1;
+    NUM_BYTECODES = INC_LOCAL_PUSH + 1;
 
     PADDED_BYTECODE_NAMES = new String[] {
         "HALT            ",
@@ -247,6 +251,10 @@ public class Bytecodes {
         "Q_SEND_1        ",
         "Q_SEND_2        ",
         "Q_SEND_3        ",
+        "Q_SEND_PIC      ",
+
+        "INC_LOCAL       ",
+        "INC_LOCAL_PUSH  ",
     };
 
     assert PADDED_BYTECODE_NAMES.length == NUM_BYTECODES : "Inconsistency between number of bytecodes and defined padded names";
@@ -329,6 +337,10 @@ public class Bytecodes {
         2, // Q_SEND_1
         2, // Q_SEND_2
         2, // Q_SEND_3
+        2, // Q_SEND_PIC
+
+        3, // INC_LOCAL
+        3, // INC_LOCAL_PUSH
     };
 
     assert BYTECODE_LENGTH.length == NUM_BYTECODES : "The BYTECODE_LENGTH array is not having the same size as number of bytecodes";
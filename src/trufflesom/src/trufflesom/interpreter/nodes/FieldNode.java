@@ -40,9 +40,9 @@ import trufflesom.interpreter.nodes.dispatch.AbstractDispatchNode;
 import trufflesom.interpreter.nodes.dispatch.CachedFieldRead;
 import trufflesom.interpreter.nodes.dispatch.CachedFieldWriteAndSelf;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractIncrementFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractReadFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractWriteFieldNode;
-import trufflesom.interpreter.objectstorage.FieldAccessorNode.IncrementLongFieldNode;
 import trufflesom.interpreter.objectstorage.ObjectLayout;
 import trufflesom.interpreter.objectstorage.StorageLocation;
 import trufflesom.vm.NotYetImplementedException;
@@ -94,6 +94,12 @@ public abstract class FieldNode extends ExpressionNode {
       return read.readDouble(obj);
     }
 
+    @Override
+    public boolean executeBoolean(final VirtualFrame frame) throws UnexpectedResultException {
+      SObject obj = (SObject) self.executeGeneric(frame);
+      return read.readBoolean(obj);
+    }
+
     @Override
     public Object executeGeneric(final VirtualFrame frame) {
       SObject obj = (SObject) self.executeGeneric(frame);
@@ -230,6 +236,11 @@ public abstract class FieldNode extends ExpressionNode {
       return write.write(self, value);
     }
 
+    @Specialization
+    public boolean doBoolean(final SObject self, final boolean value) {
+      return write.write(self, value);
+    }
+
     @Specialization
     public Object doObject(final VirtualFrame frame, final SObject self,
         final Object value) {
@@ -291,7 +302,7 @@ public abstract class FieldNode extends ExpressionNode {
         throw new NotYetImplementedException();
       }
 
-      IncrementLongFieldNode node = FieldAccessorNode.createIncrement(fieldIndex, obj);
+      AbstractIncrementFieldNode node = FieldAccessorNode.createIncrement(fieldIndex, obj);
       IncFieldNode incNode = new IncFieldNode(self, node, sourceCoord);
       replace(incNode);
       node.notifyAsInserted();
@@ -302,9 +313,9 @@ public abstract class FieldNode extends ExpressionNode {
 
   private static final class IncFieldNode extends FieldNode {
     @Child private ExpressionNode         self;
-    @Child private IncrementLongFieldNode inc;
+    @Child private AbstractIncrementFieldNode inc;
 
-    IncFieldNode(final ExpressionNode self, final IncrementLongFieldNode inc,
+    IncFieldNode(final ExpressionNode self, final AbstractIncrementFieldNode inc,
         final long coord) {
       initialize(coord);
       this.self = self;
@@ -342,6 +353,10 @@ public abstract class FieldNode extends ExpressionNode {
       this.write = write;
     }
 
+    public FieldWriteNode getWrite() {
+      return (FieldWriteNode) write;
+    }
+
     @Override
     public Object doPreEvaluated(final VirtualFrame frame, final Object[] args) {
       write.doPreEvaluated(frame, args);
@@ -47,6 +47,10 @@ public class GenericMessageSendNode extends AbstractMessageSendNode {
     return Cost.getCost(dispatchNode);
   }
 
+  public AbstractDispatchNode getDispatchNode() {
+    return dispatchNode;
+  }
+
   @Override
   public SSymbol getInvocationIdentifier() {
     return selector;
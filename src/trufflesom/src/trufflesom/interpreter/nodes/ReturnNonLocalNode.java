@@ -61,10 +61,10 @@ public final class ReturnNonLocalNode extends ContextualNode {
     Object result = expression.executeGeneric(frame);
 
     MaterializedFrame ctx = determineContext(frame);
-    FrameOnStackMarker marker = (FrameOnStackMarker) ctx.getObject(onStackMarkerIndex);
 
-    if (marker.isOnStack()) {
-      throw new ReturnException(result, marker);
+    if (FrameOnStackMarker.isOnStack(ctx, onStackMarkerIndex)) {
+      FrameOnStackMarker.setReturnValue(ctx, onStackMarkerIndex, result);
+      throw ReturnException.INSTANCE;
     } else {
       blockEscaped.enter();
       SBlock block = (SBlock) frame.getArguments()[0];
@@ -113,14 +113,17 @@ public final class ReturnNonLocalNode extends ContextualNode {
     @Override
     public Object executeGeneric(final VirtualFrame frame) {
       Object result = expression.executeGeneric(frame);
-      FrameOnStackMarker marker = (FrameOnStackMarker) frame.getObject(onStackMarkerIndex);
 
       // this ReturnLocalNode should only become part of an AST because of
       // inlining a literal block, and that block, should never be
       // captured as a value and passed around. Because, we should only ever
       // do the inlining for blocks where we know this doesn't happen.
-      assert marker.isOnStack();
-      throw new ReturnException(result, marker);
+      // The block a loop sends, when it cannot run the inlined body itself,
+      // runs this node only while the loop, and thus its method, is active.
+      assert FrameOnStackMarker.isOnStack(frame, onStackMarkerIndex);
+
+      FrameOnStackMarker.setReturnValue(frame, onStackMarkerIndex, result);
+      throw ReturnException.INSTANCE;
     }
 
     @Override
@@ -162,22 +165,22 @@ public final class ReturnNonLocalNode extends ContextualNode {
 
     @Override
     public Object executeGeneric(final VirtualFrame frame) {
-      FrameOnStackMarker marker = new FrameOnStackMarker();
-      frame.setObject(onStackMarkerIndex, marker);
+      FrameOnStackMarker.markOnStack(frame, onStackMarkerIndex);
 
       try {
         return methodBody.executeGeneric(frame);
       } catch (ReturnException e) {
         nonLocalReturnHandler.enter();
-        if (!e.reachedTarget(marker)) {
+        Object result = FrameOnStackMarker.getReturnValue(frame, onStackMarkerIndex);
+        if (result == null) {
           doPropagate.enter();
           throw e;
         } else {
           doCatch.enter();
-          return e.result();
+          return result;
         }
       } finally {
-        marker.frameNoLongerOnStack();
+        FrameOnStackMarker.frameNoLongerOnStack(frame, onStackMarkerIndex);
       }
     }
 
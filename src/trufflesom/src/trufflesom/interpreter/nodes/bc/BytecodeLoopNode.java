@@ -21,6 +21,8 @@ import static trufflesom.interpreter.bc.Bytecodes.HALT;
 import static trufflesom.interpreter.bc.Bytecodes.INC;
 import static trufflesom.interpreter.bc.Bytecodes.INC_FIELD;
 import static trufflesom.interpreter.bc.Bytecodes.INC_FIELD_PUSH;
+import static trufflesom.interpreter.bc.Bytecodes.INC_LOCAL;
+import static trufflesom.interpreter.bc.Bytecodes.INC_LOCAL_PUSH;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP2;
 import static trufflesom.interpreter.bc.Bytecodes.JUMP2_BACKWARDS;
@@ -68,6 +70,7 @@ import static trufflesom.interpreter.bc.Bytecodes.Q_SEND;
 import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_1;
 import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_2;
 import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_3;
+import static trufflesom.interpreter.bc.Bytecodes.Q_SEND_PIC;
 import static trufflesom.interpreter.bc.Bytecodes.RETURN_FIELD_0;
 import static trufflesom.interpreter.bc.Bytecodes.RETURN_FIELD_1;
 import static trufflesom.interpreter.bc.Bytecodes.RETURN_FIELD_2;
@@ -90,10 +93,16 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.HostCompilerDirectives.BytecodeInterpreterSwitch;
 import com.oracle.truffle.api.HostCompilerDirectives.InliningCutoff;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.ExplodeLoop.LoopExplosionKind;
+import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
@@ -112,6 +121,7 @@ import trufflesom.interpreter.Invokable;
 import trufflesom.interpreter.Method;
 import trufflesom.interpreter.ReturnException;
 import trufflesom.interpreter.Types;
+import trufflesom.interpreter.bc.BytecodeProfile;
 import trufflesom.interpreter.bc.Bytecodes;
 import trufflesom.interpreter.bc.RespecializeException;
 import trufflesom.interpreter.bc.RestartLoopException;
@@ -121,19 +131,22 @@ import trufflesom.interpreter.nodes.GenericMessageSendNode;
 import trufflesom.interpreter.nodes.GlobalNode;
 import trufflesom.interpreter.nodes.MessageSendNode;
 import trufflesom.interpreter.nodes.NoPreEvalExprNode;
+import trufflesom.interpreter.nodes.dispatch.BlockSplitting;
+import trufflesom.interpreter.nodes.dispatch.DispatchGuard;
 import trufflesom.interpreter.nodes.literals.IntegerLiteralNode;
 import trufflesom.interpreter.nodes.literals.LiteralNode;
 import trufflesom.interpreter.nodes.nary.BinaryExpressionNode;
 import trufflesom.interpreter.nodes.nary.TernaryExpressionNode;
 import trufflesom.interpreter.nodes.nary.UnaryExpressionNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractIncrementFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractReadFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractWriteFieldNode;
-import trufflesom.interpreter.objectstorage.FieldAccessorNode.IncrementLongFieldNode;
 import trufflesom.primitives.Primitives;
 import trufflesom.vm.Classes;
 import trufflesom.vm.NotYetImplementedException;
 import trufflesom.vm.Universe;
+import trufflesom.vm.VmSettings;
 import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SAbstractObject;
 import trufflesom.vmobjects.SBlock;
@@ -155,6 +168,19 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
 
   @Children private final Node[] quickenedField;
 
+  /**
+   * Receiver guards for the inline caches of Q_SEND_PIC bytecodes. The first entry of a
+   * cache is at the index of the bytecode, and the second one at the next index, which is
+   * otherwise unused. The call nodes are in {@link #quickenedField} at the same indexes.
+   */
+  @CompilationFinal(dimensions = 1) private DispatchGuard[] picGuardsField;
+
+  /**
+   * Whether all methods cached by the Q_SEND_PIC bytecode at an index leave their arguments
+   * array unreachable when they return, so that the interpreter can reuse the array.
+   */
+  @CompilationFinal(dimensions = 1) private boolean[] picArgsReusableField;
+
   private final int numLocals;
   private final int maxStackDepth;
 
@@ -260,6 +286,11 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
       final Node quickenedNode) {
     quickenedField[bytecodeIndex] = insert(quickenedNode);
     bytecodesField[bytecodeIndex] = quickenedBytecode;
+
+    if (quickenedNode instanceof GenericMessageSendNode) {
+      // make the dispatch chain visible to instruments, e.g., the dispatch statistics
+      ((GenericMessageSendNode) quickenedNode).notifyDispatchInserted();
+    }
   }
 
   @InliningCutoff
@@ -304,6 +335,245 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
     return longVal;
   }
 
+  private Object readStack(final VirtualFrame frame, final Object[] stack,
+      final int stackPointer) {
+    if (VmSettings.UseFrameSlotStack) {
+      return frame.getValue(numLocals + stackPointer);
+    }
+    return stack[stackPointer];
+  }
+
+  private void writeStack(final VirtualFrame frame, final Object[] stack,
+      final int stackPointer, final Object value) {
+    if (VmSettings.UseFrameSlotStack) {
+      frame.setObject(numLocals + stackPointer, value);
+    } else {
+      stack[stackPointer] = value;
+    }
+  }
+
+  private void writeStackLong(final VirtualFrame frame, final Object[] stack,
+      final int stackPointer, final long value) {
+    if (VmSettings.UseFrameSlotStack) {
+      frame.setLong(numLocals + stackPointer, value);
+    } else {
+      stack[stackPointer] = value;
+    }
+  }
+
+  private void writeStackDouble(final VirtualFrame frame, final Object[] stack,
+      final int stackPointer, final double value) {
+    if (VmSettings.UseFrameSlotStack) {
+      frame.setDouble(numLocals + stackPointer, value);
+    } else {
+      stack[stackPointer] = value;
+    }
+  }
+
+  /**
+   * Push the result of a send. With the stack in frame slots, long and double results are
+   * stored in primitive slots, so that the stack does not keep them boxed, and the
+   * primitive fast paths, for instance of {@link Bytecodes#INC}, apply to them.
+   */
+  private void writeStackResult(final VirtualFrame frame, final Object[] stack,
+      final int stackPointer, final Object result) {
+    if (VmSettings.UseFrameSlotStack) {
+      if (result instanceof Long) {
+        frame.setLong(numLocals + stackPointer, (Long) result);
+        return;
+      }
+      if (result instanceof Double) {
+        frame.setDouble(numLocals + stackPointer, (Double) result);
+        return;
+      }
+    }
+    writeStack(frame, stack, stackPointer, result);
+  }
+
+  /**
+   * Create the arguments array for a send from the elements on top of the stack.
+   * The array is passed on unchanged, and becomes the arguments of the callee's frame.
+   * In general, it cannot be reused, because the callee's frame, and any block or context
+   * materialized from it, keeps referring to it. See {@link #reuseArguments}.
+   */
+  @ExplodeLoop
+  private Object[] createArguments(final VirtualFrame frame, final Object[] stack,
+      final int firstArgIdx, final int numberOfArguments) {
+    switch (numberOfArguments) {
+      case 1:
+        return new Object[] {readStack(frame, stack, firstArgIdx)};
+      case 2:
+        return new Object[] {
+            readStack(frame, stack, firstArgIdx),
+            readStack(frame, stack, firstArgIdx + 1)};
+      case 3:
+        return new Object[] {
+            readStack(frame, stack, firstArgIdx),
+            readStack(frame, stack, firstArgIdx + 1),
+            readStack(frame, stack, firstArgIdx + 2)};
+      default:
+        break;
+    }
+
+    if (!VmSettings.UseFrameSlotStack) {
+      return Arrays.copyOfRange(stack, firstArgIdx, firstArgIdx + numberOfArguments);
+    }
+
+    Object[] callArgs = new Object[numberOfArguments];
+    for (int i = 0; i < numberOfArguments; i += 1) {
+      callArgs[i] = readStack(frame, stack, firstArgIdx + i);
+    }
+    return callArgs;
+  }
+
+  /**
+   * Fill the given array with the arguments for a send, or a new one, if it does not have
+   * the right length. The array belongs to the current activation, and may only be passed
+   * to callees that do not keep it after returning.
+   */
+  @ExplodeLoop
+  private Object[] reuseArguments(final VirtualFrame frame, final Object[] stack,
+      final int firstArgIdx, final int numberOfArguments, final Object[] reusable) {
+    Object[] callArgs = reusable;
+    if (callArgs == null || callArgs.length != numberOfArguments) {
+      callArgs = new Object[numberOfArguments];
+    }
+
+    for (int i = 0; i < numberOfArguments; i += 1) {
+      callArgs[i] = readStack(frame, stack, firstArgIdx + i);
+    }
+    return callArgs;
+  }
+
+  private void pushLocal(final VirtualFrame frame, final Object[] stack,
+      final int stackPointer, final Frame currentOrContext, final int localIdx) {
+    if (VmSettings.UseFrameSlotStack) {
+      if (currentOrContext.isLong(localIdx)) {
+        writeStackLong(frame, stack, stackPointer, currentOrContext.getLong(localIdx));
+        return;
+      }
+      if (currentOrContext.isDouble(localIdx)) {
+        writeStackDouble(frame, stack, stackPointer, currentOrContext.getDouble(localIdx));
+        return;
+      }
+    }
+    writeStack(frame, stack, stackPointer, currentOrContext.getValue(localIdx));
+  }
+
+  private void popLocal(final VirtualFrame frame, final Object[] stack,
+      final int stackPointer, final Frame currentOrContext, final int localIdx) {
+    if (VmSettings.UseFrameSlotStack) {
+      int slot = numLocals + stackPointer;
+      if (frame.isLong(slot)) {
+        writeLocalLong(currentOrContext, localIdx, frame.getLong(slot));
+        return;
+      }
+      if (frame.isDouble(slot)) {
+        writeLocalDouble(currentOrContext, localIdx, frame.getDouble(slot));
+        return;
+      }
+    }
+    writeLocal(currentOrContext, localIdx, readStack(frame, stack, stackPointer));
+  }
+
+  private static void incrementLocal(final Frame currentOrContext, final int localIdx) {
+    if (currentOrContext.isLong(localIdx)) {
+      long value;
+      try {
+        value = Math.addExact(currentOrContext.getLong(localIdx), 1L);
+      } catch (ArithmeticException e) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw new NotYetImplementedException();
+      }
+      writeLocalLong(currentOrContext, localIdx, value);
+    } else {
+      writeLocal(currentOrContext, localIdx, increment(currentOrContext.getValue(localIdx)));
+    }
+  }
+
+  private static void writeLocal(final Frame currentOrContext, final int localIdx,
+      final Object value) {
+    speculateAndWriteLocal(currentOrContext, localIdx, value);
+  }
+
+  /**
+   * Locals are stored in primitive slots as long as all values written to them are of the
+   * same type. The slot kind in the frame descriptor records this speculation. On a type
+   * change, it is generalized to {@link FrameSlotKind#Object}. Since other activations may
+   * still have primitive values in their frames, locals are read based on the frame's tag.
+   * This is independent of where the stack is kept. With an Object[] stack, a value is
+   * boxed when pushed, but the compiler can remove the box together with the stack.
+   */
+  static void speculateAndWriteLocal(final Frame currentOrContext, final int localIdx,
+      final Object value) {
+    if (value instanceof Long) {
+      writeLocalLong(currentOrContext, localIdx, (Long) value);
+    } else if (value instanceof Double) {
+      writeLocalDouble(currentOrContext, localIdx, (Double) value);
+    } else {
+      generalizeLocal(currentOrContext.getFrameDescriptor(), localIdx);
+      currentOrContext.setObject(localIdx, value);
+    }
+  }
+
+  private static void writeLocalLong(final Frame currentOrContext, final int localIdx,
+      final long value) {
+    FrameDescriptor descriptor = currentOrContext.getFrameDescriptor();
+    FrameSlotKind kind = descriptor.getSlotKind(localIdx);
+
+    if (kind == FrameSlotKind.Long) {
+      currentOrContext.setLong(localIdx, value);
+    } else if (kind == FrameSlotKind.Illegal) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      descriptor.setSlotKind(localIdx, FrameSlotKind.Long);
+      currentOrContext.setLong(localIdx, value);
+    } else {
+      generalizeLocal(descriptor, localIdx);
+      currentOrContext.setObject(localIdx, value);
+    }
+  }
+
+  private static void writeLocalDouble(final Frame currentOrContext, final int localIdx,
+      final double value) {
+    FrameDescriptor descriptor = currentOrContext.getFrameDescriptor();
+    FrameSlotKind kind = descriptor.getSlotKind(localIdx);
+
+    if (kind == FrameSlotKind.Double) {
+      currentOrContext.setDouble(localIdx, value);
+    } else if (kind == FrameSlotKind.Illegal) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      descriptor.setSlotKind(localIdx, FrameSlotKind.Double);
+      currentOrContext.setDouble(localIdx, value);
+    } else {
+      generalizeLocal(descriptor, localIdx);
+      currentOrContext.setObject(localIdx, value);
+    }
+  }
+
+  private static void generalizeLocal(final FrameDescriptor descriptor, final int localIdx) {
+    if (descriptor.getSlotKind(localIdx) != FrameSlotKind.Object) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      descriptor.setSlotKind(localIdx, FrameSlotKind.Object);
+    }
+  }
+
+  private static Object increment(final Object value) {
+    if (value instanceof Long) {
+      try {
+        return Math.addExact((Long) value, 1L);
+      } catch (ArithmeticException e) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw new NotYetImplementedException();
+      }
+    }
+
+    CompilerDirectives.transferToInterpreterAndInvalidate();
+    if (value instanceof Double) {
+      return ((Double) value) + 1.0d;
+    }
+    throw new NotYetImplementedException();
+  }
+
   @InliningCutoff
   private static Object handleEscapedBlock(final VirtualFrame frame,
       final EscapedBlockException e) {
@@ -354,7 +624,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
   @ExplodeLoop(kind = LoopExplosionKind.MERGE_EXPLODE)
   @BytecodeInterpreterSwitch
   public Object executeGeneric(final VirtualFrame frame) {
-    Object[] stack = new Object[maxStackDepth];
+    // with UseFrameSlotStack, the stack is kept in the frame, after the locals
+    Object[] stack = VmSettings.UseFrameSlotStack ? null : new Object[maxStackDepth];
 
     final byte[] bytecodes = bytecodesField;
     final Node[] quickened = quickenedField;
@@ -369,6 +640,10 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
     int stackPointer = -1;
     int bytecodeIndex = 0;
 
+    // arguments array for sends to methods that do not keep it, only used in the interpreter,
+    // since compiled code does not allocate arrays for inlined calls anyway
+    Object[] reusableArgs = null;
+
     int backBranchesTaken = 0;
 
     while (true) {
@@ -376,17 +651,23 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
 
       CompilerAsserts.partialEvaluationConstant(bytecodeIndex);
       CompilerAsserts.partialEvaluationConstant(bytecode);
-      CompilerDirectives.ensureVirtualized(stack);
+      if (!VmSettings.UseFrameSlotStack) {
+        CompilerDirectives.ensureVirtualized(stack);
+      }
+
+      if (VmSettings.BytecodeProfileFile != null) {
+        BytecodeProfile.record(bytecodes, bytecodeIndex);
+      }
 
       switch (bytecode) {
         case HALT: {
-          return stack[stackPointer];
+          return readStack(frame, stack, stackPointer);
         }
 
         case DUP: {
-          Object top = stack[stackPointer];
+          Object top = readStack(frame, stack, stackPointer);
           stackPointer += 1;
-          stack[stackPointer] = top;
+          writeStack(frame, stack, stackPointer, top);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
@@ -400,28 +681,27 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
             currentOrContext = determineContext(currentOrContext, contextIdx);
           }
 
-          Object value = currentOrContext.getObject(localIdx);
           stackPointer += 1;
-          stack[stackPointer] = value;
+          pushLocal(frame, stack, stackPointer, currentOrContext, localIdx);
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
         }
 
         case PUSH_LOCAL_0: {
           stackPointer += 1;
-          stack[stackPointer] = frame.getObject(0);
+          pushLocal(frame, stack, stackPointer, frame, 0);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
         case PUSH_LOCAL_1: {
           stackPointer += 1;
-          stack[stackPointer] = frame.getObject(1);
+          pushLocal(frame, stack, stackPointer, frame, 1);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
         case PUSH_LOCAL_2: {
           stackPointer += 1;
-          stack[stackPointer] = frame.getObject(2);
+          pushLocal(frame, stack, stackPointer, frame, 2);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
@@ -438,26 +718,26 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
 
           Object value = currentOrContext.getArguments()[argIdx];
           stackPointer += 1;
-          stack[stackPointer] = value;
+          writeStack(frame, stack, stackPointer, value);
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
         }
 
         case PUSH_SELF: {
           stackPointer += 1;
-          stack[stackPointer] = arguments[0];
+          writeStack(frame, stack, stackPointer, arguments[0]);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
         case PUSH_ARG1: {
           stackPointer += 1;
-          stack[stackPointer] = arguments[1];
+          writeStack(frame, stack, stackPointer, arguments[1]);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
         case PUSH_ARG2: {
           stackPointer += 1;
-          stack[stackPointer] = arguments[2];
+          writeStack(frame, stack, stackPointer, arguments[2]);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
@@ -477,8 +757,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           }
 
           stackPointer += 1;
-          stack[stackPointer] = ((AbstractReadFieldNode) node).read(
-              (SObject) currentOrContext.getArguments()[0]);
+          writeStack(frame, stack, stackPointer, ((AbstractReadFieldNode) node).read(
+              (SObject) currentOrContext.getArguments()[0]));
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
         }
@@ -490,8 +770,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           }
 
           stackPointer += 1;
-          stack[stackPointer] =
-              ((AbstractReadFieldNode) node).read((SObject) arguments[0]);
+          writeStack(frame, stack, stackPointer,
+              ((AbstractReadFieldNode) node).read((SObject) arguments[0]));
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
@@ -503,8 +783,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           }
 
           stackPointer += 1;
-          stack[stackPointer] =
-              ((AbstractReadFieldNode) node).read((SObject) arguments[0]);
+          writeStack(frame, stack, stackPointer,
+              ((AbstractReadFieldNode) node).read((SObject) arguments[0]));
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
@@ -513,8 +793,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           SMethod blockMethod = (SMethod) literalsAndConstants[bytecodes[bytecodeIndex + 1]];
 
           stackPointer += 1;
-          stack[stackPointer] = new SBlock(blockMethod,
-              Classes.getBlockClass(blockMethod.getNumberOfArguments()), frame.materialize());
+          writeStack(frame, stack, stackPointer, new SBlock(blockMethod,
+              Classes.getBlockClass(blockMethod.getNumberOfArguments()), frame.materialize()));
           bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           break;
         }
@@ -523,64 +803,65 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           SMethod blockMethod = (SMethod) literalsAndConstants[bytecodes[bytecodeIndex + 1]];
 
           stackPointer += 1;
-          stack[stackPointer] = new SBlock(blockMethod,
-              Classes.getBlockClass(blockMethod.getNumberOfArguments()), null);
+          writeStack(frame, stack, stackPointer, new SBlock(blockMethod,
+              Classes.getBlockClass(blockMethod.getNumberOfArguments()), null));
           bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           break;
         }
 
         case PUSH_CONSTANT: {
           stackPointer += 1;
-          stack[stackPointer] = literalsAndConstants[bytecodes[bytecodeIndex + 1]];
+          writeStack(frame, stack, stackPointer,
+              literalsAndConstants[bytecodes[bytecodeIndex + 1]]);
           bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           break;
         }
 
         case PUSH_CONSTANT_0: {
           stackPointer += 1;
-          stack[stackPointer] = literalsAndConstants[0];
+          writeStack(frame, stack, stackPointer, literalsAndConstants[0]);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
 
         case PUSH_CONSTANT_1: {
           stackPointer += 1;
-          stack[stackPointer] = literalsAndConstants[1];
+          writeStack(frame, stack, stackPointer, literalsAndConstants[1]);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
 
         case PUSH_CONSTANT_2: {
           stackPointer += 1;
-          stack[stackPointer] = literalsAndConstants[2];
+          writeStack(frame, stack, stackPointer, literalsAndConstants[2]);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
 
         case PUSH_0: {
           stackPointer += 1;
-          stack[stackPointer] = 0L;
+          writeStackLong(frame, stack, stackPointer, 0L);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
 
         case PUSH_1: {
           stackPointer += 1;
-          stack[stackPointer] = 1L;
+          writeStackLong(frame, stack, stackPointer, 1L);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
 
         case PUSH_NIL: {
           stackPointer += 1;
-          stack[stackPointer] = Nil.nilObject;
+          writeStack(frame, stack, stackPointer, Nil.nilObject);
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
 
         case PUSH_GLOBAL: {
           stackPointer += 1;
-          stack[stackPointer] = quickenAndExecuteGlobal(frame, bytecodeIndex);
+          writeStack(frame, stack, stackPointer, quickenAndExecuteGlobal(frame, bytecodeIndex));
           bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           break;
         }
@@ -600,28 +881,26 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
             currentOrContext = determineContext(currentOrContext, contextIdx);
           }
 
-          Object value = stack[stackPointer];
+          popLocal(frame, stack, stackPointer, currentOrContext, localIdx);
           stackPointer -= 1;
-
-          currentOrContext.setObject(localIdx, value);
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
         }
 
         case POP_LOCAL_0: {
-          frame.setObject(0, stack[stackPointer]);
+          popLocal(frame, stack, stackPointer, frame, 0);
           stackPointer -= 1;
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
         case POP_LOCAL_1: {
-          frame.setObject(1, stack[stackPointer]);
+          popLocal(frame, stack, stackPointer, frame, 1);
           stackPointer -= 1;
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
         }
         case POP_LOCAL_2: {
-          frame.setObject(2, stack[stackPointer]);
+          popLocal(frame, stack, stackPointer, frame, 2);
           stackPointer -= 1;
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
           break;
@@ -636,7 +915,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
             currentOrContext = determineContext(currentOrContext, contextIdx);
           }
 
-          currentOrContext.getArguments()[argIdx] = stack[stackPointer];
+          currentOrContext.getArguments()[argIdx] = readStack(frame, stack, stackPointer);
           stackPointer -= 1;
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
@@ -657,7 +936,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           }
 
           ((AbstractWriteFieldNode) node).write((SObject) currentOrContext.getArguments()[0],
-              stack[stackPointer]);
+              readStack(frame, stack, stackPointer));
           stackPointer -= 1;
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
@@ -670,7 +949,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           }
 
           ((AbstractWriteFieldNode) node).write((SObject) arguments[0],
-              stack[stackPointer]);
+              readStack(frame, stack, stackPointer));
 
           stackPointer -= 1;
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
@@ -683,7 +962,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           }
 
           ((AbstractWriteFieldNode) node).write((SObject) arguments[0],
-              stack[stackPointer]);
+              readStack(frame, stack, stackPointer));
 
           stackPointer -= 1;
           bytecodeIndex += Bytecodes.LEN_NO_ARG;
@@ -697,16 +976,15 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
             SSymbol signature = (SSymbol) literalsAndConstants[literalIdx];
             int numberOfArguments = signature.getNumberOfSignatureArguments();
 
-            Object[] callArgs = new Object[numberOfArguments];
-            System.arraycopy(stack, stackPointer - numberOfArguments + 1, callArgs, 0,
-                numberOfArguments);
+            Object[] callArgs = createArguments(frame, stack,
+                stackPointer - numberOfArguments + 1, numberOfArguments);
             stackPointer -= numberOfArguments;
 
             Object result = specializeSendBytecode(frame, bytecodeIndex, signature,
                 numberOfArguments, callArgs);
 
             stackPointer += 1;
-            stack[stackPointer] = result;
+            writeStackResult(frame, stack, stackPointer, result);
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RestartLoopException e) {
             bytecodeIndex = 0;
@@ -714,7 +992,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           } catch (EscapedBlockException e) {
             CompilerDirectives.transferToInterpreter();
             stackPointer += 1;
-            stack[stackPointer] = handleEscapedBlock(frame, e);
+            writeStack(frame, stack, stackPointer, handleEscapedBlock(frame, e));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           }
           break;
@@ -727,9 +1005,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
             SSymbol signature = (SSymbol) literalsAndConstants[literalIdx];
             int numberOfArguments = signature.getNumberOfSignatureArguments();
 
-            Object[] callArgs = new Object[numberOfArguments];
-            System.arraycopy(stack, stackPointer - numberOfArguments + 1, callArgs, 0,
-                numberOfArguments);
+            Object[] callArgs = createArguments(frame, stack,
+                stackPointer - numberOfArguments + 1, numberOfArguments);
             stackPointer -= numberOfArguments;
 
             PreevaluatedExpression quick = MessageSendNode.createSuperSend(
@@ -739,7 +1016,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
             Object result = quick.doPreEvaluated(frame, callArgs);
 
             stackPointer += 1;
-            stack[stackPointer] = result;
+            writeStackResult(frame, stack, stackPointer, result);
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RestartLoopException e) {
             bytecodeIndex = 0;
@@ -747,7 +1024,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           } catch (EscapedBlockException e) {
             CompilerDirectives.transferToInterpreter();
             stackPointer += 1;
-            stack[stackPointer] = handleEscapedBlock(frame, e);
+            writeStack(frame, stack, stackPointer, handleEscapedBlock(frame, e));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           }
           break;
@@ -755,13 +1032,13 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
 
         case RETURN_LOCAL: {
           LoopNode.reportLoopCount(this, backBranchesTaken);
-          return stack[stackPointer];
+          return readStack(frame, stack, stackPointer);
         }
 
         case RETURN_NON_LOCAL: {
           LoopNode.reportLoopCount(this, backBranchesTaken);
 
-          Object result = stack[stackPointer];
+          Object result = readStack(frame, stack, stackPointer);
           // stackPointer -= 1;
           doReturnNonLocal(frame, bytecodeIndex, result);
           return Nil.nilObject;
@@ -798,10 +1075,22 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case INC: {
-          Object top = stack[stackPointer];
+          if (VmSettings.UseFrameSlotStack && frame.isLong(numLocals + stackPointer)) {
+            int slot = numLocals + stackPointer;
+            try {
+              frame.setLong(slot, Math.addExact(frame.getLong(slot), 1L));
+            } catch (ArithmeticException e) {
+              CompilerDirectives.transferToInterpreterAndInvalidate();
+              throw new NotYetImplementedException();
+            }
+            bytecodeIndex += Bytecodes.LEN_NO_ARG;
+            break;
+          }
+
+          Object top = readStack(frame, stack, stackPointer);
           if (top instanceof Long) {
             try {
-              stack[stackPointer] = Math.addExact((Long) top, 1L);
+              writeStackLong(frame, stack, stackPointer, Math.addExact((Long) top, 1L));
             } catch (ArithmeticException e) {
               CompilerDirectives.transferToInterpreterAndInvalidate();
               throw new NotYetImplementedException();
@@ -809,7 +1098,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           } else {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             if (top instanceof Double) {
-              stack[stackPointer] = ((Double) top) + 1.0d;
+              writeStackDouble(frame, stack, stackPointer, ((Double) top) + 1.0d);
             } else {
               throw new NotYetImplementedException();
             }
@@ -819,13 +1108,20 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case DEC: {
-          Object top = stack[stackPointer];
+          if (VmSettings.UseFrameSlotStack && frame.isLong(numLocals + stackPointer)) {
+            int slot = numLocals + stackPointer;
+            frame.setLong(slot, frame.getLong(slot) - 1);
+            bytecodeIndex += Bytecodes.LEN_NO_ARG;
+            break;
+          }
+
+          Object top = readStack(frame, stack, stackPointer);
           if (top instanceof Long) {
-            stack[stackPointer] = ((Long) top) - 1;
+            writeStackLong(frame, stack, stackPointer, ((Long) top) - 1);
           } else {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             if (top instanceof Double) {
-              stack[stackPointer] = ((Double) top) - 1.0d;
+              writeStackDouble(frame, stack, stackPointer, ((Double) top) - 1.0d);
             } else {
               throw new NotYetImplementedException();
             }
@@ -852,7 +1148,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
             break;
           }
 
-          ((IncrementLongFieldNode) node).increment(obj);
+          ((AbstractIncrementFieldNode) node).increment(obj);
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
         }
@@ -871,14 +1167,45 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           Node node = quickened[bytecodeIndex];
           if (node == null) {
             stackPointer += 1;
-            stack[stackPointer] = createAndDoIncrement(bytecodeIndex, fieldIdx, obj);
+            writeStack(frame, stack, stackPointer,
+                createAndDoIncrement(bytecodeIndex, fieldIdx, obj));
             bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
             break;
           }
 
-          long value = ((IncrementLongFieldNode) node).increment(obj);
+          long value = ((AbstractIncrementFieldNode) node).increment(obj);
           stackPointer += 1;
-          stack[stackPointer] = value;
+          writeStack(frame, stack, stackPointer, value);
+          bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
+          break;
+        }
+
+        case INC_LOCAL: {
+          byte localIdx = bytecodes[bytecodeIndex + 1];
+          byte contextIdx = bytecodes[bytecodeIndex + 2];
+
+          VirtualFrame currentOrContext = frame;
+          if (contextIdx > 0) {
+            currentOrContext = determineContext(currentOrContext, contextIdx);
+          }
+
+          incrementLocal(currentOrContext, localIdx);
+          bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
+          break;
+        }
+
+        case INC_LOCAL_PUSH: {
+          byte localIdx = bytecodes[bytecodeIndex + 1];
+          byte contextIdx = bytecodes[bytecodeIndex + 2];
+
+          VirtualFrame currentOrContext = frame;
+          if (contextIdx > 0) {
+            currentOrContext = determineContext(currentOrContext, contextIdx);
+          }
+
+          incrementLocal(currentOrContext, localIdx);
+          stackPointer += 1;
+          pushLocal(frame, stack, stackPointer, currentOrContext, localIdx);
           bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
           break;
         }
@@ -890,11 +1217,11 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP_ON_TRUE_TOP_NIL: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.TRUE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1]);
             bytecodeIndex += offset;
-            stack[stackPointer] = Nil.nilObject;
+            writeStack(frame, stack, stackPointer, Nil.nilObject);
           } else {
             stackPointer -= 1;
             bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
@@ -903,11 +1230,11 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP_ON_FALSE_TOP_NIL: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.FALSE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1]);
             bytecodeIndex += offset;
-            stack[stackPointer] = Nil.nilObject;
+            writeStack(frame, stack, stackPointer, Nil.nilObject);
           } else {
             stackPointer -= 1;
             bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
@@ -916,7 +1243,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP_ON_TRUE_POP: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.TRUE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1]);
             bytecodeIndex += offset;
@@ -928,7 +1255,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP_ON_FALSE_POP: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.FALSE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1]);
             bytecodeIndex += offset;
@@ -957,12 +1284,12 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP2_ON_TRUE_TOP_NIL: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.TRUE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1])
                 + (Byte.toUnsignedInt(bytecodes[bytecodeIndex + 2]) << 8);
             bytecodeIndex += offset;
-            stack[stackPointer] = Nil.nilObject;
+            writeStack(frame, stack, stackPointer, Nil.nilObject);
           } else {
             stackPointer -= 1;
             bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
@@ -971,12 +1298,12 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP2_ON_FALSE_TOP_NIL: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.FALSE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1])
                 + (Byte.toUnsignedInt(bytecodes[bytecodeIndex + 2]) << 8);
             bytecodeIndex += offset;
-            stack[stackPointer] = Nil.nilObject;
+            writeStack(frame, stack, stackPointer, Nil.nilObject);
           } else {
             stackPointer -= 1;
             bytecodeIndex += Bytecodes.LEN_THREE_ARGS;
@@ -985,7 +1312,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP2_ON_TRUE_POP: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.TRUE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1])
                 + (Byte.toUnsignedInt(bytecodes[bytecodeIndex + 2]) << 8);
@@ -998,7 +1325,7 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         }
 
         case JUMP2_ON_FALSE_POP: {
-          Object val = stack[stackPointer];
+          Object val = readStack(frame, stack, stackPointer);
           if (val == Boolean.FALSE) {
             int offset = Byte.toUnsignedInt(bytecodes[bytecodeIndex + 1])
                 + (Byte.toUnsignedInt(bytecodes[bytecodeIndex + 2]) << 8);
@@ -1023,7 +1350,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
 
         case Q_PUSH_GLOBAL: {
           stackPointer += 1;
-          stack[stackPointer] = ((GlobalNode) quickened[bytecodeIndex]).executeGeneric(frame);
+          writeStack(frame, stack, stackPointer,
+              ((GlobalNode) quickened[bytecodeIndex]).executeGeneric(frame));
           bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           break;
         }
@@ -1032,94 +1360,126 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           AbstractMessageSendNode node = (AbstractMessageSendNode) quickened[bytecodeIndex];
           int numberOfArguments = node.getNumberOfArguments();
 
-          Object[] callArgs = new Object[numberOfArguments];
           stackPointer = stackPointer - numberOfArguments + 1;
-          System.arraycopy(stack, stackPointer, callArgs, 0, numberOfArguments);
+          Object[] callArgs = createArguments(frame, stack, stackPointer, numberOfArguments);
 
           try {
-            stack[stackPointer] = node.doPreEvaluated(frame, callArgs);
+            writeStackResult(frame, stack, stackPointer, node.doPreEvaluated(frame, callArgs));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RestartLoopException e) {
             bytecodeIndex = 0;
             stackPointer = -1;
           } catch (EscapedBlockException e) {
             CompilerDirectives.transferToInterpreter();
-            stack[stackPointer] = handleEscapedBlock(frame, e);
+            writeStack(frame, stack, stackPointer, handleEscapedBlock(frame, e));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           }
 
           break;
         }
 
+        case Q_SEND_PIC: {
+          SSymbol signature = (SSymbol) literalsAndConstants[bytecodes[bytecodeIndex + 1]];
+          int numberOfArguments = signature.getNumberOfSignatureArguments();
+
+          stackPointer = stackPointer - numberOfArguments + 1;
+          Object[] callArgs;
+          if (CompilerDirectives.inInterpreter() && picArgsReusableField[bytecodeIndex]) {
+            reusableArgs = reuseArguments(
+                frame, stack, stackPointer, numberOfArguments, reusableArgs);
+            callArgs = reusableArgs;
+          } else {
+            callArgs = createArguments(frame, stack, stackPointer, numberOfArguments);
+          }
+
+          try {
+            writeStackResult(frame, stack, stackPointer,
+                dispatchPic(frame, bytecodeIndex, signature, callArgs));
+            bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
+          } catch (RestartLoopException e) {
+            bytecodeIndex = 0;
+            stackPointer = -1;
+          } catch (EscapedBlockException e) {
+            CompilerDirectives.transferToInterpreter();
+            writeStack(frame, stack, stackPointer, handleEscapedBlock(frame, e));
+            bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
+          }
+          break;
+        }
+
         case Q_SEND_1: {
-          Object rcvr = stack[stackPointer];
+          Object rcvr = readStack(frame, stack, stackPointer);
 
           try {
             UnaryExpressionNode node = (UnaryExpressionNode) quickened[bytecodeIndex];
-            stack[stackPointer] = node.executeEvaluated(frame, rcvr);
+            writeStackResult(frame, stack, stackPointer, node.executeEvaluated(frame, rcvr));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RestartLoopException e) {
             bytecodeIndex = 0;
             stackPointer = -1;
           } catch (EscapedBlockException e) {
             CompilerDirectives.transferToInterpreter();
-            stack[stackPointer] = handleEscapedBlock(frame, e);
+            writeStack(frame, stack, stackPointer, handleEscapedBlock(frame, e));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RespecializeException r) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            stack[stackPointer] = quickenAndEvaluate(frame, bytecodeIndex, r, rcvr);
+            writeStackResult(frame, stack, stackPointer,
+                quickenAndEvaluate(frame, bytecodeIndex, r, rcvr));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           }
           break;
         }
 
         case Q_SEND_2: {
-          Object rcvr = stack[stackPointer - 1];
-          Object arg = stack[stackPointer];
+          Object rcvr = readStack(frame, stack, stackPointer - 1);
+          Object arg = readStack(frame, stack, stackPointer);
 
           stackPointer -= 1;
 
           try {
             BinaryExpressionNode node = (BinaryExpressionNode) quickened[bytecodeIndex];
-            stack[stackPointer] = node.executeEvaluated(frame, rcvr, arg);
+            writeStackResult(frame, stack, stackPointer,
+                node.executeEvaluated(frame, rcvr, arg));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RestartLoopException e) {
             bytecodeIndex = 0;
             stackPointer = -1;
           } catch (EscapedBlockException e) {
             CompilerDirectives.transferToInterpreter();
-            stack[stackPointer] = handleEscapedBlock(frame, e);
+            writeStack(frame, stack, stackPointer, handleEscapedBlock(frame, e));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RespecializeException r) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            stack[stackPointer] = quickenAndEvaluate(frame, bytecodeIndex, r, rcvr, arg);
+            writeStackResult(frame, stack, stackPointer,
+                quickenAndEvaluate(frame, bytecodeIndex, r, rcvr, arg));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           }
           break;
         }
 
         case Q_SEND_3: {
-          Object rcvr = stack[stackPointer - 2];
-          Object arg1 = stack[stackPointer - 1];
-          Object arg2 = stack[stackPointer];
+          Object rcvr = readStack(frame, stack, stackPointer - 2);
+          Object arg1 = readStack(frame, stack, stackPointer - 1);
+          Object arg2 = readStack(frame, stack, stackPointer);
 
           stackPointer -= 2;
 
           try {
             TernaryExpressionNode node = (TernaryExpressionNode) quickened[bytecodeIndex];
-            stack[stackPointer] = node.executeEvaluated(frame, rcvr, arg1, arg2);
+            writeStackResult(frame, stack, stackPointer,
+                node.executeEvaluated(frame, rcvr, arg1, arg2));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RestartLoopException e) {
             bytecodeIndex = 0;
             stackPointer = -1;
           } catch (EscapedBlockException e) {
             CompilerDirectives.transferToInterpreter();
-            stack[stackPointer] = handleEscapedBlock(frame, e);
+            writeStack(frame, stack, stackPointer, handleEscapedBlock(frame, e));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           } catch (RespecializeException r) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            stack[stackPointer] =
-                quickenAndEvaluate(frame, bytecodeIndex, r, rcvr, arg1, arg2);
+            writeStackResult(frame, stack, stackPointer,
+                quickenAndEvaluate(frame, bytecodeIndex, r, rcvr, arg1, arg2));
             bytecodeIndex += Bytecodes.LEN_TWO_ARGS;
           }
           break;
@@ -1180,6 +1540,14 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
       }
     }
 
+    if (!done && !VmSettings.UseInstrumentation) {
+      SInvokable method = lookupForPic(callArgs[0], signature);
+      if (method != null) {
+        done = true;
+        result = installPic(bytecodeIndex, method, callArgs);
+      }
+    }
+
     if (!done) {
       GenericMessageSendNode quick =
           MessageSendNode.createGeneric(signature, null, sourceCoord);
@@ -1190,6 +1558,120 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
     return result;
   }
 
+  /**
+   * Determine the method a send can cache in its PIC. Only sends to normal methods are
+   * cached directly in the bytecodes. Trivial methods and DNUs are better handled by the
+   * dispatch chain of a {@link GenericMessageSendNode}.
+   */
+  private static SInvokable lookupForPic(final Object rcvr, final SSymbol signature) {
+    if (rcvr instanceof SObject) {
+      ((SObject) rcvr).updateLayoutToMatchClass();
+    }
+
+    SInvokable method = Types.getClassOf(rcvr).lookupInvokable(signature);
+    if (method == null || method.isTrivial()) {
+      return null;
+    }
+    return method;
+  }
+
+  /**
+   * A method without blocks cannot materialize its frame. Thus, its arguments array is not
+   * reachable anymore once it returned. Embedded blocks are unknown for split methods.
+   */
+  private static boolean keepsNoArguments(final SInvokable method) {
+    if (!(method instanceof SMethod)) {
+      return false;
+    }
+    SMethod[] blocks = ((SMethod) method).getEmbeddedBlocks();
+    return blocks != null && blocks.length == 0;
+  }
+
+  private Object installPic(final int bytecodeIndex, final SInvokable method,
+      final Object[] callArgs) {
+    if (picGuardsField == null) {
+      picGuardsField = new DispatchGuard[bytecodesField.length];
+      picArgsReusableField = new boolean[bytecodesField.length];
+    }
+
+    picGuardsField[bytecodeIndex] = DispatchGuard.create(callArgs[0]);
+    picArgsReusableField[bytecodeIndex] = keepsNoArguments(method);
+    DirectCallNode call = Truffle.getRuntime().createDirectCallNode(method.getCallTarget());
+    quickenBytecode(bytecodeIndex, Q_SEND_PIC, call);
+    return call.call(callArgs);
+  }
+
+  private Object dispatchPic(final VirtualFrame frame, final int bytecodeIndex,
+      final SSymbol signature, final Object[] callArgs) {
+    final DispatchGuard[] guards = picGuardsField;
+    Object rcvr = callArgs[0];
+
+    try {
+      if (guards[bytecodeIndex].entryMatches(rcvr)) {
+        return callPic(bytecodeIndex, callArgs);
+      }
+
+      DispatchGuard second = guards[bytecodeIndex + 1];
+      if (second != null && second.entryMatches(rcvr)) {
+        return callPic(bytecodeIndex + 1, callArgs);
+      }
+    } catch (InvalidAssumptionException e) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      return generalizePic(frame, bytecodeIndex, signature, callArgs.clone());
+    }
+
+    // the new target may keep the arguments, so it gets its own array
+    return extendPic(frame, bytecodeIndex, signature, callArgs.clone());
+  }
+
+  private Object callPic(final int cacheIndex, final Object[] callArgs) {
+    DirectCallNode call = (DirectCallNode) quickenedField[cacheIndex];
+    if (VmSettings.SplitBlockDispatch && CompilerDirectives.inInterpreter()) {
+      call = BlockSplitting.splitIfRequested(call);
+    }
+    return call.call(callArgs);
+  }
+
+  @InliningCutoff
+  private Object extendPic(final VirtualFrame frame, final int bytecodeIndex,
+      final SSymbol signature, final Object[] callArgs) {
+    CompilerDirectives.transferToInterpreterAndInvalidate();
+
+    if (picGuardsField[bytecodeIndex + 1] == null) {
+      SInvokable method = lookupForPic(callArgs[0], signature);
+      if (method != null) {
+        DirectCallNode call = insert(
+            Truffle.getRuntime().createDirectCallNode(method.getCallTarget()));
+        quickenedField[bytecodeIndex + 1] = call;
+        picGuardsField[bytecodeIndex + 1] = DispatchGuard.create(callArgs[0]);
+        picArgsReusableField[bytecodeIndex] &= keepsNoArguments(method);
+        return call.call(callArgs);
+      }
+    }
+
+    return generalizePic(frame, bytecodeIndex, signature, callArgs);
+  }
+
+  /**
+   * Replace the PIC by a normal send node, when a site is more than bimorphic,
+   * a guard was invalidated, or a receiver needs a different kind of dispatch.
+   */
+  @InliningCutoff
+  private Object generalizePic(final VirtualFrame frame, final int bytecodeIndex,
+      final SSymbol signature, final Object[] callArgs) {
+    CompilerDirectives.transferToInterpreterAndInvalidate();
+
+    picGuardsField[bytecodeIndex] = null;
+    picGuardsField[bytecodeIndex + 1] = null;
+    picArgsReusableField[bytecodeIndex] = false;
+    quickenedField[bytecodeIndex + 1] = null;
+
+    GenericMessageSendNode quick =
+        MessageSendNode.createGeneric(signature, null, sourceCoord);
+    quickenBytecode(bytecodeIndex, Q_SEND, quick);
+    return quick.doPreEvaluated(frame, callArgs);
+  }
+
   private SClass getHolder() {
     return ((Invokable) getRootNode()).getHolder();
   }
@@ -1200,11 +1682,10 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
     byte contextIdx = bytecodesField[bytecodeIndex + 1];
 
     MaterializedFrame ctx = determineContext(frame, contextIdx);
-    FrameOnStackMarker marker =
-        (FrameOnStackMarker) ctx.getObject(frameOnStackMarkerIndex);
 
-    if (marker.isOnStack()) {
-      throw new ReturnException(result, marker);
+    if (FrameOnStackMarker.isOnStack(ctx, frameOnStackMarkerIndex)) {
+      FrameOnStackMarker.setReturnValue(ctx, frameOnStackMarkerIndex, result);
+      throw ReturnException.INSTANCE;
     } else {
       SBlock block = (SBlock) frame.getArguments()[0];
       throw new EscapedBlockException(block);
@@ -1242,6 +1723,14 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
     return literalsAndConstantsField;
   }
 
+  public int getFrameOnStackMarkerIndex() {
+    return frameOnStackMarkerIndex;
+  }
+
+  public BackJump[] getInlinedLoops() {
+    return inlinedLoopsField;
+  }
+
   public byte[] getBytecodeArray() {
     return bytecodesField;
   }
@@ -1302,6 +1791,14 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
       this.backwardsJumpIdx = backwardsJumpIdx;
     }
 
+    public int getLoopBeginIdx() {
+      return loopBeginIdx;
+    }
+
+    public int getBackwardsJumpIdx() {
+      return backwardsJumpIdx;
+    }
+
     @Override
     public int compareTo(final BackJump o) {
       return this.loopBeginIdx - o.loopBeginIdx;
@@ -1567,6 +2064,16 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           break;
         }
 
+        case INC_LOCAL:
+        case INC_LOCAL_PUSH: {
+          byte localIdx = bytecodes[i + 1];
+          byte contextIdx = bytecodes[i + 2];
+          Local local = inliner.getAdaptedLocal(localIdx, contextIdx, true);
+          emit3(mgenc, bytecode, (byte) local.getIndex(),
+              (byte) mgenc.getContextLevel(local), bytecode == INC_LOCAL ? 0 : 1);
+          break;
+        }
+
         case JUMP:
         case JUMP2:
         case JUMP_ON_TRUE_TOP_NIL:
@@ -1697,7 +2204,9 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
           break;
         }
 
-        case POP_LOCAL: {
+        case POP_LOCAL:
+        case INC_LOCAL:
+        case INC_LOCAL_PUSH: {
           byte localIdx = bytecodes[i + 1];
           byte contextLvl = bytecodes[i + 2];
 
@@ -1788,7 +2297,8 @@ public class BytecodeLoopNode extends NoPreEvalExprNode implements ScopeReferenc
         case Q_SEND:
         case Q_SEND_1:
         case Q_SEND_2:
-        case Q_SEND_3: {
+        case Q_SEND_3:
+        case Q_SEND_PIC: {
           bytecodes[i] = SEND;
           break;
         }
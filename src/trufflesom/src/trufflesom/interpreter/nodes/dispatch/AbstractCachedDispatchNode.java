@@ -6,7 +6,7 @@ import com.oracle.truffle.api.nodes.DirectCallNode;
 
 
 public abstract class AbstractCachedDispatchNode
-    extends AbstractDispatchNode {
+    extends AbstractDispatchNode implements InlineCacheEntry {
 
   @Child protected DirectCallNode       cachedMethod;
   @Child protected AbstractDispatchNode nextInCache;
@@ -24,4 +24,14 @@ public abstract class AbstractCachedDispatchNode
   public final int lengthOfDispatchChain() {
     return 1 + nextInCache.lengthOfDispatchChain();
   }
+
+  @Override
+  public final AbstractDispatchNode getNextInCache() {
+    return nextInCache;
+  }
+
+  @Override
+  public final void setNextInCache(final AbstractDispatchNode next) {
+    nextInCache = insert(next);
+  }
 }
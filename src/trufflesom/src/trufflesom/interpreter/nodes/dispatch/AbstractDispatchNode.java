@@ -1,5 +1,6 @@
 package trufflesom.interpreter.nodes.dispatch;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.NeverDefault;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.GenerateWrapper;
@@ -21,7 +22,14 @@ import trufflesom.vmobjects.SSymbol;
 @GenerateWrapper
 public abstract class AbstractDispatchNode extends Node
     implements DispatchChain, InstrumentableNode, WithSource {
-  public static final int INLINE_CACHE_SIZE = 6;
+  public static final int INLINE_CACHE_SIZE = VmSettings.InlineCacheSize;
+
+  /**
+   * Number of times this node matched as an entry of an inline cache.
+   * Counted for the dispatch statistics, or in the interpreter, if hot
+   * entries are kept, when a send becomes megamorphic.
+   */
+  private int hits;
 
   @NeverDefault
   public static AbstractDispatchNode create(final SSymbol selector) {
@@ -30,6 +38,22 @@ public abstract class AbstractDispatchNode extends Node
 
   public abstract Object executeDispatch(VirtualFrame frame, Object[] arguments);
 
+  protected final void recordHit() {
+    if (VmSettings.CollectDispatchStats
+        || (VmSettings.InlineCacheHotEntries > 0 && CompilerDirectives.inInterpreter())) {
+      hits += 1;
+    }
+  }
+
+  public final int getHits() {
+    return hits;
+  }
+
+  /** @return the next entry in the inline cache, or null, if this is not a cache entry */
+  public AbstractDispatchNode getNextInCache() {
+    return null;
+  }
+
   @Override
   public boolean isInstrumentable() {
     return true;
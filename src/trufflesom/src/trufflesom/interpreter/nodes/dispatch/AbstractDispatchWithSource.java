@@ -7,7 +7,7 @@ import trufflesom.bdt.inlining.nodes.WithSource;
 
 
 public abstract class AbstractDispatchWithSource extends AbstractDispatchNode
-    implements WithSource {
+    implements WithSource, InlineCacheEntry {
   private final Source source;
 
   @Child protected AbstractDispatchNode nextInCache;
@@ -22,6 +22,16 @@ public abstract class AbstractDispatchWithSource extends AbstractDispatchNode
     return 1 + nextInCache.lengthOfDispatchChain();
   }
 
+  @Override
+  public final AbstractDispatchNode getNextInCache() {
+    return nextInCache;
+  }
+
+  @Override
+  public final void setNextInCache(final AbstractDispatchNode next) {
+    nextInCache = insert(next);
+  }
+
   @Override
   public final Source getSource() {
     return source;
@@ -0,0 +1,145 @@
+package trufflesom.interpreter.nodes.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+import trufflesom.interpreter.LexicalScope;
+import trufflesom.interpreter.Method;
+import trufflesom.vm.ReportWriter;
+import trufflesom.vm.VmSettings;
+
+
+/**
+ * Tracks block sends, i.e., <code>value</code>, <code>value:</code>, and
+ * <code>value:with:</code>, that see more blocks than their inline cache can hold.
+ * Such sites are typically in higher-order methods such as <code>inject:into:</code>,
+ * which are called with different blocks by different callers.
+ *
+ * <p>
+ * With <code>-Dsom.splitBlockDispatch=true</code>, the method that lexically contains a
+ * megamorphic block send is split for each of its callers, so that the block send in
+ * each copy only sees the blocks of one caller.
+ *
+ * <p>
+ * With <code>-Dsom.blockDispatchReport=report.yml</code>, the methods containing
+ * megamorphic block sends are reported, as candidates for splitting, ordered by their
+ * number of megamorphic block sends.
+ */
+public final class BlockSplitting {
+
+  private static final class MethodStats {
+    private final String    name;
+    private final Set<Node> sites = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    MethodStats(final String name) {
+      this.name = name;
+    }
+  }
+
+  private static Map<Method, MethodStats> methods;
+
+  private BlockSplitting() {}
+
+  /** The method that contains the block send, if it is in a block, its outermost method. */
+  private static Method getHomeMethod(final Node site) {
+    RootNode root = site.getRootNode();
+    if (!(root instanceof Method)) {
+      return null;
+    }
+
+    LexicalScope scope = ((Method) root).getScope();
+    while (scope.getOuterScopeOrNull() != null) {
+      scope = scope.getOuterScopeOrNull();
+    }
+    return scope.getMethod();
+  }
+
+  private static MethodStats getStats(final Method home) {
+    if (methods == null) {
+      methods = new LinkedHashMap<>();
+    }
+    return methods.computeIfAbsent(home, m -> new MethodStats(m.getName()));
+  }
+
+  /**
+   * Called once by each block send that fell back to its megamorphic specialization.
+   * Only to be used in the interpreter.
+   */
+  @TruffleBoundary
+  public static synchronized void recordMegamorphicSend(final Node site) {
+    Method home = getHomeMethod(site);
+    if (home == null) {
+      return;
+    }
+
+    if (VmSettings.SplitBlockDispatch && !home.isSplitForCaller()) {
+      home.requestSplitting();
+    }
+
+    getStats(home).sites.add(site);
+  }
+
+  /**
+   * Replace the call node by one to a copy of its target, if a block send in the target
+   * became megamorphic. The copy is not split again. Only to be used in the interpreter.
+   *
+   * @return the call node to be used for the call
+   */
+  public static DirectCallNode splitIfRequested(final DirectCallNode callNode) {
+    CompilerAsserts.neverPartOfCompilation();
+    RootNode root = ((RootCallTarget) callNode.getCallTarget()).getRootNode();
+    if (!(root instanceof Method) || !((Method) root).isSplittingRequested()) {
+      return callNode;
+    }
+
+    Method method = (Method) root;
+    Method copy = (Method) method.deepCopy();
+    copy.setHolder(method.getHolder());
+    copy.markSplitForCaller();
+
+    return callNode.replace(Truffle.getRuntime().createDirectCallNode(copy.getCallTarget()),
+        "split for megamorphic block send");
+  }
+
+  public static synchronized String createReport() {
+    StringBuilder builder = new StringBuilder();
+    if (methods == null) {
+      builder.append("# no megamorphic block sends\n");
+      return builder.toString();
+    }
+
+    List<MethodStats> stats = new ArrayList<>(methods.values());
+    stats.sort((a, b) -> Integer.compare(b.sites.size(), a.sites.size()));
+
+    builder.append("methods:\n");
+    for (MethodStats s : stats) {
+      builder.append("  - method: '");
+      builder.append(s.name);
+      builder.append("'\n    megamorphic-block-sends: ");
+      builder.append(s.sites.size());
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+
+  public static void writeReport(final String file) {
+    ReportWriter.write(file, createReport(), "block dispatch report");
+  }
+
+  public static synchronized void reset() {
+    methods = null;
+  }
+}
@@ -6,6 +6,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 
 import trufflesom.interpreter.nodes.SOMNode;
+import trufflesom.vm.VmSettings;
 
 
 public final class CachedDispatchNode extends AbstractCachedDispatchNode {
@@ -24,6 +25,10 @@ public final class CachedDispatchNode extends AbstractCachedDispatchNode {
     Object rcvr = arguments[0];
     try {
       if (guard.entryMatches(rcvr)) {
+        recordHit();
+        if (VmSettings.SplitBlockDispatch && CompilerDirectives.inInterpreter()) {
+          return BlockSplitting.splitIfRequested(cachedMethod).call(arguments);
+        }
         return cachedMethod.call(arguments);
       } else {
         return nextInCache.executeDispatch(frame, arguments);
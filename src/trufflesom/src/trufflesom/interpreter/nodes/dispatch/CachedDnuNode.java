@@ -10,6 +10,7 @@ import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import trufflesom.interpreter.SArguments;
 import trufflesom.interpreter.Types;
 import trufflesom.primitives.basics.SystemPrims.PrintStackTracePrim;
+import trufflesom.vm.MethodCache;
 import trufflesom.vm.Universe;
 import trufflesom.vm.VmSettings;
 import trufflesom.vmobjects.SClass;
@@ -32,6 +33,7 @@ public final class CachedDnuNode extends AbstractCachedDispatchNode {
     Object rcvr = arguments[0];
     try {
       if (guard.entryMatches(rcvr)) {
+        recordHit();
         return performDnu(arguments, rcvr);
       } else {
         return nextInCache.executeDispatch(frame, arguments);
@@ -43,8 +45,8 @@ public final class CachedDnuNode extends AbstractCachedDispatchNode {
   }
 
   public static CallTarget getDnuCallTarget(final SClass rcvrClass) {
-    return rcvrClass.lookupInvokable(
-        symbolFor("doesNotUnderstand:arguments:")).getCallTarget();
+    return MethodCache.lookup(
+        rcvrClass, symbolFor("doesNotUnderstand:arguments:")).getCallTarget();
   }
 
   protected Object performDnu(final Object[] arguments, final Object rcvr) {
@@ -35,6 +35,7 @@ public class CachedFieldWriteAndSelf extends AbstractDispatchWithSource {
       if (rcvr.getClass() == expectedClass) {
         SObject receiver = (SObject) rcvr;
         if (receiver.getObjectLayout() == expectedLayout) {
+          recordHit();
           storage.write(receiver, value);
           return rcvr;
         }
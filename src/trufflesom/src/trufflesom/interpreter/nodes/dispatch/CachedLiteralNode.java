@@ -25,6 +25,7 @@ public class CachedLiteralNode extends AbstractDispatchWithSource {
     try {
       Object rcvr = arguments[0];
       if (guard.entryMatches(rcvr)) {
+        recordHit();
         return value;
       }
     } catch (InvalidAssumptionException e) {
@@ -1,30 +1,26 @@
 package trufflesom.interpreter.nodes.dispatch;
 
-import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.source.Source;
 
 import trufflesom.interpreter.nodes.SOMNode;
+import trufflesom.interpreter.objectstorage.CachedInstanceLayout;
 import trufflesom.interpreter.objectstorage.ObjectLayout;
 import trufflesom.vmobjects.SClass;
-import trufflesom.vmobjects.SObject;
 
 
 public class CachedNewObject extends AbstractDispatchWithSource {
-  private final ObjectLayout             rcvrLayout;
-  @CompilationFinal private Assumption   isLatest;
-  @CompilationFinal private ObjectLayout newInstanceLayout;
+  private final ObjectLayout         rcvrLayout;
+  private final CachedInstanceLayout instanceLayout;
 
-  public CachedNewObject(final ObjectLayout rcvrLayout, final Assumption isLatest,
-      final ObjectLayout newInstanceLayout,
-      final Source source, final AbstractDispatchNode next) {
+  public CachedNewObject(final ObjectLayout rcvrLayout,
+      final CachedInstanceLayout instanceLayout, final Source source,
+      final AbstractDispatchNode next) {
     super(source, next);
     this.rcvrLayout = rcvrLayout;
-    this.isLatest = isLatest;
-    this.newInstanceLayout = newInstanceLayout;
+    this.instanceLayout = instanceLayout;
   }
 
   @Override
@@ -40,14 +36,9 @@ public class CachedNewObject extends AbstractDispatchWithSource {
       }
 
       SClass clazz = ((SClass) rcvr);
-      if (clazz.getObjectLayout() == rcvrLayout) {
-        if (!isLatest.isValid()) {
-          CompilerDirectives.transferToInterpreterAndInvalidate();
-          ObjectLayout l = newInstanceLayout = clazz.getLayoutForInstances();
-          isLatest = l.getAssumption();
-        }
-
-        return new SObject(clazz, newInstanceLayout);
+      if (clazz.getObjectLayout() == rcvrLayout && instanceLayout.isForClass(clazz)) {
+        recordHit();
+        return instanceLayout.allocate();
       }
     }
     return nextInCache.executeDispatch(frame, arguments);
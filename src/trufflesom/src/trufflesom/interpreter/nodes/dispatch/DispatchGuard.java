@@ -1,8 +1,12 @@
 package trufflesom.interpreter.nodes.dispatch;
 
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 
 import trufflesom.interpreter.objectstorage.ObjectLayout;
+import trufflesom.vm.VmSettings;
 import trufflesom.vmobjects.SClass;
 import trufflesom.vmobjects.SObject;
 
@@ -25,8 +29,12 @@ public abstract class DispatchGuard {
       return new CheckSClass(((SClass) obj).getObjectLayout());
     }
 
-    if (clazz == SObject.class) {
-      return new CheckSObject(((SObject) obj).getObjectLayout());
+    if (obj instanceof SObject) {
+      // SObject or one of its subclasses with more inline fields
+      if (VmSettings.UseClassDispatchGuards) {
+        return new CheckSObjectClass(clazz, ((SObject) obj).getSOMClass());
+      }
+      return new CheckSObject(clazz, ((SObject) obj).getObjectLayout());
     }
 
     return new CheckClass(clazz);
@@ -78,17 +86,48 @@ public abstract class DispatchGuard {
 
   private static final class CheckSObject extends DispatchGuard {
 
+    private final Class<?>     expectedClass;
     private final ObjectLayout expected;
 
-    CheckSObject(final ObjectLayout expected) {
+    CheckSObject(final Class<?> expectedClass, final ObjectLayout expected) {
+      this.expectedClass = expectedClass;
       this.expected = expected;
     }
 
     @Override
     public boolean entryMatches(final Object obj) throws InvalidAssumptionException {
       expected.checkIsLatest();
-      return obj.getClass() == SObject.class &&
+      return obj.getClass() == expectedClass &&
           ((SObject) obj).getObjectLayout() == expected;
     }
   }
+
+  /**
+   * Checks only the class of an object, and not its layout. Instead of the layout,
+   * it depends on the methods of the class and its superclasses to remain unchanged,
+   * since they determine the result of the lookup.
+   */
+  static final class CheckSObjectClass extends DispatchGuard {
+
+    private final Class<?> expectedClass;
+    private final SClass   expected;
+
+    @CompilationFinal(dimensions = 1) private final Assumption[] methodsUnchanged;
+
+    CheckSObjectClass(final Class<?> expectedClass, final SClass expected) {
+      this.expectedClass = expectedClass;
+      this.expected = expected;
+      this.methodsUnchanged = expected.getMethodsUnchangedInHierarchy();
+    }
+
+    @Override
+    @ExplodeLoop
+    public boolean entryMatches(final Object obj) throws InvalidAssumptionException {
+      for (Assumption a : methodsUnchanged) {
+        a.check();
+      }
+      return obj.getClass() == expectedClass &&
+          ((SObject) obj).getSOMClass() == expected;
+    }
+  }
 }
@@ -10,6 +10,7 @@ import com.oracle.truffle.api.nodes.IndirectCallNode;
 import trufflesom.interpreter.SArguments;
 import trufflesom.primitives.reflection.ObjectPrims.ClassPrim;
 import trufflesom.primitives.reflection.ObjectPrimsFactory.ClassPrimFactory;
+import trufflesom.vm.MethodCache;
 import trufflesom.vmobjects.SArray;
 import trufflesom.vmobjects.SClass;
 import trufflesom.vmobjects.SInvokable;
@@ -32,7 +33,7 @@ public final class GenericDispatchNode extends AbstractDispatchNode {
   private Object dispatch(final Object[] arguments) {
     Object rcvr = arguments[0];
     SClass rcvrClass = classNode.executeEvaluated(rcvr);
-    SInvokable method = rcvrClass.lookupInvokable(selector);
+    SInvokable method = MethodCache.lookup(rcvrClass, selector);
 
     CallTarget target;
     Object[] args;
@@ -0,0 +1,11 @@
+package trufflesom.interpreter.nodes.dispatch;
+
+/**
+ * An entry of an inline cache, which is followed by further entries, and finally by the
+ * uninitialized or generic dispatch node that ends the dispatch chain.
+ */
+public interface InlineCacheEntry {
+  AbstractDispatchNode getNextInCache();
+
+  void setNextInCache(AbstractDispatchNode next);
+}
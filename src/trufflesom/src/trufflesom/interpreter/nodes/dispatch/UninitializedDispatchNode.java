@@ -2,12 +2,16 @@ package trufflesom.interpreter.nodes.dispatch;
 
 import static com.oracle.truffle.api.CompilerDirectives.transferToInterpreterAndInvalidate;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 
 import trufflesom.bdt.primitives.nodes.PreevaluatedExpression;
 import trufflesom.interpreter.Types;
+import trufflesom.vm.VmSettings;
 import trufflesom.vmobjects.SClass;
 import trufflesom.vmobjects.SInvokable;
 import trufflesom.vmobjects.SObject;
@@ -54,10 +58,42 @@ public final class UninitializedDispatchNode extends AbstractDispatchNode {
     // the chain is longer than the maximum defined by INLINE_CACHE_SIZE and
     // thus, this callsite is considered to be megaprophic, and we generalize it.
     GenericDispatchNode genericReplacement = new GenericDispatchNode(selector);
+    if (VmSettings.InlineCacheHotEntries > 0 && !VmSettings.UseInstrumentation) {
+      AbstractDispatchNode hot = keepHotEntries(first, genericReplacement,
+          VmSettings.InlineCacheHotEntries);
+      first.replace(hot);
+      return hot;
+    }
+
     first.replace(genericReplacement);
     return genericReplacement;
   }
 
+  /**
+   * Create a new chain from the most frequently used entries of a megamorphic
+   * inline cache, ordered by their number of hits, which ends in the generic
+   * dispatch node. The entries are deep copies, because the old chain, and
+   * with it the children of the entries, are still in the tree.
+   */
+  static AbstractDispatchNode keepHotEntries(final AbstractDispatchNode first,
+      final GenericDispatchNode generic, final int numHotEntries) {
+    List<AbstractDispatchNode> entries = new ArrayList<>();
+    for (AbstractDispatchNode e = first; e.getNextInCache() != null; e = e.getNextInCache()) {
+      entries.add(e);
+    }
+
+    // the sort is stable, on ties, the older entries remain first
+    entries.sort((a, b) -> Integer.compare(b.getHits(), a.getHits()));
+
+    AbstractDispatchNode chain = generic;
+    for (int i = Math.min(numHotEntries, entries.size()) - 1; i >= 0; i -= 1) {
+      InlineCacheEntry entry = (InlineCacheEntry) entries.get(i).deepCopy();
+      entry.setNextInCache(chain);
+      chain = (AbstractDispatchNode) entry;
+    }
+    return chain;
+  }
+
   public static AbstractDispatchNode createDispatch(final Object rcvr, final SSymbol selector,
       final UninitializedDispatchNode newChainEnd) {
     SClass rcvrClass = Types.getClassOf(rcvr);
@@ -0,0 +1,98 @@
+package trufflesom.interpreter.nodes.specialized;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeChild;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import trufflesom.bdt.inlining.Inline;
+import trufflesom.bdt.inlining.Inline.False;
+import trufflesom.bdt.inlining.Inline.True;
+import trufflesom.bdt.inlining.ScopeAdaptationVisitor;
+import trufflesom.bdt.inlining.ScopeAdaptationVisitor.ScopeElement;
+import trufflesom.compiler.Variable.Local;
+import trufflesom.interpreter.nodes.ExpressionNode;
+import trufflesom.primitives.arrays.AtPrim;
+import trufflesom.primitives.arrays.AtPrimFactory;
+import trufflesom.primitives.basics.LengthPrim;
+import trufflesom.primitives.basics.LengthPrimFactory;
+import trufflesom.vm.SymbolTable;
+import trufflesom.vmobjects.SArray;
+import trufflesom.vmobjects.SSymbol;
+
+
+@NodeChild(value = "receiver", type = ExpressionNode.class)
+@Inline(selector = "do:", inlineableArgIdx = 1, introduceTemps = 1,
+    additionalArgs = False.class)
+@Inline(selector = "doIndexes:", inlineableArgIdx = 1, introduceTemps = 1,
+    additionalArgs = True.class)
+@GenerateNodeFactory
+public abstract class ArrayDoInlinedLiteralNode extends InlinedBlockLoopNode {
+
+  @Child private LengthPrim length = LengthPrimFactory.create(null);
+  @Child private AtPrim     at     = AtPrimFactory.create(null, null);
+
+  /** The loop passes the indexes instead of the elements to the body. */
+  private final boolean doIndexes;
+
+  public ArrayDoInlinedLiteralNode(final ExpressionNode originalBody,
+      final ExpressionNode body, final Local loopIdxVar, final boolean doIndexes) {
+    super(originalBody, body, loopIdxVar);
+    this.doIndexes = doIndexes;
+  }
+
+  public abstract ExpressionNode getReceiver();
+
+  @Override
+  protected SSymbol getSelector() {
+    return SymbolTable.symbolFor(doIndexes ? "doIndexes:" : "do:");
+  }
+
+  @Specialization(guards = "canInlineBody()")
+  public final SArray doArray(final VirtualFrame frame, final SArray receiver) {
+    long l = length.executeEvaluated(frame, receiver);
+    if (CompilerDirectives.inInterpreter()) {
+      try {
+        doLooping(frame, receiver, l);
+      } finally {
+        reportLoopCount(l);
+      }
+    } else {
+      doLooping(frame, receiver, l);
+    }
+    return receiver;
+  }
+
+  private void doLooping(final VirtualFrame frame, final SArray receiver, final long l) {
+    if (doIndexes) {
+      setLoopIdxKind(FrameSlotKind.Long);
+      for (long i = 1; i <= l; i++) {
+        frame.setLong(loopIdxVarIndex, i);
+        body.executeGeneric(frame);
+      }
+    } else {
+      setLoopIdxKind(FrameSlotKind.Object);
+      for (long i = 1; i <= l; i++) {
+        frame.setObject(loopIdxVarIndex, at.executeEvaluated(frame, receiver, i));
+        body.executeGeneric(frame);
+      }
+    }
+  }
+
+  @Fallback
+  public final Object doSend(final VirtualFrame frame, final Object receiver) {
+    return sendWithBlock(frame, new Object[] {receiver, null});
+  }
+
+  @Override
+  public void replaceAfterScopeChange(final ScopeAdaptationVisitor inliner) {
+    ScopeElement<ExpressionNode> se = inliner.getAdaptedVar(loopIdxVar);
+    ArrayDoInlinedLiteralNode node = ArrayDoInlinedLiteralNodeFactory.create(
+        bodyActualNode, body, (Local) se.var, doIndexes, getReceiver());
+    node.initialize(sourceCoord);
+    replace(node);
+  }
+}
@@ -0,0 +1,176 @@
+package trufflesom.interpreter.nodes.specialized;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.NonIdempotent;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.RootNode;
+
+import trufflesom.compiler.Variable.Local;
+import trufflesom.interpreter.InlinedBlockMethod;
+import trufflesom.interpreter.Invokable;
+import trufflesom.interpreter.nodes.ExpressionNode;
+import trufflesom.interpreter.nodes.GenericMessageSendNode;
+import trufflesom.interpreter.nodes.MessageSendNode;
+import trufflesom.interpreter.nodes.NoPreEvalExprNode;
+import trufflesom.interpreter.nodes.literals.BlockNode;
+import trufflesom.vm.Classes;
+import trufflesom.vm.SymbolTable;
+import trufflesom.vmobjects.SBlock;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable.SMethod;
+import trufflesom.vmobjects.SInvokable.SPrimitive;
+import trufflesom.vmobjects.SSymbol;
+
+
+/**
+ * A loop that runs the body of its block literal directly in the frame of the method,
+ * instead of sending <code>#value:</code> to a block in each iteration. Thus, neither the
+ * block is allocated nor the frame materialized.
+ *
+ * <p>
+ * This is only equivalent to the message send as long as <code>#value:</code> of blocks
+ * with one argument is the primitive. This is checked with the assumptions of the block
+ * classes, which invalidate the compiled code when a method is redefined. If the check
+ * fails, or the loop does not apply, for instance because the receiver is not an array,
+ * the message is sent with a block that runs the inlined body, see
+ * {@link InlinedBlockMethod}.
+ */
+public abstract class InlinedBlockLoopNode extends NoPreEvalExprNode {
+  private static final SSymbol VALUE_ONE = SymbolTable.symbolFor("value:");
+
+  @Child protected ExpressionNode body;
+
+  // In case we need to revert from this optimistic optimization, keep the
+  // original node around
+  protected final ExpressionNode bodyActualNode;
+
+  protected final Local loopIdxVar;
+  protected final int   loopIdxVarIndex;
+
+  /** Only the body of a block literal with one parameter is equivalent to its block. */
+  private final boolean bodyIsBlockWithOneArg;
+
+  @CompilationFinal(dimensions = 1) private Assumption[] blockMethodsUnchanged;
+  @CompilationFinal private boolean                      valueIsPrimitive;
+
+  @Child private GenericMessageSendNode send;
+
+  @CompilationFinal private SMethod inlinedBlock;
+  @CompilationFinal private SClass  inlinedBlockClass;
+
+  protected InlinedBlockLoopNode(final ExpressionNode originalBody, final ExpressionNode body,
+      final Local loopIdxVar) {
+    this.body = body;
+    this.bodyActualNode = originalBody;
+    this.loopIdxVar = loopIdxVar;
+    this.loopIdxVarIndex = loopIdxVar.getIndex();
+    this.bodyIsBlockWithOneArg = originalBody instanceof BlockNode
+        && ((BlockNode) originalBody).getMethod().getNumberOfArguments() == 2;
+  }
+
+  public String getIndexName() {
+    return loopIdxVar.getName().getString();
+  }
+
+  protected abstract SSymbol getSelector();
+
+  @NonIdempotent
+  protected final boolean canInlineBody() {
+    return bodyIsBlockWithOneArg && isValuePrimitive();
+  }
+
+  @ExplodeLoop
+  private boolean isValuePrimitive() {
+    if (blockMethodsUnchanged == null) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      lookUpValue();
+    }
+
+    for (Assumption a : blockMethodsUnchanged) {
+      if (!a.isValid()) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        lookUpValue();
+        break;
+      }
+    }
+    return valueIsPrimitive;
+  }
+
+  private void lookUpValue() {
+    SClass blockClass = Classes.getBlockClass(2);
+    blockMethodsUnchanged = blockClass.getMethodsUnchangedInHierarchy();
+    valueIsPrimitive = blockClass.lookupInvokable(VALUE_ONE) instanceof SPrimitive;
+  }
+
+  protected final void setLoopIdxKind(final FrameSlotKind kind) {
+    FrameDescriptor descriptor = loopIdxVar.getFrameDescriptor();
+    if (descriptor.getSlotKind(loopIdxVarIndex) != kind) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      descriptor.setSlotKind(loopIdxVarIndex, kind);
+    }
+  }
+
+  /**
+   * Sends the message of the loop with the evaluated arguments, and a block for the literal
+   * in the last element of <code>args</code>.
+   */
+  protected final Object sendWithBlock(final VirtualFrame frame, final Object[] args) {
+    if (send == null) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      send = insert(MessageSendNode.createGeneric(getSelector(), null, sourceCoord));
+      send.notifyDispatchInserted();
+    }
+
+    args[args.length - 1] = createBlock(frame);
+    return send.doPreEvaluated(frame, args);
+  }
+
+  private Object createBlock(final VirtualFrame frame) {
+    if (!(bodyActualNode instanceof BlockNode)) {
+      // any other literal does not depend on the frame
+      return bodyActualNode.executeGeneric(frame);
+    }
+
+    if (inlinedBlock == null) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      inlinedBlock = createInlinedBlock();
+      inlinedBlockClass = Classes.getBlockClass(inlinedBlock.getNumberOfArguments());
+    }
+    return new SBlock(inlinedBlock, inlinedBlockClass, frame.materialize());
+  }
+
+  private SMethod createInlinedBlock() {
+    SMethod original = ((BlockNode) bodyActualNode).getMethod();
+    Invokable home = (Invokable) getRootNode();
+
+    InlinedBlockMethod invokable = new InlinedBlockMethod(original.getInvokable().getName(),
+        original.getSource(), original.getSourceCoordinate(), NodeUtil.cloneNode(body),
+        loopIdxVar, home);
+    SMethod method = new SMethod(original.getSignature(), invokable, new SMethod[0]);
+    method.setHolder(home.getHolder());
+    return method;
+  }
+
+  protected final void reportLoopCount(final long count) {
+    if (count < 1) {
+      return;
+    }
+
+    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
+    Node current = getParent();
+    while (current != null && !(current instanceof RootNode)) {
+      current = current.getParent();
+    }
+    if (current != null) {
+      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+    }
+  }
+}
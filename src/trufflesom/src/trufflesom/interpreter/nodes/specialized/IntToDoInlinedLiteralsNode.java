@@ -1,59 +1,43 @@
 package trufflesom.interpreter.nodes.specialized;
 
-import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
 
 import trufflesom.bdt.inlining.Inline;
 import trufflesom.bdt.inlining.ScopeAdaptationVisitor;
 import trufflesom.bdt.inlining.ScopeAdaptationVisitor.ScopeElement;
 import trufflesom.compiler.Variable.Local;
-import trufflesom.interpreter.Invokable;
 import trufflesom.interpreter.nodes.ExpressionNode;
-import trufflesom.interpreter.nodes.NoPreEvalExprNode;
+import trufflesom.vm.SymbolTable;
+import trufflesom.vmobjects.SSymbol;
 
 
 @NodeChild(value = "from", type = ExpressionNode.class)
 @NodeChild(value = "to", type = ExpressionNode.class)
 @Inline(selector = "to:do:", inlineableArgIdx = 2, introduceTemps = 2, disabled = true)
 @GenerateNodeFactory
-public abstract class IntToDoInlinedLiteralsNode extends NoPreEvalExprNode {
-
-  @Child protected ExpressionNode body;
-
-  // In case we need to revert from this optimistic optimization, keep the
-  // original node around
-  private final ExpressionNode bodyActualNode;
-
-  private final int   loopIdxVarIndex;
-  private final Local loopIdxVar;
+public abstract class IntToDoInlinedLiteralsNode extends InlinedBlockLoopNode {
 
   public abstract ExpressionNode getFrom();
 
   public abstract ExpressionNode getTo();
 
-  public String getIndexName() {
-    return loopIdxVar.getName().getString();
-  }
-
   public IntToDoInlinedLiteralsNode(final ExpressionNode originalBody,
       final ExpressionNode body, final Local loopIdxVar) {
-    this.body = body;
-    this.loopIdxVar = loopIdxVar;
-    this.loopIdxVarIndex = loopIdxVar.getIndex();
-    this.bodyActualNode = originalBody;
+    super(originalBody, body, loopIdxVar);
+  }
 
-    // and, we can already tell the loop index that it is going to be long
-    // loopIdxVar.getFrameDescriptor().setSlotKind(loopIdxVarIndex, FrameSlotKind.Long);
+  @Override
+  protected SSymbol getSelector() {
+    return SymbolTable.symbolFor("to:do:");
   }
 
-  @Specialization
+  @Specialization(guards = "canInlineBody()")
   public final long doIntToDo(final VirtualFrame frame, final long from, final long to) {
     if (CompilerDirectives.inInterpreter()) {
       try {
@@ -67,7 +51,7 @@ public abstract class IntToDoInlinedLiteralsNode extends NoPreEvalExprNode {
     return from;
   }
 
-  @Specialization
+  @Specialization(guards = "canInlineBody()")
   public final long doIntToDo(final VirtualFrame frame, final long from, final double to) {
     if (CompilerDirectives.inInterpreter()) {
       try {
@@ -93,7 +77,7 @@ public abstract class IntToDoInlinedLiteralsNode extends NoPreEvalExprNode {
     }
   }
 
-  @Specialization
+  @Specialization(guards = "canInlineBody()")
   public final double doDoubleToDo(final VirtualFrame frame, final double from,
       final double to) {
     this.loopIdxVar.getFrameDescriptor().setSlotKind(loopIdxVarIndex, FrameSlotKind.Double);
@@ -121,19 +105,10 @@ public abstract class IntToDoInlinedLiteralsNode extends NoPreEvalExprNode {
     }
   }
 
-  private void reportLoopCount(final long count) {
-    if (count < 1) {
-      return;
-    }
-
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
-    }
+  @Fallback
+  public final Object doSend(final VirtualFrame frame, final Object from,
+      final Object to) {
+    return sendWithBlock(frame, new Object[] {from, to, null});
   }
 
   @Override
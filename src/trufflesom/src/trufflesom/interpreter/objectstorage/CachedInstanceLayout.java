@@ -0,0 +1,68 @@
+package trufflesom.interpreter.objectstorage;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SObject;
+
+
+/**
+ * Caches the layout for the instances of a class in a node that allocates them.
+ *
+ * <p>
+ * All instances of a class share the layout of the class, so the cache holds the latest
+ * layout of the class, and not one of its own. The layout is a compilation constant, and
+ * each change of the class's layout, typically during warm-up, invalidates the compiled
+ * code of the allocating node. To bound these deoptimizations, a cache that saw more than
+ * {@link #MAX_LAYOUT_CHANGES} changes stops caching the layout, and reads it from the class
+ * for each allocation. The changes are counted per cache, so that nodes created once the
+ * layout settled still cache it.
+ */
+public final class CachedInstanceLayout {
+  private static final int MAX_LAYOUT_CHANGES = 4;
+
+  private final SClass forClass;
+
+  @CompilationFinal private ObjectLayout layout;
+  @CompilationFinal private int          layoutChanges;
+
+  public CachedInstanceLayout(final SClass forClass) {
+    this.forClass = forClass;
+    this.layout = forClass.getLayoutForInstances();
+  }
+
+  public boolean isForClass(final SClass clazz) {
+    return forClass == clazz;
+  }
+
+  public SObject allocate() {
+    ObjectLayout l = layout;
+    if (l == null) {
+      return SObject.create(forClass);
+    }
+
+    if (!l.isValid()) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      l = updateLayout();
+      if (l == null) {
+        return SObject.create(forClass);
+      }
+    }
+    return SObject.create(forClass, l);
+  }
+
+  private ObjectLayout updateLayout() {
+    layoutChanges += 1;
+    if (layoutChanges > MAX_LAYOUT_CHANGES) {
+      layout = null;
+    } else {
+      layout = forClass.getLayoutForInstances();
+    }
+    return layout;
+  }
+
+  public int getLayoutChanges() {
+    return layoutChanges;
+  }
+}
@@ -1,6 +1,7 @@
 package trufflesom.interpreter.objectstorage;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.HostCompilerDirectives.InliningCutoff;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.nodes.Node;
@@ -9,14 +10,22 @@ import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import trufflesom.interpreter.TypesGen;
 import trufflesom.interpreter.nodes.SOMNode;
 import trufflesom.interpreter.objectstorage.StorageLocation.AbstractObjectStorageLocation;
+import trufflesom.interpreter.objectstorage.StorageLocation.BooleanStorageLocation;
 import trufflesom.interpreter.objectstorage.StorageLocation.DoubleStorageLocation;
 import trufflesom.interpreter.objectstorage.StorageLocation.LongStorageLocation;
+import trufflesom.vm.NotYetImplementedException;
 import trufflesom.vm.VmSettings;
 import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SObject;
 
 
 public abstract class FieldAccessorNode extends Node {
+  /**
+   * Maximum number of layouts a field access node specializes on, before it uses the
+   * generic node, for instance in a superclass method used with many subclasses.
+   */
+  public static final int INLINE_CACHE_SIZE = VmSettings.FieldCacheSize;
+
   protected final int fieldIndex;
 
   @InliningCutoff
@@ -29,11 +38,18 @@ public abstract class FieldAccessorNode extends Node {
     return new UninitializedWriteFieldNode(fieldIndex);
   }
 
+  /**
+   * Create a node incrementing the field, which is specialized on the layout of the object,
+   * if the field is stored as long, and is generic otherwise.
+   */
   @InliningCutoff
-  public static IncrementLongFieldNode createIncrement(final int fieldIndex,
+  public static AbstractIncrementFieldNode createIncrement(final int fieldIndex,
       final SObject obj) {
     final ObjectLayout layout = obj.getObjectLayout();
-    return new IncrementLongFieldNode(fieldIndex, layout);
+    if (layout.getStorageLocation(fieldIndex) instanceof LongStorageLocation) {
+      return new IncrementLongFieldNode(fieldIndex, layout);
+    }
+    return new GenericIncrementFieldNode(fieldIndex);
   }
 
   private FieldAccessorNode(final int fieldIndex) {
@@ -65,6 +81,10 @@ public abstract class FieldAccessorNode extends Node {
       return TypesGen.expectDouble(read(obj));
     }
 
+    public boolean readBoolean(final SObject obj) throws UnexpectedResultException {
+      return TypesGen.expectBoolean(read(obj));
+    }
+
     protected final Object specializeAndRead(final SObject obj, final String reason,
         final AbstractReadFieldNode next) {
       return specialize(obj, reason, next).read(obj);
@@ -94,26 +114,65 @@ public abstract class FieldAccessorNode extends Node {
     @InliningCutoff
     public Object read(final SObject obj) {
       CompilerDirectives.transferToInterpreterAndInvalidate();
-      return specializeAndRead(obj, "uninitalized node",
-          new UninitializedReadFieldNode(fieldIndex));
+
+      // Determine position in the chain, i.e., the number of cached layouts
+      Node i = this;
+      int chainDepth = 0;
+      while (i.getParent() instanceof AbstractReadFieldNode) {
+        i = i.getParent();
+        chainDepth++;
+      }
+
+      if (chainDepth < INLINE_CACHE_SIZE) {
+        return specializeAndRead(obj, "uninitalized node",
+            new UninitializedReadFieldNode(fieldIndex));
+      }
+
+      GenericReadFieldNode generic = new GenericReadFieldNode(fieldIndex);
+      ((AbstractReadFieldNode) i).replace(generic, "megamorphic field read");
+      return generic.read(obj);
+    }
+  }
+
+  public static final class GenericReadFieldNode extends AbstractReadFieldNode {
+    GenericReadFieldNode(final int fieldIndex) {
+      super(fieldIndex);
+    }
+
+    @Override
+    public Object read(final SObject obj) {
+      return readField(obj, fieldIndex);
+    }
+
+    @TruffleBoundary
+    private static Object readField(final SObject obj, final int fieldIndex) {
+      obj.updateLayoutToMatchClass();
+      return obj.getField(fieldIndex);
     }
   }
 
   public abstract static class ReadSpecializedFieldNode extends AbstractReadFieldNode {
     protected final ObjectLayout           layout;
+    protected final StorageLocation        location;
     @Child protected AbstractReadFieldNode nextInCache;
 
     public ReadSpecializedFieldNode(final int fieldIndex,
         final ObjectLayout layout, final AbstractReadFieldNode next) {
       super(fieldIndex);
       this.layout = layout;
+      this.location = layout.getStorageLocation(fieldIndex);
       nextInCache = next;
     }
 
+    /**
+     * Storage locations are shared between layouts, so that the node also applies to objects
+     * of other classes, which store the field in the same way, e.g., subclasses.
+     */
     protected final boolean hasExpectedLayout(final SObject obj)
         throws InvalidAssumptionException {
       layout.checkIsLatest();
-      return layout == obj.getObjectLayout();
+      ObjectLayout actual = obj.getObjectLayout();
+      return actual == layout || actual.getStorageLocation(fieldIndex) == location;
     }
 
     protected final AbstractReadFieldNode respecializedNodeOrNext(final SObject obj) {
@@ -125,6 +184,7 @@ public abstract class FieldAccessorNode extends Node {
     }
   }
 
+  /** Reads a field that was not written yet, or was so far only assigned {@code nil}. */
   public static final class ReadUnwrittenFieldNode extends ReadSpecializedFieldNode {
     public ReadUnwrittenFieldNode(final int fieldIndex,
         final ObjectLayout layout, final AbstractReadFieldNode next) {
@@ -227,6 +287,44 @@ public abstract class FieldAccessorNode extends Node {
     }
   }
 
+  public static final class ReadBooleanFieldNode extends ReadSpecializedFieldNode {
+    private final BooleanStorageLocation storage;
+
+    public ReadBooleanFieldNode(final int fieldIndex, final ObjectLayout layout,
+        final AbstractReadFieldNode next) {
+      super(fieldIndex, layout, next);
+      this.storage = (BooleanStorageLocation) layout.getStorageLocation(fieldIndex);
+    }
+
+    @Override
+    public boolean readBoolean(final SObject obj) throws UnexpectedResultException {
+      try {
+        if (hasExpectedLayout(obj)) {
+          return storage.readBoolean(obj);
+        } else {
+          return respecializedNodeOrNext(obj).readBoolean(obj);
+        }
+      } catch (InvalidAssumptionException e) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        return dropAndReadNext(obj);
+      }
+    }
+
+    @InliningCutoff
+    private boolean dropAndReadNext(final SObject obj) throws UnexpectedResultException {
+      return replace(SOMNode.unwrapIfNeeded(nextInCache)).readBoolean(obj);
+    }
+
+    @Override
+    public Object read(final SObject obj) {
+      try {
+        return readBoolean(obj);
+      } catch (UnexpectedResultException e) {
+        return e.getResult();
+      }
+    }
+  }
+
   public static final class ReadObjectFieldNode extends ReadSpecializedFieldNode {
     private final AbstractObjectStorageLocation storage;
 
@@ -273,6 +371,11 @@ public abstract class FieldAccessorNode extends Node {
       return value;
     }
 
+    public boolean write(final SObject obj, final boolean value) {
+      write(obj, (Object) value);
+      return value;
+    }
+
     @InliningCutoff
     protected final void writeAndRespecialize(final SObject obj, final Object value,
         final String reason, final AbstractWriteFieldNode next) {
@@ -296,47 +399,124 @@ public abstract class FieldAccessorNode extends Node {
     @InliningCutoff
     public Object write(final SObject obj, final Object value) {
       CompilerDirectives.transferToInterpreterAndInvalidate();
-      writeAndRespecialize(obj, value, "initialize write field node",
-          new UninitializedWriteFieldNode(fieldIndex));
+
+      // Determine position in the chain, i.e., the number of cached layouts
+      Node i = this;
+      int chainDepth = 0;
+      while (i.getParent() instanceof AbstractWriteFieldNode) {
+        i = i.getParent();
+        chainDepth++;
+      }
+
+      if (chainDepth < INLINE_CACHE_SIZE) {
+        writeAndRespecialize(obj, value, "initialize write field node",
+            new UninitializedWriteFieldNode(fieldIndex));
+        return value;
+      }
+
+      GenericWriteFieldNode generic = new GenericWriteFieldNode(fieldIndex);
+      ((AbstractWriteFieldNode) i).replace(generic, "megamorphic field write");
+      return generic.write(obj, value);
+    }
+  }
+
+  public static final class GenericWriteFieldNode extends AbstractWriteFieldNode {
+    GenericWriteFieldNode(final int fieldIndex) {
+      super(fieldIndex);
+    }
+
+    @Override
+    public Object write(final SObject obj, final Object value) {
+      writeField(obj, fieldIndex, value);
       return value;
     }
+
+    @TruffleBoundary
+    private static void writeField(final SObject obj, final int fieldIndex,
+        final Object value) {
+      obj.updateLayoutToMatchClass();
+      obj.setField(fieldIndex, value);
+    }
   }
 
   private abstract static class WriteSpecializedFieldNode extends AbstractWriteFieldNode {
 
     protected final ObjectLayout            layout;
+    protected final StorageLocation         location;
     @Child protected AbstractWriteFieldNode nextInCache;
 
     WriteSpecializedFieldNode(final int fieldIndex,
         final ObjectLayout layout, final AbstractWriteFieldNode next) {
       super(fieldIndex);
       this.layout = layout;
+      this.location = layout.getStorageLocation(fieldIndex);
       nextInCache = next;
     }
 
     protected final boolean hasExpectedLayout(final SObject obj)
         throws InvalidAssumptionException {
       layout.checkIsLatest();
-      return layout == obj.getObjectLayout();
+      ObjectLayout actual = obj.getObjectLayout();
+      return actual == layout || actual.getStorageLocation(fieldIndex) == location;
+    }
+  }
+
+  public abstract static class AbstractIncrementFieldNode extends FieldAccessorNode {
+    public AbstractIncrementFieldNode(final int fieldIndex) {
+      super(fieldIndex);
     }
+
+    public abstract long increment(SObject obj);
   }
 
-  public static final class IncrementLongFieldNode extends FieldAccessorNode {
+  public static final class GenericIncrementFieldNode extends AbstractIncrementFieldNode {
+    GenericIncrementFieldNode(final int fieldIndex) {
+      super(fieldIndex);
+    }
+
+    @Override
+    public long increment(final SObject obj) {
+      return incrementField(obj, fieldIndex);
+    }
+
+    @TruffleBoundary
+    private static long incrementField(final SObject obj, final int fieldIndex) {
+      obj.updateLayoutToMatchClass();
+      Object val = obj.getField(fieldIndex);
+      if (!(val instanceof Long)) {
+        throw new NotYetImplementedException();
+      }
+
+      long result;
+      try {
+        result = Math.addExact((Long) val, 1);
+      } catch (ArithmeticException e) {
+        throw new NotYetImplementedException();
+      }
+      obj.setField(fieldIndex, result);
+      return result;
+    }
+  }
+
+  public static final class IncrementLongFieldNode extends AbstractIncrementFieldNode {
     protected final ObjectLayout      layout;
+    private final StorageLocation     location;
     private final LongStorageLocation storage;
 
-    @Child protected IncrementLongFieldNode nextInCache;
+    @Child protected AbstractIncrementFieldNode nextInCache;
 
     public IncrementLongFieldNode(final int fieldIndex, final ObjectLayout layout) {
       super(fieldIndex);
       this.layout = layout;
-      this.storage = (LongStorageLocation) layout.getStorageLocation(fieldIndex);
+      this.location = layout.getStorageLocation(fieldIndex);
+      this.storage = (LongStorageLocation) location;
     }
 
     protected boolean hasExpectedLayout(final SObject obj)
         throws InvalidAssumptionException {
       layout.checkIsLatest();
-      return layout == obj.getObjectLayout();
+      ObjectLayout actual = obj.getObjectLayout();
+      return actual == layout || actual.getStorageLocation(fieldIndex) == location;
     }
 
     public long increment(final SObject obj) {
@@ -359,11 +539,29 @@ public abstract class FieldAccessorNode extends Node {
       return replace(SOMNode.unwrapIfNeeded(nextInCache)).increment(obj);
     }
 
+    /**
+     * Like the read and write nodes, the chain is bounded. The last entry is generic, which
+     * also handles fields that are not stored as long in the layout of the object.
+     */
     @InliningCutoff
     private void ensureNext(final SObject obj) {
-      if (nextInCache == null) {
-        CompilerDirectives.transferToInterpreterAndInvalidate();
-        nextInCache = new IncrementLongFieldNode(fieldIndex, obj.getObjectLayout());
+      if (nextInCache != null) {
+        return;
+      }
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+
+      // Determine position in the chain, i.e., the number of cached layouts
+      Node i = this;
+      int chainDepth = 1;
+      while (i.getParent() instanceof IncrementLongFieldNode) {
+        i = i.getParent();
+        chainDepth++;
+      }
+
+      if (chainDepth < INLINE_CACHE_SIZE) {
+        nextInCache = insert(createIncrement(fieldIndex, obj));
+      } else {
+        nextInCache = insert(new GenericIncrementFieldNode(fieldIndex));
       }
     }
   }
@@ -464,6 +662,89 @@ public abstract class FieldAccessorNode extends Node {
     }
   }
 
+  public static final class WriteBooleanFieldNode extends WriteSpecializedFieldNode {
+    private final BooleanStorageLocation storage;
+
+    public WriteBooleanFieldNode(final int fieldIndex, final ObjectLayout layout,
+        final AbstractWriteFieldNode next) {
+      super(fieldIndex, layout, next);
+      this.storage = (BooleanStorageLocation) layout.getStorageLocation(fieldIndex);
+    }
+
+    @Override
+    public boolean write(final SObject obj, final boolean value) {
+      try {
+        if (hasExpectedLayout(obj)) {
+          storage.writeBoolean(obj, value);
+        } else {
+          if (layout.layoutForSameClass(obj.getObjectLayout())) {
+            writeAndRespecialize(obj, value, "update outdated write node", nextInCache);
+          } else {
+            nextInCache.write(obj, value);
+          }
+        }
+      } catch (InvalidAssumptionException e) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        dropAndWriteNext(obj, value);
+      }
+      return value;
+    }
+
+    @InliningCutoff
+    private void dropAndWriteNext(final SObject obj, final boolean value) {
+      replace(SOMNode.unwrapIfNeeded(nextInCache)).write(obj, value);
+    }
+
+    @Override
+    public Object write(final SObject obj, final Object value) {
+      if (value instanceof Boolean) {
+        write(obj, (boolean) value);
+      } else {
+        if (layout.layoutForSameClass(obj.getObjectLayout())) {
+          writeAndRespecialize(obj, value, "generalize boolean field", nextInCache);
+        } else {
+          nextInCache.write(obj, value);
+        }
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Writes to a field that was so far only assigned {@code nil}. Writing {@code nil} again
+   * does not need to store anything.
+   */
+  public static final class WriteNilFieldNode extends WriteSpecializedFieldNode {
+    public WriteNilFieldNode(final int fieldIndex, final ObjectLayout layout,
+        final AbstractWriteFieldNode next) {
+      super(fieldIndex, layout, next);
+    }
+
+    @Override
+    public Object write(final SObject obj, final Object value) {
+      try {
+        if (hasExpectedLayout(obj) && value == Nil.nilObject) {
+          return value;
+        }
+
+        if (layout.layoutForSameClass(obj.getObjectLayout())) {
+          writeAndRespecialize(obj, value, "initialize nil field", nextInCache);
+        } else {
+          nextInCache.write(obj, value);
+        }
+      } catch (InvalidAssumptionException e) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        dropAndWriteNext(obj, value);
+      }
+      return value;
+    }
+
+    @InliningCutoff
+    private void dropAndWriteNext(final SObject obj, final Object value) {
+      replace(SOMNode.unwrapIfNeeded(nextInCache)).write(obj, value);
+    }
+  }
+
   public static final class WriteObjectFieldNode extends WriteSpecializedFieldNode {
     private final AbstractObjectStorageLocation storage;
 
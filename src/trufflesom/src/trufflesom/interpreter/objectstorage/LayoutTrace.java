@@ -0,0 +1,161 @@
+package trufflesom.interpreter.objectstorage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import trufflesom.vm.ReportWriter;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SClass;
+
+
+/**
+ * Counts the layout transitions of object storage per class and field.
+ *
+ * <p>
+ * For each class, it records how often layouts were invalidated, how often objects had to
+ * be updated to the latest layout of their class, and for each field, the sequence of
+ * storage types it went through. Each transition invalidates the compiled code that
+ * specialized on the previous layout, so that classes with many transitions are candidates
+ * for causing repeated recompilation.
+ *
+ * <p>
+ * The trace is enabled with <code>-Dsom.layoutTrace=report.yml</code>.
+ */
+public final class LayoutTrace {
+
+  private static final class ClassTrace {
+    private final String name;
+
+    private long invalidations;
+    private long objectUpdates;
+    private long fieldTransitions;
+
+    private final Map<Integer, FieldTrace> fields = new TreeMap<>();
+
+    ClassTrace(final String name) {
+      this.name = name;
+    }
+  }
+
+  private static final class FieldTrace {
+    private final String       name;
+    private final List<String> types = new ArrayList<>();
+
+    FieldTrace(final String name) {
+      this.name = name;
+      types.add(getTypeName(null));
+    }
+  }
+
+  private static Map<SClass, ClassTrace> classes;
+
+  private LayoutTrace() {}
+
+  private static ClassTrace getTrace(final SClass clazz) {
+    if (classes == null) {
+      classes = new LinkedHashMap<>();
+    }
+    return classes.computeIfAbsent(clazz, c -> new ClassTrace(getClassName(c)));
+  }
+
+  @TruffleBoundary
+  public static synchronized void recordInvalidation(final SClass clazz) {
+    getTrace(clazz).invalidations += 1;
+  }
+
+  @TruffleBoundary
+  public static synchronized void recordObjectUpdate(final SClass clazz) {
+    getTrace(clazz).objectUpdates += 1;
+  }
+
+  @TruffleBoundary
+  public static synchronized void recordFieldTransition(final SClass clazz,
+      final int fieldIndex, final Class<?> newType) {
+    ClassTrace trace = getTrace(clazz);
+    trace.fieldTransitions += 1;
+
+    FieldTrace field = trace.fields.computeIfAbsent(fieldIndex,
+        i -> new FieldTrace(getFieldName(clazz, i)));
+    field.types.add(getTypeName(newType));
+  }
+
+  private static String getClassName(final SClass clazz) {
+    if (clazz == null || clazz.getName() == null) {
+      return "unknown";
+    }
+    return clazz.getName().getString();
+  }
+
+  private static String getFieldName(final SClass clazz, final int fieldIndex) {
+    if (clazz == null || clazz.getInstanceFields() == null
+        || fieldIndex >= clazz.getNumberOfInstanceFields()) {
+      return "field" + fieldIndex;
+    }
+    return clazz.getInstanceFieldName(fieldIndex).getString();
+  }
+
+  private static String getTypeName(final Class<?> type) {
+    if (type == null) {
+      return "unwritten";
+    }
+    if (type == Nil.class) {
+      return "nil";
+    }
+    return type.getSimpleName();
+  }
+
+  public static synchronized String createReport() {
+    StringBuilder builder = new StringBuilder();
+    if (classes == null) {
+      builder.append("# no layout transitions\n");
+      return builder.toString();
+    }
+
+    List<ClassTrace> traces = new ArrayList<>(classes.values());
+    traces.sort((a, b) -> {
+      int c = Long.compare(b.invalidations, a.invalidations);
+      if (c != 0) {
+        return c;
+      }
+      return Long.compare(b.objectUpdates, a.objectUpdates);
+    });
+
+    builder.append("classes:\n");
+    for (ClassTrace t : traces) {
+      builder.append("  - class: ");
+      builder.append(t.name);
+      builder.append("\n    invalidations: ");
+      builder.append(t.invalidations);
+      builder.append("\n    field-transitions: ");
+      builder.append(t.fieldTransitions);
+      builder.append("\n    object-updates: ");
+      builder.append(t.objectUpdates);
+      builder.append('\n');
+
+      if (!t.fields.isEmpty()) {
+        builder.append("    fields:\n");
+        for (FieldTrace f : t.fields.values()) {
+          builder.append("      - field: ");
+          builder.append(f.name);
+          builder.append("\n        types: [");
+          builder.append(String.join(", ", f.types));
+          builder.append("]\n");
+        }
+      }
+    }
+    return builder.toString();
+  }
+
+  public static void writeReport(final String file) {
+    ReportWriter.write(file, createReport(), "layout trace");
+  }
+
+  public static synchronized void reset() {
+    classes = null;
+  }
+}
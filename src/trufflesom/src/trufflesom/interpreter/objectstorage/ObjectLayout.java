@@ -5,7 +5,8 @@ import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 
-import trufflesom.interpreter.objectstorage.StorageLocation.UnwrittenStorageLocation;
+import trufflesom.vm.VmSettings;
+import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SClass;
 import trufflesom.vmobjects.SObject;
 
@@ -14,6 +15,9 @@ public final class ObjectLayout {
   private final SClass     forClass;
   private final Assumption latestLayoutForClass;
 
+  /** Number of primitive and object fields stored directly in the instances. */
+  private final int numberOfInlineFields;
+
   private final int primitiveStorageLocationsUsed;
   private final int objectStorageLocationsUsed;
   private final int totalNumberOfStorageLocations;
@@ -22,13 +26,16 @@ public final class ObjectLayout {
   private final Class<?>[]        storageTypes;
 
   public ObjectLayout(final int numberOfFields, final SClass forClass) {
-    this(new Class<?>[numberOfFields], forClass);
+    this(new Class<?>[numberOfFields], forClass,
+        determineNumberOfInlineFields(numberOfFields, forClass));
   }
 
-  public ObjectLayout(final Class<?>[] knownFieldTypes, final SClass forClass) {
+  private ObjectLayout(final Class<?>[] knownFieldTypes, final SClass forClass,
+      final int numberOfInlineFields) {
     CompilerAsserts.neverPartOfCompilation("Layouts should not be created in compiled code");
 
     this.forClass = forClass;
+    this.numberOfInlineFields = numberOfInlineFields;
     this.latestLayoutForClass = Truffle.getRuntime().createAssumption();
 
     storageTypes = knownFieldTypes;
@@ -43,17 +50,22 @@ public final class ObjectLayout {
 
       StorageLocation storage;
       if (type == Long.class) {
-        storage = StorageLocation.createForLong(i, nextFreePrimIdx);
+        storage = StorageLocation.createForLong(i, nextFreePrimIdx, numberOfInlineFields);
         nextFreePrimIdx++;
       } else if (type == Double.class) {
-        storage = StorageLocation.createForDouble(i, nextFreePrimIdx);
+        storage = StorageLocation.createForDouble(i, nextFreePrimIdx, numberOfInlineFields);
+        nextFreePrimIdx++;
+      } else if (type == Boolean.class) {
+        storage = StorageLocation.createForBoolean(i, nextFreePrimIdx, numberOfInlineFields);
         nextFreePrimIdx++;
       } else if (type == Object.class) {
-        storage = StorageLocation.createForObject(nextFreeObjIdx);
+        storage = StorageLocation.createForObject(nextFreeObjIdx, numberOfInlineFields);
         nextFreeObjIdx++;
+      } else if (type == Nil.class) {
+        storage = StorageLocation.createForNil(i);
       } else {
         assert type == null;
-        storage = new UnwrittenStorageLocation(i);
+        storage = StorageLocation.createUnwritten(i);
       }
 
       storageLocations[i] = storage;
@@ -63,6 +75,32 @@ public final class ObjectLayout {
     objectStorageLocationsUsed = nextFreeObjIdx;
   }
 
+  /**
+   * Instances of metaclasses are {@link SClass} objects, which have only the inline fields
+   * of {@link SObject}. All other objects are created with the subclass of {@link SObject}
+   * that fits the number of fields.
+   */
+  private static int determineNumberOfInlineFields(final int numberOfFields,
+      final SClass forClass) {
+    if (numberOfFields <= SObject.NUM_OBJECT_FIELDS || forClass == null
+        || forClass.hasClassesAsInstances()) {
+      return SObject.NUM_OBJECT_FIELDS;
+    }
+    return StorageAnalyzer.getNumberOfInlineFields(numberOfFields);
+  }
+
+  /**
+   * Create the layout for a changed number of fields of the same class. It keeps the number
+   * of inline fields, because instances may already exist, whose Java class provides it.
+   */
+  public ObjectLayout withNumberOfFields(final int numberOfFields) {
+    return new ObjectLayout(new Class<?>[numberOfFields], forClass, numberOfInlineFields);
+  }
+
+  public int getNumberOfInlineFields() {
+    return numberOfInlineFields;
+  }
+
   public boolean isValid() {
     return latestLayoutForClass.isValid();
   }
@@ -93,6 +131,9 @@ public final class ObjectLayout {
   }
 
   public void invalidate() {
+    if (VmSettings.LayoutTraceFile != null && latestLayoutForClass.isValid()) {
+      LayoutTrace.recordInvalidation(forClass);
+    }
     latestLayoutForClass.invalidate();
   }
 
@@ -104,14 +145,22 @@ public final class ObjectLayout {
       Class<?>[] withGeneralizedField = storageTypes.clone();
       withGeneralizedField[fieldIndex] = Object.class;
 
-      latestLayoutForClass.invalidate();
-      return new ObjectLayout(withGeneralizedField, forClass);
+      if (VmSettings.LayoutTraceFile != null) {
+        LayoutTrace.recordFieldTransition(forClass, fieldIndex, Object.class);
+      }
+      invalidate();
+      return new ObjectLayout(withGeneralizedField, forClass, numberOfInlineFields);
     }
   }
 
+  /**
+   * @param type of the value written to the field, {@code Nil.class} for {@code nil}, which
+   *          is stored without using a storage location until another value is written
+   */
   public ObjectLayout withInitializedField(final long fieldIndex, final Class<?> type) {
     Class<?> specType;
-    if (type == Long.class || type == Double.class) {
+    if (type == Long.class || type == Double.class || type == Boolean.class
+        || type == Nil.class) {
       specType = type;
     } else {
       specType = Object.class;
@@ -120,15 +169,21 @@ public final class ObjectLayout {
   }
 
   private ObjectLayout withInitializedField(final int fieldIndex, final Class<?> type) {
-    if (storageTypes[fieldIndex] == type) {
+    Class<?> currentType = storageTypes[fieldIndex];
+    if (currentType == type) {
       return this;
+    } else if (currentType != null && currentType != Nil.class) {
+      // another instance initialized the field already with a value of a different type
+      return withGeneralizedField(fieldIndex);
     } else {
-      assert storageTypes[fieldIndex] == null;
       Class<?>[] withInitializedField = storageTypes.clone();
       withInitializedField[fieldIndex] = type;
 
-      latestLayoutForClass.invalidate();
-      return new ObjectLayout(withInitializedField, forClass);
+      if (VmSettings.LayoutTraceFile != null) {
+        LayoutTrace.recordFieldTransition(forClass, fieldIndex, type);
+      }
+      invalidate();
+      return new ObjectLayout(withInitializedField, forClass, numberOfInlineFields);
     }
   }
 
@@ -141,7 +196,7 @@ public final class ObjectLayout {
   }
 
   public int getNumberOfUsedExtendedObjectStorageLocations() {
-    int requiredExtensionFields = objectStorageLocationsUsed - SObject.NUM_OBJECT_FIELDS;
+    int requiredExtensionFields = objectStorageLocationsUsed - numberOfInlineFields;
     if (requiredExtensionFields < 0) {
       return 0;
     }
@@ -149,7 +204,7 @@ public final class ObjectLayout {
   }
 
   public int getNumberOfUsedExtendedPrimStorageLocations() {
-    int requiredExtensionFields = primitiveStorageLocationsUsed - SObject.NUM_PRIMITIVE_FIELDS;
+    int requiredExtensionFields = primitiveStorageLocationsUsed - numberOfInlineFields;
     if (requiredExtensionFields < 0) {
       return 0;
     }
@@ -7,39 +7,58 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 import sun.misc.Unsafe;
 import trufflesom.vmobjects.SObject;
+import trufflesom.vmobjects.SObject10;
+import trufflesom.vmobjects.SObject16;
 
 
 public class StorageAnalyzer {
   private static final Unsafe unsafe = UnsafeUtil.load();
 
-  private static final long SMO_PRIM_FIELD_1_OFFSET = getFieldOffset("primField1");
-  private static final long SMO_PRIM_FIELD_2_OFFSET = getFieldOffset("primField2");
-  private static final long SMO_PRIM_FIELD_3_OFFSET = getFieldOffset("primField3");
-  private static final long SMO_PRIM_FIELD_4_OFFSET = getFieldOffset("primField4");
-  private static final long SMO_PRIM_FIELD_5_OFFSET = getFieldOffset("primField5");
-  private static final long SMO_FIELD_1_OFFSET      = getFieldOffset("field1");
-  private static final long SMO_FIELD_2_OFFSET      = getFieldOffset("field2");
-  private static final long SMO_FIELD_3_OFFSET      = getFieldOffset("field3");
-  private static final long SMO_FIELD_4_OFFSET      = getFieldOffset("field4");
-  private static final long SMO_FIELD_5_OFFSET      = getFieldOffset("field5");
-
   @CompilationFinal(
       dimensions = 1) private static final DirectObjectAccessor[]                  objAccessors  =
-          new DirectObjectAccessor[SObject.NUM_OBJECT_FIELDS];
+          new DirectObjectAccessor[SObject16.NUM_OBJECT_FIELDS];
   @CompilationFinal(
       dimensions = 1) private static final DirectPrimitiveAccessor[]               primAccessors =
-          new DirectPrimitiveAccessor[SObject.NUM_PRIMITIVE_FIELDS];
+          new DirectPrimitiveAccessor[SObject16.NUM_PRIMITIVE_FIELDS];
 
   @SuppressWarnings("deprecation")
-  private static long getFieldOffset(final String fieldName) {
+  private static long getFieldOffset(final Class<?> declaringClass, final String fieldName) {
     try {
-      Field field = SObject.class.getDeclaredField(fieldName);
+      Field field = declaringClass.getDeclaredField(fieldName);
       return unsafe.objectFieldOffset(field);
     } catch (NoSuchFieldException | SecurityException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * The inline fields are declared in a hierarchy of classes, each adding fields to the
+   * ones of its superclass. Thus, the offset of a field is the same in all subclasses.
+   */
+  private static Class<?> getDeclaringClass(final int inlineFieldIndex) {
+    if (inlineFieldIndex < SObject.NUM_OBJECT_FIELDS) {
+      return SObject.class;
+    }
+    if (inlineFieldIndex < SObject10.NUM_OBJECT_FIELDS) {
+      return SObject10.class;
+    }
+    return SObject16.class;
+  }
+
+  /**
+   * Determine the number of inline fields of the objects for a class with the given number
+   * of fields, choosing the smallest of SObject, SObject10, and SObject16 that fits.
+   */
+  public static int getNumberOfInlineFields(final int numberOfFields) {
+    if (numberOfFields <= SObject.NUM_OBJECT_FIELDS) {
+      return SObject.NUM_OBJECT_FIELDS;
+    }
+    if (numberOfFields <= SObject10.NUM_OBJECT_FIELDS) {
+      return SObject10.NUM_OBJECT_FIELDS;
+    }
+    return SObject16.NUM_OBJECT_FIELDS;
+  }
+
   /**
    * Initialize field accessors with the offsets in the S*Object classes.
    */
@@ -54,19 +73,17 @@ public class StorageAnalyzer {
   }
 
   private static void initObjectAccessors() {
-    objAccessors[0] = new DirectObjectAccessor(SMO_FIELD_1_OFFSET);
-    objAccessors[1] = new DirectObjectAccessor(SMO_FIELD_2_OFFSET);
-    objAccessors[2] = new DirectObjectAccessor(SMO_FIELD_3_OFFSET);
-    objAccessors[3] = new DirectObjectAccessor(SMO_FIELD_4_OFFSET);
-    objAccessors[4] = new DirectObjectAccessor(SMO_FIELD_5_OFFSET);
+    for (int i = 0; i < objAccessors.length; i += 1) {
+      objAccessors[i] = new DirectObjectAccessor(
+          getFieldOffset(getDeclaringClass(i), "field" + (i + 1)));
+    }
   }
 
   private static void initPrimitiveAccessors() {
-    primAccessors[0] = new DirectPrimitiveAccessor(SMO_PRIM_FIELD_1_OFFSET);
-    primAccessors[1] = new DirectPrimitiveAccessor(SMO_PRIM_FIELD_2_OFFSET);
-    primAccessors[2] = new DirectPrimitiveAccessor(SMO_PRIM_FIELD_3_OFFSET);
-    primAccessors[3] = new DirectPrimitiveAccessor(SMO_PRIM_FIELD_4_OFFSET);
-    primAccessors[4] = new DirectPrimitiveAccessor(SMO_PRIM_FIELD_5_OFFSET);
+    for (int i = 0; i < primAccessors.length; i += 1) {
+      primAccessors[i] = new DirectPrimitiveAccessor(
+          getFieldOffset(getDeclaringClass(i), "primField" + (i + 1)));
+    }
   }
 
   public static final class DirectObjectAccessor {
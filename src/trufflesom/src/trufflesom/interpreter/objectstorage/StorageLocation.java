@@ -1,6 +1,9 @@
 package trufflesom.interpreter.objectstorage;
 
 import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -9,12 +12,15 @@ import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import sun.misc.Unsafe;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractReadFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractWriteFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.ReadBooleanFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.ReadDoubleFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.ReadLongFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.ReadObjectFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.ReadUnwrittenFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.WriteBooleanFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.WriteDoubleFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.WriteLongFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.WriteNilFieldNode;
 import trufflesom.interpreter.objectstorage.FieldAccessorNode.WriteObjectFieldNode;
 import trufflesom.vm.Universe;
 import trufflesom.vm.constants.Nil;
@@ -29,6 +35,23 @@ public abstract class StorageLocation {
     return unsafe.objectFieldOffset(field);
   }
 
+  /**
+   * Increments a field by reading and writing it as object. This is used when the field is
+   * unset, i.e., nil, or when the result is {@link SObject#UNSET_PRIMITIVE}, which cannot be
+   * stored in a primitive location.
+   */
+  protected static long incrementAndGeneralize(final SObject obj, final long fieldIndex) {
+    CompilerAsserts.neverPartOfCompilation("incrementAndGeneralize");
+    Object val = obj.getField(fieldIndex);
+    if (!(val instanceof Long)) {
+      throw new NotYetImplementedException();
+    }
+
+    long result = Math.addExact((Long) val, 1);
+    obj.setField(fieldIndex, result);
+    return result;
+  }
+
   public interface LongStorageLocation {
     long readLong(SObject obj) throws UnexpectedResultException;
 
@@ -43,32 +66,98 @@ public abstract class StorageLocation {
     void writeDouble(SObject obj, double value);
   }
 
+  public interface BooleanStorageLocation {
+    boolean readBoolean(SObject obj) throws UnexpectedResultException;
+
+    void writeBoolean(SObject obj, boolean value);
+  }
+
+  /**
+   * Storage locations are shared between all layouts that store a field in the same way.
+   * Since the fields of a subclass start with the fields of its superclass, the layouts of
+   * subclasses use the same locations for inherited fields that have the same types, and
+   * field access nodes can use the location to check whether they apply to an object.
+   */
+  private enum Kind {
+    UNWRITTEN, NIL, LONG, LONG_ARRAY, DOUBLE, DOUBLE_ARRAY, BOOLEAN, BOOLEAN_ARRAY, OBJECT,
+    OBJECT_ARRAY
+  }
+
+  /** Identifies a shared location by its kind and the indexes it was created with. */
+  private record Key(Kind kind, long fieldIndex, int storageIndex, int numberOfInlineFields) {}
+
+  private static final Map<Key, StorageLocation> sharedLocations = new HashMap<>();
+
+  private static synchronized StorageLocation share(final Kind kind, final long fieldIndex,
+      final int storageIndex, final int numberOfInlineFields,
+      final Supplier<StorageLocation> factory) {
+    return sharedLocations.computeIfAbsent(
+        new Key(kind, fieldIndex, storageIndex, numberOfInlineFields), k -> factory.get());
+  }
+
+  /** Drop the shared locations, so that they do not outlive the context that used them. */
+  public static synchronized void resetSharedLocations() {
+    sharedLocations.clear();
+  }
+
+  public static StorageLocation createUnwritten(final long fieldIndex) {
+    CompilerAsserts.neverPartOfCompilation("StorageLocation");
+    return share(Kind.UNWRITTEN, fieldIndex, 0, 0,
+        () -> new UnwrittenStorageLocation(fieldIndex));
+  }
+
+  public static StorageLocation createForNil(final long fieldIndex) {
+    CompilerAsserts.neverPartOfCompilation("StorageLocation");
+    return share(Kind.NIL, fieldIndex, 0, 0, () -> new NilStorageLocation(fieldIndex));
+  }
+
   public static StorageLocation createForLong(final long fieldIndex,
-      final int primFieldIndex) {
+      final int primFieldIndex, final int numberOfInlineFields) {
     CompilerAsserts.neverPartOfCompilation("StorageLocation");
-    if (primFieldIndex < SObject.NUM_PRIMITIVE_FIELDS) {
-      return new LongDirectStoreLocation(fieldIndex, primFieldIndex);
+    if (primFieldIndex < numberOfInlineFields) {
+      return share(Kind.LONG, fieldIndex, primFieldIndex, 0,
+          () -> new LongDirectStoreLocation(fieldIndex, primFieldIndex));
     } else {
-      return new LongArrayStoreLocation(fieldIndex, primFieldIndex);
+      return share(Kind.LONG_ARRAY, fieldIndex, primFieldIndex, numberOfInlineFields,
+          () -> new LongArrayStoreLocation(fieldIndex, primFieldIndex, numberOfInlineFields));
     }
   }
 
   public static StorageLocation createForDouble(final long fieldIndex,
-      final int primFieldIndex) {
+      final int primFieldIndex, final int numberOfInlineFields) {
     CompilerAsserts.neverPartOfCompilation("StorageLocation");
-    if (primFieldIndex < SObject.NUM_PRIMITIVE_FIELDS) {
-      return new DoubleDirectStoreLocation(fieldIndex, primFieldIndex);
+    if (primFieldIndex < numberOfInlineFields) {
+      return share(Kind.DOUBLE, fieldIndex, primFieldIndex, 0,
+          () -> new DoubleDirectStoreLocation(fieldIndex, primFieldIndex));
     } else {
-      return new DoubleArrayStoreLocation(fieldIndex, primFieldIndex);
+      return share(Kind.DOUBLE_ARRAY, fieldIndex, primFieldIndex, numberOfInlineFields,
+          () -> new DoubleArrayStoreLocation(fieldIndex, primFieldIndex,
+              numberOfInlineFields));
     }
   }
 
-  public static StorageLocation createForObject(final int objFieldIndex) {
+  public static StorageLocation createForBoolean(final long fieldIndex,
+      final int primFieldIndex, final int numberOfInlineFields) {
     CompilerAsserts.neverPartOfCompilation("StorageLocation");
-    if (objFieldIndex < SObject.NUM_PRIMITIVE_FIELDS) {
-      return new ObjectDirectStorageLocation(objFieldIndex);
+    if (primFieldIndex < numberOfInlineFields) {
+      return share(Kind.BOOLEAN, fieldIndex, primFieldIndex, 0,
+          () -> new BooleanDirectStoreLocation(fieldIndex, primFieldIndex));
     } else {
-      return new ObjectArrayStorageLocation(objFieldIndex);
+      return share(Kind.BOOLEAN_ARRAY, fieldIndex, primFieldIndex, numberOfInlineFields,
+          () -> new BooleanArrayStoreLocation(fieldIndex, primFieldIndex,
+              numberOfInlineFields));
+    }
+  }
+
+  public static StorageLocation createForObject(final int objFieldIndex,
+      final int numberOfInlineFields) {
+    CompilerAsserts.neverPartOfCompilation("StorageLocation");
+    if (objFieldIndex < numberOfInlineFields) {
+      return share(Kind.OBJECT, objFieldIndex, objFieldIndex, 0,
+          () -> new ObjectDirectStorageLocation(objFieldIndex));
+    } else {
+      return share(Kind.OBJECT_ARRAY, objFieldIndex, objFieldIndex, numberOfInlineFields,
+          () -> new ObjectArrayStorageLocation(objFieldIndex, numberOfInlineFields));
     }
   }
 
@@ -80,6 +169,9 @@ public abstract class StorageLocation {
 
   public abstract boolean isSet(SObject obj);
 
+  /** Reset the field of the given object to the state before it was written. */
+  public void clear(final SObject obj) {}
+
   public abstract Object read(SObject obj);
 
   public abstract void write(SObject obj, Object value);
@@ -133,6 +225,55 @@ public abstract class StorageLocation {
     }
   }
 
+  /**
+   * A field that was so far only assigned {@code nil}. It does not use any storage, and is
+   * specialized to the type of the first other value written to it.
+   */
+  protected static final class NilStorageLocation extends StorageLocation {
+
+    public NilStorageLocation(final long index) {
+      super(index);
+    }
+
+    @Override
+    public boolean isSet(final SObject obj) {
+      return false;
+    }
+
+    @Override
+    public Object read(final SObject obj) {
+      return Nil.nilObject;
+    }
+
+    @Override
+    public void write(final SObject obj, final Object value) {
+      assert value != null;
+      if (value != Nil.nilObject) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        obj.setUninitializedField(fieldIndex, value);
+      }
+    }
+
+    @Override
+    public AbstractReadFieldNode getReadNode(final int idx,
+        final ObjectLayout layout, final AbstractReadFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new ReadUnwrittenFieldNode(idx, layout, next);
+    }
+
+    @Override
+    public AbstractWriteFieldNode getWriteNode(final int idx,
+        final ObjectLayout layout, final AbstractWriteFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new WriteNilFieldNode(idx, layout, next);
+    }
+
+    @Override
+    public void debugPrint(final SObject obj) {
+      Universe.println("NilStorageLocation: fieldIdx=" + this.fieldIndex);
+    }
+  }
+
   public abstract static class AbstractObjectStorageLocation extends StorageLocation {
 
     public AbstractObjectStorageLocation(final int fieldIndex) {
@@ -142,6 +283,11 @@ public abstract class StorageLocation {
     @Override
     public abstract void write(SObject obj, Object value);
 
+    @Override
+    public final void clear(final SObject obj) {
+      write(obj, Nil.nilObject);
+    }
+
     @Override
     public final AbstractReadFieldNode getReadNode(final int idx,
         final ObjectLayout layout, final AbstractReadFieldNode next) {
@@ -194,9 +340,9 @@ public abstract class StorageLocation {
       extends AbstractObjectStorageLocation {
     private final int extensionIndex;
 
-    public ObjectArrayStorageLocation(final int fieldIndex) {
+    public ObjectArrayStorageLocation(final int fieldIndex, final int numberOfInlineFields) {
       super(fieldIndex);
-      extensionIndex = fieldIndex - SObject.NUM_OBJECT_FIELDS;
+      extensionIndex = fieldIndex - numberOfInlineFields;
     }
 
     @Override
@@ -225,31 +371,26 @@ public abstract class StorageLocation {
     }
   }
 
-  protected abstract static class PrimitiveStorageLocation extends StorageLocation {
-    protected final int mask;
+  /**
+   * Primitive fields that were not written yet contain {@link SObject#UNSET_PRIMITIVE}.
+   * Writing this bit pattern as a value generalizes the field to object storage.
+   */
+  protected abstract static class PrimitiveDirectStoreLocation extends StorageLocation {
+    protected final long fieldMemoryOffset;
 
-    protected PrimitiveStorageLocation(final long fieldIndex, final int primField) {
+    protected PrimitiveDirectStoreLocation(final long fieldIndex, final int primField) {
       super(fieldIndex);
-      mask = SObject.getPrimitiveFieldMask(primField);
+      this.fieldMemoryOffset = StorageAnalyzer.getPrimitiveFieldOffset(primField);
     }
 
     @Override
     public final boolean isSet(final SObject obj) {
-      return obj.isPrimitiveSet(mask);
-    }
-
-    protected final void markAsSet(final SObject obj) {
-      obj.markPrimAsSet(mask);
+      return unsafe.getLong(obj, fieldMemoryOffset) != SObject.UNSET_PRIMITIVE;
     }
-  }
-
-  protected abstract static class PrimitiveDirectStoreLocation
-      extends PrimitiveStorageLocation {
-    protected final long fieldMemoryOffset;
 
-    protected PrimitiveDirectStoreLocation(final long fieldIndex, final int primField) {
-      super(fieldIndex, primField);
-      this.fieldMemoryOffset = StorageAnalyzer.getPrimitiveFieldOffset(primField);
+    @Override
+    public final void clear(final SObject obj) {
+      unsafe.putLong(obj, fieldMemoryOffset, SObject.UNSET_PRIMITIVE);
     }
   }
 
@@ -270,8 +411,9 @@ public abstract class StorageLocation {
 
     @Override
     public double readDouble(final SObject obj) throws UnexpectedResultException {
-      if (isSet(obj)) {
-        return unsafe.getDouble(obj, fieldMemoryOffset);
+      long bits = unsafe.getLong(obj, fieldMemoryOffset);
+      if (bits != SObject.UNSET_PRIMITIVE) {
+        return Double.longBitsToDouble(bits);
       } else {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         throw new UnexpectedResultException(Nil.nilObject);
@@ -292,8 +434,12 @@ public abstract class StorageLocation {
 
     @Override
     public void writeDouble(final SObject obj, final double value) {
+      if (Double.doubleToRawLongBits(value) == SObject.UNSET_PRIMITIVE) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        obj.setFieldAndGeneralize(fieldIndex, value);
+        return;
+      }
       unsafe.putDouble(obj, fieldMemoryOffset, value);
-      markAsSet(obj);
     }
 
     @Override
@@ -313,7 +459,7 @@ public abstract class StorageLocation {
     @Override
     public void debugPrint(final SObject obj) {
       Universe.println("DoubleDirectStorageLocation: fieldIdx=" + this.fieldIndex
-          + " primMask=" + mask + " fieldOffset=" + fieldMemoryOffset);
+          + " fieldOffset=" + fieldMemoryOffset);
     }
   }
 
@@ -335,8 +481,9 @@ public abstract class StorageLocation {
 
     @Override
     public long readLong(final SObject obj) throws UnexpectedResultException {
-      if (isSet(obj)) {
-        return unsafe.getLong(obj, fieldMemoryOffset);
+      long value = unsafe.getLong(obj, fieldMemoryOffset);
+      if (value != SObject.UNSET_PRIMITIVE) {
+        return value;
       } else {
         CompilerDirectives.transferToInterpreter();
         throw new UnexpectedResultException(Nil.nilObject);
@@ -347,6 +494,10 @@ public abstract class StorageLocation {
     public long increment(final SObject obj) {
       long val = unsafe.getLong(obj, fieldMemoryOffset);
       long result = Math.addExact(val, 1);
+      if (val == SObject.UNSET_PRIMITIVE || result == SObject.UNSET_PRIMITIVE) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        return incrementAndGeneralize(obj, fieldIndex);
+      }
       unsafe.putLong(obj, fieldMemoryOffset, result);
       return result;
     }
@@ -364,8 +515,12 @@ public abstract class StorageLocation {
 
     @Override
     public void writeLong(final SObject obj, final long value) {
+      if (value == SObject.UNSET_PRIMITIVE) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        obj.setFieldAndGeneralize(fieldIndex, value);
+        return;
+      }
       unsafe.putLong(obj, fieldMemoryOffset, value);
-      markAsSet(obj);
     }
 
     @Override
@@ -385,24 +540,100 @@ public abstract class StorageLocation {
     @Override
     public void debugPrint(final SObject obj) {
       Universe.println("LongDirectStorageLocation: fieldIdx=" + this.fieldIndex
-          + " primMask=" + mask + " fieldOffset=" + fieldMemoryOffset);
+          + " fieldOffset=" + fieldMemoryOffset);
     }
   }
 
-  public abstract static class PrimitiveArrayStoreLocation extends PrimitiveStorageLocation {
-    protected final int extensionIndex;
+  protected static final class BooleanDirectStoreLocation
+      extends PrimitiveDirectStoreLocation implements BooleanStorageLocation {
 
-    public PrimitiveArrayStoreLocation(final long fieldIndex, final int primField) {
+    public BooleanDirectStoreLocation(final long fieldIndex, final int primField) {
       super(fieldIndex, primField);
-      extensionIndex = primField - SObject.NUM_PRIMITIVE_FIELDS;
+    }
+
+    @Override
+    public Object read(final SObject obj) {
+      try {
+        return readBoolean(obj);
+      } catch (UnexpectedResultException e) {
+        return e.getResult();
+      }
+    }
+
+    @Override
+    public boolean readBoolean(final SObject obj) throws UnexpectedResultException {
+      long value = unsafe.getLong(obj, fieldMemoryOffset);
+      if (value != SObject.UNSET_PRIMITIVE) {
+        return value != 0;
+      } else {
+        CompilerDirectives.transferToInterpreter();
+        throw new UnexpectedResultException(Nil.nilObject);
+      }
+    }
+
+    @Override
+    public void write(final SObject obj, final Object value) {
+      assert value != null;
+      if (value instanceof Boolean) {
+        writeBoolean(obj, (boolean) value);
+      } else {
+        CompilerDirectives.transferToInterpreter();
+        obj.setFieldAndGeneralize(fieldIndex, value);
+      }
+    }
+
+    @Override
+    public void writeBoolean(final SObject obj, final boolean value) {
+      unsafe.putLong(obj, fieldMemoryOffset, value ? 1 : 0);
+    }
+
+    @Override
+    public AbstractReadFieldNode getReadNode(final int idx,
+        final ObjectLayout layout, final AbstractReadFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new ReadBooleanFieldNode(idx, layout, next);
+    }
+
+    @Override
+    public AbstractWriteFieldNode getWriteNode(final int idx,
+        final ObjectLayout layout, final AbstractWriteFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new WriteBooleanFieldNode(idx, layout, next);
+    }
+
+    @Override
+    public void debugPrint(final SObject obj) {
+      Universe.println("BooleanDirectStorageLocation: fieldIdx=" + this.fieldIndex
+          + " fieldOffset=" + fieldMemoryOffset);
+    }
+  }
+
+  public abstract static class PrimitiveArrayStoreLocation extends StorageLocation {
+    protected final int extensionIndex;
+
+    public PrimitiveArrayStoreLocation(final long fieldIndex, final int primField,
+        final int numberOfInlineFields) {
+      super(fieldIndex);
+      extensionIndex = primField - numberOfInlineFields;
       assert extensionIndex >= 0;
     }
+
+    @Override
+    public final boolean isSet(final SObject obj) {
+      return obj.getExtendedPrimFields()[extensionIndex] != SObject.UNSET_PRIMITIVE;
+    }
+
+    @Override
+    public final void clear(final SObject obj) {
+      obj.getExtendedPrimFields()[extensionIndex] = SObject.UNSET_PRIMITIVE;
+    }
   }
 
   public static final class LongArrayStoreLocation extends PrimitiveArrayStoreLocation
       implements LongStorageLocation {
-    public LongArrayStoreLocation(final long fieldIndex, final int primField) {
-      super(fieldIndex, primField);
+    public LongArrayStoreLocation(final long fieldIndex, final int primField,
+        final int numberOfInlineFields) {
+      super(fieldIndex, primField, numberOfInlineFields);
     }
 
     @Override
@@ -416,9 +647,9 @@ public abstract class StorageLocation {
 
     @Override
     public long readLong(final SObject obj) throws UnexpectedResultException {
-      if (isSet(obj)) {
-        // perhaps we should use the unsafe operations as for doubles
-        return obj.getExtendedPrimFields()[extensionIndex];
+      long value = obj.getExtendedPrimFields()[extensionIndex];
+      if (value != SObject.UNSET_PRIMITIVE) {
+        return value;
       } else {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         throw new UnexpectedResultException(Nil.nilObject);
@@ -429,6 +660,10 @@ public abstract class StorageLocation {
     public long increment(final SObject obj) {
       long val = obj.getExtendedPrimFields()[extensionIndex];
       long result = Math.addExact(val, 1);
+      if (val == SObject.UNSET_PRIMITIVE || result == SObject.UNSET_PRIMITIVE) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        return incrementAndGeneralize(obj, fieldIndex);
+      }
       obj.getExtendedPrimFields()[extensionIndex] = result;
       return result;
     }
@@ -447,8 +682,12 @@ public abstract class StorageLocation {
 
     @Override
     public void writeLong(final SObject obj, final long value) {
+      if (value == SObject.UNSET_PRIMITIVE) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        obj.setFieldAndGeneralize(fieldIndex, value);
+        return;
+      }
       obj.getExtendedPrimFields()[extensionIndex] = value;
-      markAsSet(obj);
     }
 
     @Override
@@ -468,14 +707,15 @@ public abstract class StorageLocation {
     @Override
     public void debugPrint(final SObject obj) {
       Universe.println("LongArrayStorageLocation: fieldIdx=" + this.fieldIndex
-          + " primMask=" + mask + " extensionIndex=" + extensionIndex);
+          + " extensionIndex=" + extensionIndex);
     }
   }
 
   public static final class DoubleArrayStoreLocation extends PrimitiveArrayStoreLocation
       implements DoubleStorageLocation {
-    public DoubleArrayStoreLocation(final long fieldIndex, final int primField) {
-      super(fieldIndex, primField);
+    public DoubleArrayStoreLocation(final long fieldIndex, final int primField,
+        final int numberOfInlineFields) {
+      super(fieldIndex, primField, numberOfInlineFields);
     }
 
     @Override
@@ -489,11 +729,9 @@ public abstract class StorageLocation {
 
     @Override
     public double readDouble(final SObject obj) throws UnexpectedResultException {
-      if (isSet(obj)) {
-        long[] arr = obj.getExtendedPrimFields();
-        return unsafe.getDouble(arr,
-            (long) Unsafe.ARRAY_DOUBLE_BASE_OFFSET
-                + Unsafe.ARRAY_DOUBLE_INDEX_SCALE * extensionIndex);
+      long bits = obj.getExtendedPrimFields()[extensionIndex];
+      if (bits != SObject.UNSET_PRIMITIVE) {
+        return Double.longBitsToDouble(bits);
       } else {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         throw new UnexpectedResultException(Nil.nilObject);
@@ -514,13 +752,13 @@ public abstract class StorageLocation {
 
     @Override
     public void writeDouble(final SObject obj, final double value) {
-      final long[] arr = obj.getExtendedPrimFields();
-      unsafe.putDouble(arr,
-          (long) Unsafe.ARRAY_DOUBLE_BASE_OFFSET
-              + Unsafe.ARRAY_DOUBLE_INDEX_SCALE * this.extensionIndex,
-          value);
-
-      markAsSet(obj);
+      long bits = Double.doubleToRawLongBits(value);
+      if (bits == SObject.UNSET_PRIMITIVE) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        obj.setFieldAndGeneralize(fieldIndex, value);
+        return;
+      }
+      obj.getExtendedPrimFields()[extensionIndex] = bits;
     }
 
     @Override
@@ -540,7 +778,71 @@ public abstract class StorageLocation {
     @Override
     public void debugPrint(final SObject obj) {
       Universe.println("DoubleArrayStorageLocation: fieldIdx=" + this.fieldIndex
-          + " primMask=" + mask + " extensionIndex=" + extensionIndex);
+          + " extensionIndex=" + extensionIndex);
+    }
+  }
+
+  public static final class BooleanArrayStoreLocation extends PrimitiveArrayStoreLocation
+      implements BooleanStorageLocation {
+    public BooleanArrayStoreLocation(final long fieldIndex, final int primField,
+        final int numberOfInlineFields) {
+      super(fieldIndex, primField, numberOfInlineFields);
+    }
+
+    @Override
+    public Object read(final SObject obj) {
+      try {
+        return readBoolean(obj);
+      } catch (UnexpectedResultException e) {
+        return e.getResult();
+      }
+    }
+
+    @Override
+    public boolean readBoolean(final SObject obj) throws UnexpectedResultException {
+      long value = obj.getExtendedPrimFields()[extensionIndex];
+      if (value != SObject.UNSET_PRIMITIVE) {
+        return value != 0;
+      } else {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw new UnexpectedResultException(Nil.nilObject);
+      }
+    }
+
+    @Override
+    public void write(final SObject obj, final Object value) {
+      assert value != null;
+      if (value instanceof Boolean) {
+        writeBoolean(obj, (boolean) value);
+      } else {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        obj.setFieldAndGeneralize(fieldIndex, value);
+      }
+    }
+
+    @Override
+    public void writeBoolean(final SObject obj, final boolean value) {
+      obj.getExtendedPrimFields()[extensionIndex] = value ? 1 : 0;
+    }
+
+    @Override
+    public AbstractReadFieldNode getReadNode(final int idx,
+        final ObjectLayout layout, final AbstractReadFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new ReadBooleanFieldNode(idx, layout, next);
+    }
+
+    @Override
+    public AbstractWriteFieldNode getWriteNode(final int idx,
+        final ObjectLayout layout, final AbstractWriteFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new WriteBooleanFieldNode(idx, layout, next);
+    }
+
+    @Override
+    public void debugPrint(final SObject obj) {
+      Universe.println("BooleanArrayStorageLocation: fieldIdx=" + this.fieldIndex
+          + " extensionIndex=" + extensionIndex);
     }
   }
 
@@ -48,6 +48,7 @@ import trufflesom.interpreter.nodes.ArgumentReadNode.LocalArgumentReadNode;
 import trufflesom.interpreter.nodes.ExpressionNode;
 import trufflesom.interpreter.nodes.specialized.AndBoolMessageNodeFactory;
 import trufflesom.interpreter.nodes.specialized.AndMessageNodeFactory;
+import trufflesom.interpreter.nodes.specialized.ArrayDoInlinedLiteralNodeFactory;
 import trufflesom.interpreter.nodes.specialized.BooleanInlinedLiteralNode.AndInlinedLiteralNode;
 import trufflesom.interpreter.nodes.specialized.BooleanInlinedLiteralNode.OrInlinedLiteralNode;
 import trufflesom.interpreter.nodes.specialized.IfInlinedLiteralNode;
@@ -85,13 +86,16 @@ import trufflesom.primitives.arithmetic.RemainderPrimFactory;
 import trufflesom.primitives.arithmetic.SinPrimFactory;
 import trufflesom.primitives.arithmetic.SqrtPrimFactory;
 import trufflesom.primitives.arithmetic.SubtractionPrimFactory;
+import trufflesom.primitives.arrays.AppendPrimFactory;
 import trufflesom.primitives.arrays.AtPrimFactory;
 import trufflesom.primitives.arrays.AtPutPrimFactory;
 import trufflesom.primitives.arrays.CopyPrimFactory;
 import trufflesom.primitives.arrays.DoIndexesPrimFactory;
 import trufflesom.primitives.arrays.DoPrimFactory;
+import trufflesom.primitives.arrays.EnsureCapacityPrimFactory;
 import trufflesom.primitives.arrays.NewPrimFactory;
 import trufflesom.primitives.arrays.PutAllNodeFactory;
+import trufflesom.primitives.arrays.RemoveLastPrimFactory;
 import trufflesom.primitives.basics.AsStringPrimFactory;
 import trufflesom.primitives.basics.BlockPrimsFactory;
 import trufflesom.primitives.basics.DoublePrimsFactory;
@@ -101,6 +105,7 @@ import trufflesom.primitives.basics.HashPrimFactory;
 import trufflesom.primitives.basics.IntegerPrimsFactory;
 import trufflesom.primitives.basics.LengthPrimFactory;
 import trufflesom.primitives.basics.NewObjectPrimFactory;
+import trufflesom.primitives.basics.StringBuilderPrimsFactory;
 import trufflesom.primitives.basics.StringPrimsFactory;
 import trufflesom.primitives.basics.SystemPrimsFactory;
 import trufflesom.primitives.basics.UnequalUnequalPrimFactory;
@@ -244,6 +249,7 @@ public final class Primitives extends PrimitiveLoader<ExpressionNode, SSymbol> {
     addAll(allFactories, DoublePrimsFactory.getFactories());
     addAll(allFactories, IntegerPrimsFactory.getFactories());
     addAll(allFactories, StringPrimsFactory.getFactories());
+    addAll(allFactories, StringBuilderPrimsFactory.getFactories());
     addAll(allFactories, SystemPrimsFactory.getFactories());
     addAll(allFactories, ClassPrimsFactory.getFactories());
     addAll(allFactories, MethodPrimsFactory.getFactories());
@@ -266,13 +272,16 @@ public final class Primitives extends PrimitiveLoader<ExpressionNode, SSymbol> {
     add(allFactories, SqrtPrimFactory.getInstance());
     add(allFactories, SubtractionPrimFactory.getInstance());
 
+    add(allFactories, AppendPrimFactory.getInstance());
     add(allFactories, AtPrimFactory.getInstance());
     add(allFactories, AtPutPrimFactory.getInstance());
     add(allFactories, CopyPrimFactory.getInstance());
     add(allFactories, DoIndexesPrimFactory.getInstance());
     add(allFactories, DoPrimFactory.getInstance());
+    add(allFactories, EnsureCapacityPrimFactory.getInstance());
     add(allFactories, NewPrimFactory.getInstance());
     add(allFactories, PutAllNodeFactory.getInstance());
+    add(allFactories, RemoveLastPrimFactory.getInstance());
 
     add(allFactories, AsStringPrimFactory.getInstance());
     add(allFactories, EqualsEqualsPrimFactory.getInstance());
@@ -329,6 +338,7 @@ public final class Primitives extends PrimitiveLoader<ExpressionNode, SSymbol> {
 
     factories.add(IntToDoInlinedLiteralsNodeFactory.getInstance());
     factories.add(IntDownToDoInlinedLiteralsNodeFactory.getInstance());
+    factories.add(ArrayDoInlinedLiteralNodeFactory.getInstance());
 
     return factories;
   }
@@ -0,0 +1,36 @@
+package trufflesom.primitives.arrays;
+
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import trufflesom.bdt.primitives.Primitive;
+import trufflesom.interpreter.nodes.nary.TernaryMsgExprNode;
+import trufflesom.vm.SymbolTable;
+import trufflesom.vmobjects.SArray;
+import trufflesom.vmobjects.SSymbol;
+
+
+/**
+ * Stores the value at the given index, growing the array first if needed, and answers
+ * the array holding the value, which is either the receiver or its grown copy.
+ */
+@GenerateNodeFactory
+@Primitive(selector = "append:at:", receiverType = SArray.class, inParser = false)
+public abstract class AppendPrim extends TernaryMsgExprNode {
+  @Child private EnsureCapacityPrim ensureCapacity = EnsureCapacityPrimFactory.create(null, null);
+  @Child private AtPutPrim          atPut          = AtPutPrimFactory.create(null, null, null);
+
+  @Override
+  public SSymbol getSelector() {
+    return SymbolTable.symbolFor("append:at:");
+  }
+
+  @Specialization
+  public final SArray doSArray(final VirtualFrame frame, final SArray receiver,
+      final Object value, final long index) {
+    SArray arr = (SArray) ensureCapacity.executeEvaluated(frame, receiver, index);
+    atPut.executeEvaluated(frame, arr, index, value);
+    return arr;
+  }
+}
@@ -2,6 +2,7 @@ package trufflesom.primitives.arrays;
 
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 
 import trufflesom.bdt.primitives.Primitive;
 import trufflesom.interpreter.nodes.nary.BinaryMsgExprNode;
@@ -51,4 +52,60 @@ public abstract class AtPrim extends BinaryMsgExprNode {
   public static final boolean doBooleanSArray(final SArray receiver, final long idx) {
     return receiver.getBooleanStorage()[(int) idx - 1];
   }
+
+  @Specialization(guards = "receiver.isByteType()")
+  public static final long doByteSArray(final SArray receiver, final long idx) {
+    return receiver.getByteStorage()[(int) idx - 1] & 0xFF;
+  }
+
+  @Specialization(guards = "receiver.isIntType()")
+  public static final long doIntSArray(final SArray receiver, final long idx) {
+    return receiver.getIntStorage()[(int) idx - 1];
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledLongType()",
+      rewriteOn = UnexpectedResultException.class)
+  public static final long doPartiallyFilledLongSArray(final SArray receiver, final long idx)
+      throws UnexpectedResultException {
+    return receiver.getPartiallyFilledLongStorage().getLong(idx - 1);
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledDoubleType()",
+      rewriteOn = UnexpectedResultException.class)
+  public static final double doPartiallyFilledDoubleSArray(final SArray receiver,
+      final long idx) throws UnexpectedResultException {
+    return receiver.getPartiallyFilledDoubleStorage().getDouble(idx - 1);
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledType()",
+      replaces = {"doPartiallyFilledLongSArray", "doPartiallyFilledDoubleSArray"})
+  public static final Object doPartiallyFilledSArray(final SArray receiver, final long idx) {
+    return receiver.getPartiallyFilledStorage().get(idx - 1);
+  }
+
+  @Specialization(guards = "receiver.isOffHeapLongType()",
+      rewriteOn = UnexpectedResultException.class)
+  public static final long doOffHeapLongSArray(final SArray receiver, final long idx)
+      throws UnexpectedResultException {
+    return receiver.getOffHeapLongStorage().getLong(idx - 1);
+  }
+
+  @Specialization(guards = "receiver.isOffHeapLongType()", replaces = "doOffHeapLongSArray")
+  public static final Object doOffHeapLongOrNilSArray(final SArray receiver, final long idx) {
+    return receiver.getOffHeapLongStorage().get(idx - 1);
+  }
+
+  @Specialization(guards = "receiver.isOffHeapDoubleType()",
+      rewriteOn = UnexpectedResultException.class)
+  public static final double doOffHeapDoubleSArray(final SArray receiver, final long idx)
+      throws UnexpectedResultException {
+    return receiver.getOffHeapDoubleStorage().getDouble(idx - 1);
+  }
+
+  @Specialization(guards = "receiver.isOffHeapDoubleType()",
+      replaces = "doOffHeapDoubleSArray")
+  public static final Object doOffHeapDoubleOrNilSArray(final SArray receiver,
+      final long idx) {
+    return receiver.getOffHeapDoubleStorage().get(idx - 1);
+  }
 }
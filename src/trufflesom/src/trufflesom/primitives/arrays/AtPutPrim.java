@@ -9,7 +9,10 @@ import trufflesom.bdt.primitives.Primitive;
 import trufflesom.interpreter.nodes.nary.TernaryExpressionNode;
 import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SArray;
+import trufflesom.vmobjects.SArray.OffHeapDoubleArray;
+import trufflesom.vmobjects.SArray.OffHeapLongArray;
 import trufflesom.vmobjects.SArray.PartiallyEmptyArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledArray;
 
 
 @GenerateNodeFactory
@@ -37,6 +40,22 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
     return !(value instanceof Boolean);
   }
 
+  protected static final boolean fitsInByte(final long value) {
+    return SArray.fitsInByte(value);
+  }
+
+  protected static final boolean fitsInInt(final long value) {
+    return SArray.fitsInInt(value);
+  }
+
+  protected static final boolean canStoreOffHeapLong(final long value) {
+    return OffHeapLongArray.canStore(value);
+  }
+
+  protected static final boolean canStoreOffHeapDouble(final double value) {
+    return OffHeapDoubleArray.canStore(value);
+  }
+
   protected static final boolean valueNotLongDoubleBoolean(final Object value) {
     return !(value instanceof Long) &&
         !(value instanceof Double) &&
@@ -157,6 +176,64 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
     return value;
   }
 
+  protected static final boolean canSet(final SArray receiver, final long index) {
+    return receiver.getPartiallyFilledStorage().canSet(index - 1);
+  }
+
+  @Specialization(guards = {"receiver.isPartiallyFilledLongType()", "canSet(receiver, index)"})
+  public static final long doPartiallyFilledLongSArray(final SArray receiver,
+      final long index, final long value) {
+    receiver.getPartiallyFilledLongStorage().set(index - 1, value);
+    receiver.ifFullTransitionPartiallyFilled();
+    return value;
+  }
+
+  @Specialization(
+      guards = {"receiver.isPartiallyFilledDoubleType()", "canSet(receiver, index)"})
+  public static final double doPartiallyFilledDoubleSArray(final SArray receiver,
+      final long index, final double value) {
+    receiver.getPartiallyFilledDoubleStorage().set(index - 1, value);
+    receiver.ifFullTransitionPartiallyFilled();
+    return value;
+  }
+
+  @Specialization(
+      guards = {"receiver.isPartiallyFilledBooleanType()", "canSet(receiver, index)"})
+  public static final boolean doPartiallyFilledBooleanSArray(final SArray receiver,
+      final long index, final boolean value) {
+    receiver.getPartiallyFilledBooleanStorage().set(index - 1, value);
+    receiver.ifFullTransitionPartiallyFilled();
+    return value;
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledType()")
+  public static final Object doPartiallyFilledSArray(final SArray receiver,
+      final long index, final Object value) {
+    PartiallyFilledArray storage = receiver.getPartiallyFilledStorage();
+    if (value == Nil.nilObject && storage.canSetNil(index - 1)) {
+      storage.setNil(index - 1);
+      return value;
+    }
+
+    receiver.transitionPartiallyFilledToPartiallyEmpty();
+    if (value == Nil.nilObject) {
+      return doPartiallyEmptySArrayWithNil(receiver, index, value);
+    }
+
+    PartiallyEmptyArray.Type type;
+    if (value instanceof Long) {
+      type = PartiallyEmptyArray.Type.LONG;
+    } else if (value instanceof Double) {
+      type = PartiallyEmptyArray.Type.DOUBLE;
+    } else if (value instanceof Boolean) {
+      type = PartiallyEmptyArray.Type.BOOLEAN;
+    } else {
+      type = PartiallyEmptyArray.Type.OBJECT;
+    }
+    setAndPossiblyTransition(receiver, index, value, type);
+    return value;
+  }
+
   @Specialization(guards = "receiver.isObjectType()")
   public static final Object doObjectSArray(final SArray receiver, final long index,
       final Object value) {
@@ -225,6 +302,126 @@ public abstract class AtPutPrim extends TernaryExpressionNode {
     return transitionAndSet(receiver, index, value, newStorage);
   }
 
+  @Specialization(guards = {"receiver.isByteType()", "fitsInByte(value)"})
+  public static final long doByteSArray(final SArray receiver, final long index,
+      final long value) {
+    long idx = index - 1;
+    receiver.getByteStorage()[(int) idx] = (byte) value;
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isByteType()", "!fitsInByte(value)"})
+  public static final long doByteSArrayAndWiden(final SArray receiver, final long index,
+      final long value) {
+    long idx = index - 1;
+    byte[] storage = receiver.getByteStorage();
+    if (fitsInInt(value)) {
+      int[] newStorage = new int[storage.length];
+      for (int i = 0; i < storage.length; i++) {
+        newStorage[i] = storage[i] & 0xFF;
+      }
+      newStorage[(int) idx] = (int) value;
+      receiver.transitionTo(newStorage);
+    } else {
+      long[] newStorage = new long[storage.length];
+      for (int i = 0; i < storage.length; i++) {
+        newStorage[i] = storage[i] & 0xFF;
+      }
+      newStorage[(int) idx] = value;
+      receiver.transitionTo(newStorage);
+    }
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isByteType()", "valueIsNotLong(value)"})
+  public static final Object doByteSArray(final SArray receiver, final long index,
+      final Object value) {
+    byte[] storage = receiver.getByteStorage();
+    Object[] newStorage = new Object[storage.length];
+    for (int i = 0; i < storage.length; i++) {
+      newStorage[i] = (long) (storage[i] & 0xFF);
+    }
+
+    return transitionAndSet(receiver, index, value, newStorage);
+  }
+
+  @Specialization(guards = {"receiver.isIntType()", "fitsInInt(value)"})
+  public static final long doIntSArray(final SArray receiver, final long index,
+      final long value) {
+    long idx = index - 1;
+    receiver.getIntStorage()[(int) idx] = (int) value;
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isIntType()", "!fitsInInt(value)"})
+  public static final long doIntSArrayAndWiden(final SArray receiver, final long index,
+      final long value) {
+    long idx = index - 1;
+    int[] storage = receiver.getIntStorage();
+    long[] newStorage = new long[storage.length];
+    for (int i = 0; i < storage.length; i++) {
+      newStorage[i] = storage[i];
+    }
+    newStorage[(int) idx] = value;
+    receiver.transitionTo(newStorage);
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isIntType()", "valueIsNotLong(value)"})
+  public static final Object doIntSArray(final SArray receiver, final long index,
+      final Object value) {
+    int[] storage = receiver.getIntStorage();
+    Object[] newStorage = new Object[storage.length];
+    for (int i = 0; i < storage.length; i++) {
+      newStorage[i] = (long) storage[i];
+    }
+
+    return transitionAndSet(receiver, index, value, newStorage);
+  }
+
+  @Specialization(guards = {"receiver.isOffHeapLongType()", "canStoreOffHeapLong(value)"})
+  public static final long doOffHeapLongSArray(final SArray receiver, final long index,
+      final long value) {
+    receiver.getOffHeapLongStorage().set(index - 1, value);
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isOffHeapLongType()", "valueIsNil(value)"})
+  public static final Object doOffHeapLongSArrayWithNil(final SArray receiver,
+      final long index, final Object value) {
+    receiver.getOffHeapLongStorage().setNil(index - 1);
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isOffHeapLongType()", "valueIsNotNil(value)"})
+  public static final Object doOffHeapLongSArray(final SArray receiver, final long index,
+      final Object value) {
+    Object[] newStorage = receiver.getOffHeapLongStorage().toObjectArray();
+    return transitionAndSet(receiver, index, value, newStorage);
+  }
+
+  @Specialization(guards = {"receiver.isOffHeapDoubleType()",
+      "canStoreOffHeapDouble(value)"})
+  public static final double doOffHeapDoubleSArray(final SArray receiver, final long index,
+      final double value) {
+    receiver.getOffHeapDoubleStorage().set(index - 1, value);
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isOffHeapDoubleType()", "valueIsNil(value)"})
+  public static final Object doOffHeapDoubleSArrayWithNil(final SArray receiver,
+      final long index, final Object value) {
+    receiver.getOffHeapDoubleStorage().setNil(index - 1);
+    return value;
+  }
+
+  @Specialization(guards = {"receiver.isOffHeapDoubleType()", "valueIsNotNil(value)"})
+  public static final Object doOffHeapDoubleSArray(final SArray receiver, final long index,
+      final Object value) {
+    Object[] newStorage = receiver.getOffHeapDoubleStorage().toObjectArray();
+    return transitionAndSet(receiver, index, value, newStorage);
+  }
+
   private static Object transitionAndSet(final SArray receiver, final long index,
       final Object value,
       final Object[] newStorage) {
@@ -41,4 +41,29 @@ public abstract class CopyPrim extends UnaryExpressionNode {
   public static final SArray doBooleanArray(final SArray receiver) {
     return SArray.create(receiver.getBooleanStorage().clone());
   }
+
+  @Specialization(guards = "receiver.isByteType()")
+  public static final SArray doByteArray(final SArray receiver) {
+    return new SArray(receiver.getByteStorage().clone());
+  }
+
+  @Specialization(guards = "receiver.isIntType()")
+  public static final SArray doIntArray(final SArray receiver) {
+    return new SArray(receiver.getIntStorage().clone());
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledType()")
+  public static final SArray doPartiallyFilledArray(final SArray receiver) {
+    return new SArray(receiver.getPartiallyFilledStorage().copy());
+  }
+
+  @Specialization(guards = "receiver.isOffHeapLongType()")
+  public static final SArray doOffHeapLongArray(final SArray receiver) {
+    return new SArray(receiver.getOffHeapLongStorage().copy());
+  }
+
+  @Specialization(guards = "receiver.isOffHeapDoubleType()")
+  public static final SArray doOffHeapDoubleArray(final SArray receiver) {
+    return new SArray(receiver.getOffHeapDoubleStorage().copy());
+  }
 }
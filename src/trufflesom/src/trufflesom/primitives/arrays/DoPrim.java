@@ -16,7 +16,9 @@ import trufflesom.primitives.basics.BlockPrimsFactory.ValueOnePrimFactory;
 import trufflesom.vm.SymbolTable;
 import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SArray;
+import trufflesom.vmobjects.SArray.OffHeapArray;
 import trufflesom.vmobjects.SArray.PartiallyEmptyArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledArray;
 import trufflesom.vmobjects.SBlock;
 import trufflesom.vmobjects.SSymbol;
 
@@ -151,6 +153,96 @@ public abstract class DoPrim extends BinaryMsgExprNode {
     return arr;
   }
 
+  @Specialization(guards = "arr.isByteType()")
+  public final SArray doByteArray(final VirtualFrame frame,
+      final SArray arr, final SBlock b) {
+    byte[] storage = arr.getByteStorage();
+    int length = storage.length;
+    try {
+      if (SArray.FIRST_IDX < length) {
+        this.block.executeEvaluated(frame, b, (long) (storage[SArray.FIRST_IDX] & 0xFF));
+      }
+      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
+        this.block.executeEvaluated(frame, b, (long) (storage[(int) i] & 0xFF));
+      }
+    } finally {
+      if (CompilerDirectives.inInterpreter()) {
+        reportLoopCount(length);
+      }
+    }
+    return arr;
+  }
+
+  @Specialization(guards = "arr.isIntType()")
+  public final SArray doIntArray(final VirtualFrame frame,
+      final SArray arr, final SBlock b) {
+    int[] storage = arr.getIntStorage();
+    int length = storage.length;
+    try {
+      if (SArray.FIRST_IDX < length) {
+        this.block.executeEvaluated(frame, b, (long) storage[SArray.FIRST_IDX]);
+      }
+      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
+        this.block.executeEvaluated(frame, b, (long) storage[(int) i]);
+      }
+    } finally {
+      if (CompilerDirectives.inInterpreter()) {
+        reportLoopCount(length);
+      }
+    }
+    return arr;
+  }
+
+  @Specialization(guards = "arr.isPartiallyFilledType()")
+  public final SArray doPartiallyFilledArray(final VirtualFrame frame,
+      final SArray arr, final SBlock b) {
+    PartiallyFilledArray storage = arr.getPartiallyFilledStorage();
+    int length = storage.getLength();
+    try {
+      if (SArray.FIRST_IDX < length) {
+        this.block.executeEvaluated(frame, b, storage.get(SArray.FIRST_IDX));
+      }
+      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
+        this.block.executeEvaluated(frame, b, storage.get(i));
+      }
+    } finally {
+      if (CompilerDirectives.inInterpreter()) {
+        reportLoopCount(length);
+      }
+    }
+    return arr;
+  }
+
+  @Specialization(guards = "arr.isOffHeapLongType()")
+  public final SArray doOffHeapLongArray(final VirtualFrame frame,
+      final SArray arr, final SBlock b) {
+    return doOffHeapArray(frame, arr.getOffHeapLongStorage(), arr, b);
+  }
+
+  @Specialization(guards = "arr.isOffHeapDoubleType()")
+  public final SArray doOffHeapDoubleArray(final VirtualFrame frame,
+      final SArray arr, final SBlock b) {
+    return doOffHeapArray(frame, arr.getOffHeapDoubleStorage(), arr, b);
+  }
+
+  private SArray doOffHeapArray(final VirtualFrame frame, final OffHeapArray storage,
+      final SArray arr, final SBlock b) {
+    int length = storage.getLength();
+    try {
+      if (SArray.FIRST_IDX < length) {
+        this.block.executeEvaluated(frame, b, storage.get(SArray.FIRST_IDX));
+      }
+      for (long i = SArray.FIRST_IDX + 1; i < length; i++) {
+        this.block.executeEvaluated(frame, b, storage.get(i));
+      }
+    } finally {
+      if (CompilerDirectives.inInterpreter()) {
+        reportLoopCount(length);
+      }
+    }
+    return arr;
+  }
+
   protected final void reportLoopCount(final long count) {
     if (count == 0) {
       return;
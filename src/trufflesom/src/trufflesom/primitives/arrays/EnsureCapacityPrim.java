@@ -0,0 +1,192 @@
+package trufflesom.primitives.arrays;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import trufflesom.bdt.primitives.Primitive;
+import trufflesom.interpreter.nodes.nary.BinaryMsgExprNode;
+import trufflesom.vm.SymbolTable;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SArray;
+import trufflesom.vmobjects.SArray.PartiallyEmptyArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledBooleanArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledDoubleArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledLongArray;
+import trufflesom.vmobjects.SSymbol;
+
+
+/**
+ * Answers the receiver, if it has at least the given capacity, or otherwise a copy,
+ * which is at least twice as long and has nil as its additional elements.
+ * The copy keeps the strategy of the receiver as far as possible, so that growing
+ * collections can be built on arrays without copying them element by element in SOM.
+ * Arrays of primitive type cannot hold nil. They become partially filled arrays, which
+ * keep the elements in a primitive array of the grown length, and turn back into
+ * primitive storage once they are full again. Byte and int arrays are widened to longs.
+ */
+@GenerateNodeFactory
+@Primitive(selector = "ensureCapacity:", receiverType = SArray.class, inParser = false)
+public abstract class EnsureCapacityPrim extends BinaryMsgExprNode {
+  /** Some JVMs reserve header words in arrays, see also java.util.ArrayList. */
+  private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+  @Override
+  public SSymbol getSelector() {
+    return SymbolTable.symbolFor("ensureCapacity:");
+  }
+
+  protected static final int grownLength(final int length, final long capacity) {
+    if (capacity > MAX_LENGTH) {
+      CompilerDirectives.transferToInterpreter();
+      throw new ArrayIndexOutOfBoundsException(
+          "Index " + capacity + " out of bounds for maximal length " + MAX_LENGTH);
+    }
+    return (int) Math.max(capacity, Math.min(2L * length, MAX_LENGTH));
+  }
+
+  @Specialization(guards = "receiver.isEmptyType()")
+  public static final SArray doEmptySArray(final SArray receiver, final long capacity) {
+    int length = receiver.getEmptyStorage();
+    if (capacity <= length) {
+      return receiver;
+    }
+    return new SArray(grownLength(length, capacity));
+  }
+
+  @Specialization(guards = "receiver.isPartiallyEmptyType()")
+  public static final SArray doPartiallyEmptySArray(final SArray receiver,
+      final long capacity) {
+    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage();
+    int length = storage.getLength();
+    if (capacity <= length) {
+      return receiver;
+    }
+    return new SArray(storage.copyWithLength(grownLength(length, capacity)));
+  }
+
+  @Specialization(guards = "receiver.isObjectType()")
+  public static final SArray doObjectSArray(final SArray receiver, final long capacity) {
+    Object[] storage = receiver.getObjectStorage();
+    if (capacity <= storage.length) {
+      return receiver;
+    }
+
+    int newLength = grownLength(storage.length, capacity);
+    Object[] newStorage = Arrays.copyOf(storage, newLength);
+    Arrays.fill(newStorage, storage.length, newLength, Nil.nilObject);
+    return SArray.create(newStorage);
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledType()")
+  public static final SArray doPartiallyFilledSArray(final SArray receiver,
+      final long capacity) {
+    PartiallyFilledArray storage = receiver.getPartiallyFilledStorage();
+    int length = storage.getLength();
+    if (capacity <= length) {
+      return receiver;
+    }
+    return new SArray(storage.copyWithLength(grownLength(length, capacity)));
+  }
+
+  @Specialization(guards = "receiver.isLongType()")
+  public static final SArray doLongSArray(final SArray receiver, final long capacity) {
+    long[] storage = receiver.getLongStorage();
+    if (capacity <= storage.length) {
+      return receiver;
+    }
+    if (storage.length == 0) {
+      return new SArray(grownLength(0, capacity));
+    }
+
+    long[] newStorage = Arrays.copyOf(storage, grownLength(storage.length, capacity));
+    return new SArray(new PartiallyFilledLongArray(newStorage, storage.length));
+  }
+
+  @Specialization(guards = "receiver.isIntType()")
+  public static final SArray doIntSArray(final SArray receiver, final long capacity) {
+    int[] storage = receiver.getIntStorage();
+    if (capacity <= storage.length) {
+      return receiver;
+    }
+    if (storage.length == 0) {
+      return new SArray(grownLength(0, capacity));
+    }
+
+    long[] newStorage = new long[grownLength(storage.length, capacity)];
+    for (int i = 0; i < storage.length; i++) {
+      newStorage[i] = storage[i];
+    }
+    return new SArray(new PartiallyFilledLongArray(newStorage, storage.length));
+  }
+
+  @Specialization(guards = "receiver.isByteType()")
+  public static final SArray doByteSArray(final SArray receiver, final long capacity) {
+    byte[] storage = receiver.getByteStorage();
+    if (capacity <= storage.length) {
+      return receiver;
+    }
+    if (storage.length == 0) {
+      return new SArray(grownLength(0, capacity));
+    }
+
+    long[] newStorage = new long[grownLength(storage.length, capacity)];
+    for (int i = 0; i < storage.length; i++) {
+      newStorage[i] = storage[i] & 0xFF;
+    }
+    return new SArray(new PartiallyFilledLongArray(newStorage, storage.length));
+  }
+
+  @Specialization(guards = "receiver.isDoubleType()")
+  public static final SArray doDoubleSArray(final SArray receiver, final long capacity) {
+    double[] storage = receiver.getDoubleStorage();
+    if (capacity <= storage.length) {
+      return receiver;
+    }
+    if (storage.length == 0) {
+      return new SArray(grownLength(0, capacity));
+    }
+
+    double[] newStorage = Arrays.copyOf(storage, grownLength(storage.length, capacity));
+    return new SArray(new PartiallyFilledDoubleArray(newStorage, storage.length));
+  }
+
+  @Specialization(guards = "receiver.isBooleanType()")
+  public static final SArray doBooleanSArray(final SArray receiver, final long capacity) {
+    boolean[] storage = receiver.getBooleanStorage();
+    if (capacity <= storage.length) {
+      return receiver;
+    }
+    if (storage.length == 0) {
+      return new SArray(grownLength(0, capacity));
+    }
+
+    boolean[] newStorage = Arrays.copyOf(storage, grownLength(storage.length, capacity));
+    return new SArray(new PartiallyFilledBooleanArray(newStorage, storage.length));
+  }
+
+  @Specialization(guards = "receiver.isOffHeapLongType()")
+  public static final SArray doOffHeapLongSArray(final SArray receiver,
+      final long capacity) {
+    int length = receiver.getOffHeapLongStorage().getLength();
+    if (capacity <= length) {
+      return receiver;
+    }
+    return new SArray(
+        receiver.getOffHeapLongStorage().copyWithLength(grownLength(length, capacity)));
+  }
+
+  @Specialization(guards = "receiver.isOffHeapDoubleType()")
+  public static final SArray doOffHeapDoubleSArray(final SArray receiver,
+      final long capacity) {
+    int length = receiver.getOffHeapDoubleStorage().getLength();
+    if (capacity <= length) {
+      return receiver;
+    }
+    return new SArray(
+        receiver.getOffHeapDoubleStorage().copyWithLength(grownLength(length, capacity)));
+  }
+}
@@ -0,0 +1,73 @@
+package trufflesom.primitives.arrays;
+
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import trufflesom.bdt.primitives.Primitive;
+import trufflesom.interpreter.nodes.nary.BinaryMsgExprNode;
+import trufflesom.vm.SymbolTable;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SArray;
+import trufflesom.vmobjects.SArray.PartiallyEmptyArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledArray;
+import trufflesom.vmobjects.SSymbol;
+
+
+/**
+ * Answers the element at the given index, which is the last one of a growing collection.
+ * Elements that may reference objects are set to nil, so that they can be collected.
+ * Elements of primitive storage are kept, which avoids a transition to Object[] storage.
+ * Partially filled arrays drop their last element, and keep their primitive storage.
+ */
+@GenerateNodeFactory
+@Primitive(selector = "removeLast:", receiverType = SArray.class, inParser = false)
+public abstract class RemoveLastPrim extends BinaryMsgExprNode {
+  @Child private AtPrim at = AtPrimFactory.create(null, null);
+
+  @Override
+  public SSymbol getSelector() {
+    return SymbolTable.symbolFor("removeLast:");
+  }
+
+  @Specialization(guards = "receiver.isObjectType()")
+  public static final Object doObjectSArray(final SArray receiver, final long index) {
+    Object[] storage = receiver.getObjectStorage();
+    int idx = (int) index - 1;
+    Object value = storage[idx];
+    storage[idx] = Nil.nilObject;
+    return value;
+  }
+
+  @Specialization(guards = "receiver.isPartiallyEmptyType()")
+  public static final Object doPartiallyEmptySArray(final SArray receiver,
+      final long index) {
+    PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage();
+    long idx = index - 1;
+    Object value = storage.get(idx);
+    if (value != Nil.nilObject) {
+      storage.set(idx, Nil.nilObject);
+      storage.incEmptyElements();
+    }
+    return value;
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledType()")
+  public static final Object doPartiallyFilledSArray(final SArray receiver,
+      final long index) {
+    PartiallyFilledArray storage = receiver.getPartiallyFilledStorage();
+    long idx = index - 1;
+    Object value = storage.get(idx);
+    if (storage.canSetNil(idx)) {
+      storage.setNil(idx);
+    }
+    return value;
+  }
+
+  @Specialization(guards = {"!receiver.isObjectType()", "!receiver.isPartiallyEmptyType()",
+      "!receiver.isPartiallyFilledType()"})
+  public final Object doSArray(final VirtualFrame frame, final SArray receiver,
+      final long index) {
+    return at.executeEvaluated(frame, receiver, index);
+  }
+}
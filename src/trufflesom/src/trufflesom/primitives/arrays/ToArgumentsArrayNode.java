@@ -99,6 +99,48 @@ public abstract class ToArgumentsArrayNode extends NoPreEvalExprNode {
     return args;
   }
 
+  @Specialization(guards = "somArray.isByteType()")
+  public static final Object[] doByteArray(final SArray somArray,
+      final Object rcvr) {
+    byte[] arr = somArray.getByteStorage();
+    Object[] args = new Object[arr.length + 1];
+    args[0] = rcvr;
+    for (int i = 0; i < arr.length; i++) {
+      args[i + 1] = (long) (arr[i] & 0xFF);
+    }
+    return args;
+  }
+
+  @Specialization(guards = "somArray.isIntType()")
+  public static final Object[] doIntArray(final SArray somArray,
+      final Object rcvr) {
+    int[] arr = somArray.getIntStorage();
+    Object[] args = new Object[arr.length + 1];
+    args[0] = rcvr;
+    for (int i = 0; i < arr.length; i++) {
+      args[i + 1] = (long) arr[i];
+    }
+    return args;
+  }
+
+  @Specialization(guards = "somArray.isPartiallyFilledType()")
+  public static final Object[] doPartiallyFilledArray(final SArray somArray,
+      final Object rcvr) {
+    return addRcvrToObjectArray(rcvr, somArray.getPartiallyFilledStorage().toObjectArray());
+  }
+
+  @Specialization(guards = "somArray.isOffHeapLongType()")
+  public static final Object[] doOffHeapLongArray(final SArray somArray,
+      final Object rcvr) {
+    return addRcvrToObjectArray(rcvr, somArray.getOffHeapLongStorage().toObjectArray());
+  }
+
+  @Specialization(guards = "somArray.isOffHeapDoubleType()")
+  public static final Object[] doOffHeapDoubleArray(final SArray somArray,
+      final Object rcvr) {
+    return addRcvrToObjectArray(rcvr, somArray.getOffHeapDoubleStorage().toObjectArray());
+  }
+
   @Override
   public WrapperNode createWrapper(final ProbeNode probe) {
     return new ToArgumentsArrayNodeWrapper(this, probe);
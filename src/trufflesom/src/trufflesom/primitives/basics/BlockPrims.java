@@ -18,6 +18,7 @@ import com.oracle.truffle.api.nodes.DirectCallNode;
 import trufflesom.bdt.primitives.Primitive;
 import trufflesom.bdt.primitives.nodes.PreevaluatedExpression;
 import trufflesom.interpreter.bc.RestartLoopException;
+import trufflesom.interpreter.nodes.dispatch.BlockSplitting;
 import trufflesom.interpreter.nodes.nary.BinaryExpressionNode;
 import trufflesom.interpreter.nodes.nary.QuaternaryExpressionNode;
 import trufflesom.interpreter.nodes.nary.TernaryExpressionNode;
@@ -31,7 +32,7 @@ import trufflesom.vmobjects.SInvokable;
 
 
 public abstract class BlockPrims {
-  protected static int InlineCacheSize = 6;
+  protected static final int InlineCacheSize = VmSettings.InlineCacheSize;
 
   public static final DirectCallNode createCallNode(final SInvokable method) {
     return Truffle.getRuntime().createDirectCallNode(method.getCallTarget());
@@ -58,6 +59,9 @@ public abstract class BlockPrims {
       receiverType = {SBlock.class, Boolean.class})
   @ImportStatic(BlockPrims.class)
   public abstract static class ValueNonePrim extends UnaryExpressionNode {
+    /** Whether this send was recorded as megamorphic, see {@link BlockSplitting}. */
+    private boolean megamorphicSendRecorded;
+
     @NeverDefault
     public static ValueNonePrim create() {
       return ValueNonePrimFactory.create(null);
@@ -85,7 +89,12 @@ public abstract class BlockPrims {
 
     @Specialization
     @Megamorphic
-    public static final Object generic(final SBlock receiver) {
+    public final Object generic(final SBlock receiver) {
+      if (VmSettings.TrackBlockDispatch && CompilerDirectives.inInterpreter()
+          && !megamorphicSendRecorded) {
+        megamorphicSendRecorded = true;
+        BlockSplitting.recordMegamorphicSend(this);
+      }
       return receiver.getMethod().invoke(new Object[] {receiver});
     }
 
@@ -107,6 +116,8 @@ public abstract class BlockPrims {
       receiverType = SBlock.class)
   @ImportStatic(BlockPrims.class)
   public abstract static class ValueOnePrim extends BinaryExpressionNode {
+    /** Whether this send was recorded as megamorphic, see {@link BlockSplitting}. */
+    private boolean megamorphicSendRecorded;
 
     public abstract Object executeEvaluated(VirtualFrame frame, SBlock receiver, Object arg);
 
@@ -130,7 +141,12 @@ public abstract class BlockPrims {
 
     @Specialization
     @Megamorphic
-    public static final Object generic(final SBlock receiver, final Object arg) {
+    public final Object generic(final SBlock receiver, final Object arg) {
+      if (VmSettings.TrackBlockDispatch && CompilerDirectives.inInterpreter()
+          && !megamorphicSendRecorded) {
+        megamorphicSendRecorded = true;
+        BlockSplitting.recordMegamorphicSend(this);
+      }
       return receiver.getMethod().invoke(new Object[] {receiver, arg});
     }
 
@@ -152,6 +168,8 @@ public abstract class BlockPrims {
       inParser = false, receiverType = SBlock.class)
   @ImportStatic(BlockPrims.class)
   public abstract static class ValueTwoPrim extends TernaryExpressionNode {
+    /** Whether this send was recorded as megamorphic, see {@link BlockSplitting}. */
+    private boolean megamorphicSendRecorded;
 
     public abstract Object executeEvaluated(SBlock receiver, Object arg1, Object arg2);
 
@@ -177,8 +195,13 @@ public abstract class BlockPrims {
 
     @Specialization
     @Megamorphic
-    public static final Object generic(final SBlock receiver, final Object arg1,
+    public final Object generic(final SBlock receiver, final Object arg1,
         final Object arg2) {
+      if (VmSettings.TrackBlockDispatch && CompilerDirectives.inInterpreter()
+          && !megamorphicSendRecorded) {
+        megamorphicSendRecorded = true;
+        BlockSplitting.recordMegamorphicSend(this);
+      }
       return receiver.getMethod().invoke(new Object[] {receiver, arg1, arg2});
     }
   }
@@ -10,6 +10,7 @@ import trufflesom.bdt.primitives.Primitive;
 import trufflesom.interpreter.nodes.nary.BinaryMsgExprNode;
 import trufflesom.vm.SymbolTable;
 import trufflesom.vmobjects.SObject;
+import trufflesom.vmobjects.SRope;
 import trufflesom.vmobjects.SSymbol;
 
 
@@ -69,6 +70,12 @@ public abstract class EqualsPrim extends BinaryMsgExprNode {
     return false;
   }
 
+  @Specialization
+  @SuppressWarnings("unused")
+  public static final boolean doLong(final long left, final SRope right) {
+    return false;
+  }
+
   @Specialization
   @TruffleBoundary
   public static final boolean doBigInteger(final BigInteger left, final long right) {
@@ -107,6 +114,11 @@ public abstract class EqualsPrim extends BinaryMsgExprNode {
     return receiver.equals(argument.getString());
   }
 
+  @Specialization
+  public static final boolean doString(final String receiver, final SRope argument) {
+    return argument.contentEquals(receiver);
+  }
+
   @Specialization
   @SuppressWarnings("unused")
   public static final boolean doString(final String receiver, final long argument) {
@@ -129,6 +141,11 @@ public abstract class EqualsPrim extends BinaryMsgExprNode {
     return receiver.getString().equals(argument);
   }
 
+  @Specialization
+  public static final boolean doSSymbol(final SSymbol receiver, final SRope argument) {
+    return argument.contentEquals(receiver.getString());
+  }
+
   @Specialization
   @SuppressWarnings("unused")
   public static final boolean doSSymbol(final SSymbol receiver, final long argument) {
@@ -140,4 +157,31 @@ public abstract class EqualsPrim extends BinaryMsgExprNode {
   public static final boolean doSSymbol(final SSymbol receiver, final SObject argument) {
     return false;
   }
+
+  @Specialization
+  public static final boolean doSRope(final SRope receiver, final SRope argument) {
+    return receiver.contentEquals(argument);
+  }
+
+  @Specialization
+  public static final boolean doSRope(final SRope receiver, final String argument) {
+    return receiver.contentEquals(argument);
+  }
+
+  @Specialization
+  public static final boolean doSRope(final SRope receiver, final SSymbol argument) {
+    return receiver.contentEquals(argument.getString());
+  }
+
+  @Specialization
+  @SuppressWarnings("unused")
+  public static final boolean doSRope(final SRope receiver, final long argument) {
+    return false;
+  }
+
+  @Specialization
+  @SuppressWarnings("unused")
+  public static final boolean doSRope(final SRope receiver, final SObject argument) {
+    return false;
+  }
 }
@@ -7,6 +7,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import trufflesom.bdt.primitives.Primitive;
 import trufflesom.interpreter.nodes.nary.UnaryExpressionNode;
 import trufflesom.vmobjects.SAbstractObject;
+import trufflesom.vmobjects.SRope;
 import trufflesom.vmobjects.SSymbol;
 
 
@@ -25,6 +26,11 @@ public abstract class HashPrim extends UnaryExpressionNode {
     return receiver.getString().hashCode();
   }
 
+  @Specialization
+  public static final long doSRope(final SRope receiver) {
+    return receiver.contentHashCode();
+  }
+
   @Specialization
   @TruffleBoundary
   public static final long doSAbstractObject(final SAbstractObject receiver) {
@@ -9,6 +9,7 @@ import com.oracle.truffle.api.instrumentation.ProbeNode;
 import trufflesom.bdt.primitives.Primitive;
 import trufflesom.interpreter.nodes.nary.UnaryExpressionNode;
 import trufflesom.vmobjects.SArray;
+import trufflesom.vmobjects.SRope;
 import trufflesom.vmobjects.SSymbol;
 
 
@@ -16,8 +17,8 @@ import trufflesom.vmobjects.SSymbol;
 @GenerateWrapper
 @Primitive(className = "Array", primitive = "length")
 @Primitive(className = "String", primitive = "length")
-@Primitive(selector = "length", receiverType = {String.class, SArray.class, SSymbol.class},
-    inParser = false)
+@Primitive(selector = "length",
+    receiverType = {String.class, SArray.class, SSymbol.class, SRope.class}, inParser = false)
 public abstract class LengthPrim extends UnaryExpressionNode {
 
   @Specialization(guards = "receiver.isEmptyType()")
@@ -50,6 +51,31 @@ public abstract class LengthPrim extends UnaryExpressionNode {
     return receiver.getBooleanStorage().length;
   }
 
+  @Specialization(guards = "receiver.isByteType()")
+  public static final long doByteSArray(final SArray receiver) {
+    return receiver.getByteStorage().length;
+  }
+
+  @Specialization(guards = "receiver.isIntType()")
+  public static final long doIntSArray(final SArray receiver) {
+    return receiver.getIntStorage().length;
+  }
+
+  @Specialization(guards = "receiver.isPartiallyFilledType()")
+  public static final long doPartiallyFilledSArray(final SArray receiver) {
+    return receiver.getPartiallyFilledStorage().getLength();
+  }
+
+  @Specialization(guards = "receiver.isOffHeapLongType()")
+  public static final long doOffHeapLongSArray(final SArray receiver) {
+    return receiver.getOffHeapLongStorage().getLength();
+  }
+
+  @Specialization(guards = "receiver.isOffHeapDoubleType()")
+  public static final long doOffHeapDoubleSArray(final SArray receiver) {
+    return receiver.getOffHeapDoubleStorage().getLength();
+  }
+
   public abstract long executeEvaluated(VirtualFrame frame, SArray receiver);
 
   @Specialization
@@ -62,6 +88,11 @@ public abstract class LengthPrim extends UnaryExpressionNode {
     return receiver.getString().length();
   }
 
+  @Specialization
+  public static final long doSRope(final SRope receiver) {
+    return receiver.getLength();
+  }
+
   @Override
   public WrapperNode createWrapper(final ProbeNode probe) {
     return new LengthPrimWrapper(this, probe);
@@ -10,7 +10,7 @@ import trufflesom.bdt.primitives.nodes.PreevaluatedExpression;
 import trufflesom.interpreter.nodes.dispatch.AbstractDispatchNode;
 import trufflesom.interpreter.nodes.dispatch.CachedNewObject;
 import trufflesom.interpreter.nodes.nary.UnaryExpressionNode;
-import trufflesom.interpreter.objectstorage.ObjectLayout;
+import trufflesom.interpreter.objectstorage.CachedInstanceLayout;
 import trufflesom.vmobjects.SAbstractObject;
 import trufflesom.vmobjects.SClass;
 import trufflesom.vmobjects.SObject;
@@ -21,16 +21,19 @@ import trufflesom.vmobjects.SObject;
 public abstract class NewObjectPrim extends UnaryExpressionNode {
   protected static final int LIMIT = 3;
 
-  @Specialization(assumptions = "layout.getAssumption()",
-      guards = "layout.layoutForSameClass(receiver)", limit = "LIMIT")
+  @Specialization(guards = "layout.isForClass(receiver)", limit = "LIMIT")
   public static final SAbstractObject doCached(final SClass receiver,
-      @Cached("receiver.getLayoutForInstances()") final ObjectLayout layout) {
-    return new SObject(receiver, layout);
+      @Cached("createLayout(receiver)") final CachedInstanceLayout layout) {
+    return layout.allocate();
   }
 
   @Specialization(replaces = "doCached")
   public static final SAbstractObject doUncached(final SClass receiver) {
-    return new SObject(receiver);
+    return SObject.create(receiver);
+  }
+
+  protected static CachedInstanceLayout createLayout(final SClass receiver) {
+    return new CachedInstanceLayout(receiver);
   }
 
   @Override
@@ -47,8 +50,7 @@ public abstract class NewObjectPrim extends UnaryExpressionNode {
   public AbstractDispatchNode asDispatchNode(final Object rcvr, final Source source,
       final AbstractDispatchNode next) {
     SClass clazz = (SClass) rcvr;
-    ObjectLayout layout = clazz.getLayoutForInstances();
-    return new CachedNewObject(clazz.getObjectLayout(), layout.getAssumption(), layout, source,
-        next);
+    return new CachedNewObject(clazz.getObjectLayout(), new CachedInstanceLayout(clazz),
+        source, next);
   }
 }
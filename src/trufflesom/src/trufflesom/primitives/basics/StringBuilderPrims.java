@@ -0,0 +1,93 @@
+package trufflesom.primitives.basics;
+
+import java.math.BigInteger;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import trufflesom.bdt.primitives.Primitive;
+import trufflesom.interpreter.nodes.nary.BinaryExpressionNode;
+import trufflesom.interpreter.nodes.nary.UnaryExpressionNode;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SRope;
+import trufflesom.vmobjects.SStringBuilder;
+import trufflesom.vmobjects.SSymbol;
+
+
+public class StringBuilderPrims {
+
+  @GenerateNodeFactory
+  @Primitive(className = "StringBuilder", primitive = "new", classSide = true)
+  public abstract static class NewPrim extends UnaryExpressionNode {
+    @Specialization
+    public static final SStringBuilder doSClass(final SClass receiver) {
+      return new SStringBuilder(receiver);
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "StringBuilder", primitive = "append:")
+  public abstract static class AppendPrim extends BinaryExpressionNode {
+    @Specialization
+    public static final SStringBuilder doString(final SStringBuilder receiver,
+        final String argument) {
+      receiver.append(argument);
+      return receiver;
+    }
+
+    @Specialization
+    public static final SStringBuilder doSSymbol(final SStringBuilder receiver,
+        final SSymbol argument) {
+      receiver.append(argument.getString());
+      return receiver;
+    }
+
+    @Specialization
+    public static final SStringBuilder doSRope(final SStringBuilder receiver,
+        final SRope argument) {
+      receiver.append(argument);
+      return receiver;
+    }
+
+    @Specialization
+    public static final SStringBuilder doLong(final SStringBuilder receiver,
+        final long argument) {
+      receiver.append(argument);
+      return receiver;
+    }
+
+    @Specialization
+    public static final SStringBuilder doDouble(final SStringBuilder receiver,
+        final double argument) {
+      receiver.append(argument);
+      return receiver;
+    }
+
+    @Specialization
+    @TruffleBoundary
+    public static final SStringBuilder doBigInteger(final SStringBuilder receiver,
+        final BigInteger argument) {
+      receiver.append(argument.toString());
+      return receiver;
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "StringBuilder", primitive = "length")
+  public abstract static class BuilderLengthPrim extends UnaryExpressionNode {
+    @Specialization
+    public static final long doSStringBuilder(final SStringBuilder receiver) {
+      return receiver.getLength();
+    }
+  }
+
+  @GenerateNodeFactory
+  @Primitive(className = "StringBuilder", primitive = "asString")
+  public abstract static class BuilderAsStringPrim extends UnaryExpressionNode {
+    @Specialization
+    public static final String doSStringBuilder(final SStringBuilder receiver) {
+      return receiver.getString();
+    }
+  }
+}
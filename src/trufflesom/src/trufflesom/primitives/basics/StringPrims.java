@@ -14,6 +14,7 @@ import trufflesom.interpreter.nodes.nary.TernaryExpressionNode;
 import trufflesom.interpreter.nodes.nary.UnaryExpressionNode;
 import trufflesom.vm.SymbolTable;
 import trufflesom.vmobjects.SAbstractObject;
+import trufflesom.vmobjects.SRope;
 import trufflesom.vmobjects.SSymbol;
 
 
@@ -28,27 +29,48 @@ public class StringPrims {
     }
 
     @Specialization
-    @TruffleBoundary
-    public static final String doString(final String receiver, final String argument) {
-      return receiver + argument;
+    public static final Object doString(final String receiver, final String argument) {
+      return SRope.concat(receiver, argument);
     }
 
     @Specialization
-    @TruffleBoundary
-    public static final String doString(final String receiver, final SSymbol argument) {
-      return receiver + argument.getString();
+    public static final Object doString(final String receiver, final SSymbol argument) {
+      return SRope.concat(receiver, argument.getString());
     }
 
     @Specialization
-    @TruffleBoundary
-    public static final String doSSymbol(final SSymbol receiver, final String argument) {
-      return receiver.getString() + argument;
+    public static final SRope doString(final String receiver, final SRope argument) {
+      return SRope.concat(receiver, argument);
     }
 
     @Specialization
-    @TruffleBoundary
-    public static final String doSSymbol(final SSymbol receiver, final SSymbol argument) {
-      return receiver.getString() + argument.getString();
+    public static final Object doSSymbol(final SSymbol receiver, final String argument) {
+      return SRope.concat(receiver.getString(), argument);
+    }
+
+    @Specialization
+    public static final Object doSSymbol(final SSymbol receiver, final SSymbol argument) {
+      return SRope.concat(receiver.getString(), argument.getString());
+    }
+
+    @Specialization
+    public static final SRope doSSymbol(final SSymbol receiver, final SRope argument) {
+      return SRope.concat(receiver.getString(), argument);
+    }
+
+    @Specialization
+    public static final SRope doSRope(final SRope receiver, final String argument) {
+      return receiver.concat(argument);
+    }
+
+    @Specialization
+    public static final SRope doSRope(final SRope receiver, final SSymbol argument) {
+      return receiver.concat(argument.getString());
+    }
+
+    @Specialization
+    public static final SRope doSRope(final SRope receiver, final SRope argument) {
+      return receiver.concat(argument);
     }
   }
 
@@ -57,6 +79,11 @@ public class StringPrims {
     return str.substring(start, end);
   }
 
+  @TruffleBoundary
+  private static String charToString(final char c) {
+    return String.valueOf(c);
+  }
+
   @GenerateNodeFactory
   @Primitive(className = "String", primitive = "charAt:", selector = "charAt:")
   public abstract static class CharAtPrim extends BinaryMsgExprNode {
@@ -96,6 +123,20 @@ public class StringPrims {
       }
       return "Error - index out of bounds";
     }
+
+    @Specialization
+    public final String doSRope(final SRope receiver, final long idx) {
+      int index = (int) idx;
+      if (0 < index && index <= receiver.getLength()) {
+        return charToString(receiver.charAt(index - 1));
+      }
+
+      if (!branchTaken) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        branchTaken = true;
+      }
+      return "Error - index out of bounds";
+    }
   }
 
   @GenerateNodeFactory
@@ -110,6 +151,11 @@ public class StringPrims {
     public static final SAbstractObject doSSymbol(final SSymbol receiver) {
       return receiver;
     }
+
+    @Specialization
+    public static final SAbstractObject doSRope(final SRope receiver) {
+      return symbolFor(receiver.getString());
+    }
   }
 
   @GenerateNodeFactory
@@ -130,6 +176,16 @@ public class StringPrims {
         final long end) {
       return doString(receiver.getString(), start, end);
     }
+
+    @Specialization
+    public static final String doSRope(final SRope receiver, final long start,
+        final long end) {
+      try {
+        return receiver.substring((int) start - 1, (int) end);
+      } catch (StringIndexOutOfBoundsException e) {
+        return "Error - index out of bounds";
+      }
+    }
   }
 
   @GenerateNodeFactory
@@ -166,6 +222,11 @@ public class StringPrims {
     public static final boolean doSSymbol(final SSymbol receiver) {
       return doString(receiver.getString());
     }
+
+    @Specialization
+    public static final boolean doSRope(final SRope receiver) {
+      return doString(receiver.getString());
+    }
   }
 
   @GenerateNodeFactory
@@ -202,6 +263,11 @@ public class StringPrims {
     public static final boolean doSSymbol(final SSymbol receiver) {
       return doString(receiver.getString());
     }
+
+    @Specialization
+    public static final boolean doSRope(final SRope receiver) {
+      return doString(receiver.getString());
+    }
   }
 
   @GenerateNodeFactory
@@ -238,5 +304,10 @@ public class StringPrims {
     public static final boolean doSSymbol(final SSymbol receiver) {
       return doString(receiver.getString());
     }
+
+    @Specialization
+    public static final boolean doSRope(final SRope receiver) {
+      return doString(receiver.getString());
+    }
   }
 }
@@ -36,6 +36,7 @@ import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SArray;
 import trufflesom.vmobjects.SClass;
 import trufflesom.vmobjects.SObject;
+import trufflesom.vmobjects.SRope;
 import trufflesom.vmobjects.SSymbol;
 
 
@@ -87,6 +88,11 @@ public final class SystemPrims {
     public static final Object doSObject(final SObject receiver, final SSymbol argument) {
       return doSObject(receiver, argument.getString());
     }
+
+    @Specialization
+    public static final Object doSObject(final SObject receiver, final SRope argument) {
+      return doSObject(receiver, argument.getString());
+    }
   }
 
   @GenerateNodeFactory
@@ -102,6 +108,11 @@ public final class SystemPrims {
     public static final Object doSObject(final SObject receiver, final SSymbol argument) {
       return doSObject(receiver, argument.getString());
     }
+
+    @Specialization
+    public static final Object doSObject(final SObject receiver, final SRope argument) {
+      return doSObject(receiver, argument.getString());
+    }
   }
 
   @GenerateNodeFactory
@@ -117,6 +128,11 @@ public final class SystemPrims {
     public static final Object doSObject(final SObject receiver, final SSymbol argument) {
       return doSObject(receiver, argument.getString());
     }
+
+    @Specialization
+    public static final Object doSObject(final SObject receiver, final SRope argument) {
+      return doSObject(receiver, argument.getString());
+    }
   }
 
   @GenerateNodeFactory
@@ -160,6 +176,11 @@ public final class SystemPrims {
     public static final Object doSObject(final SObject receiver, final SSymbol argument) {
       return doSObject(receiver, argument.getString());
     }
+
+    @Specialization
+    public static final Object doSObject(final SObject receiver, final SRope argument) {
+      return doSObject(receiver, argument.getString());
+    }
   }
 
   @GenerateNodeFactory
@@ -10,6 +10,7 @@ import trufflesom.bdt.primitives.Primitive;
 import trufflesom.interpreter.nodes.nary.BinaryMsgExprNode;
 import trufflesom.vm.SymbolTable;
 import trufflesom.vmobjects.SObject;
+import trufflesom.vmobjects.SRope;
 import trufflesom.vmobjects.SSymbol;
 
 
@@ -50,6 +51,21 @@ public abstract class UnequalsPrim extends BinaryMsgExprNode {
     return !receiver.equals(argument);
   }
 
+  @Specialization
+  public static final boolean doString(final String receiver, final SRope argument) {
+    return !argument.contentEquals(receiver);
+  }
+
+  @Specialization
+  public static final boolean doSRope(final SRope receiver, final String argument) {
+    return !receiver.contentEquals(argument);
+  }
+
+  @Specialization
+  public static final boolean doSRope(final SRope receiver, final SRope argument) {
+    return !receiver.contentEquals(argument);
+  }
+
   @Specialization
   public static final boolean doDouble(final double left, final double right) {
     return left != right;
@@ -100,6 +116,12 @@ public abstract class UnequalsPrim extends BinaryMsgExprNode {
     return true;
   }
 
+  @Specialization
+  @SuppressWarnings("unused")
+  public static final boolean doLong(final long left, final SRope right) {
+    return true;
+  }
+
   @Specialization
   @SuppressWarnings("unused")
   public static final boolean doString(final String receiver, final long argument) {
@@ -123,4 +145,16 @@ public abstract class UnequalsPrim extends BinaryMsgExprNode {
   public static final boolean doSSymbol(final SSymbol receiver, final SObject argument) {
     return true;
   }
+
+  @Specialization
+  @SuppressWarnings("unused")
+  public static final boolean doSRope(final SRope receiver, final long argument) {
+    return true;
+  }
+
+  @Specialization
+  @SuppressWarnings("unused")
+  public static final boolean doSRope(final SRope receiver, final SObject argument) {
+    return true;
+  }
 }
@@ -24,6 +24,8 @@ import trufflesom.interpreter.nodes.MessageSendNode;
 import trufflesom.primitives.arrays.ToArgumentsArrayNode;
 import trufflesom.primitives.arrays.ToArgumentsArrayNodeFactory;
 import trufflesom.tools.nodestats.Tags.AnyNode;
+import trufflesom.vm.MethodCache;
+import trufflesom.vm.VmSettings;
 import trufflesom.vmobjects.SArray;
 import trufflesom.vmobjects.SInvokable;
 import trufflesom.vmobjects.SSymbol;
@@ -32,7 +34,7 @@ import trufflesom.vmobjects.SSymbol;
 @GenerateWrapper
 public abstract class AbstractSymbolDispatch extends Node
     implements WithSource, InstrumentableNode {
-  public static final int INLINE_CACHE_SIZE = 6;
+  public static final int INLINE_CACHE_SIZE = VmSettings.InlineCacheSize;
 
   private final long sourceCoord;
 
@@ -133,7 +135,7 @@ public abstract class AbstractSymbolDispatch extends Node
   public Object doUncached(final Object receiver, final SSymbol selector,
       @SuppressWarnings("unused") final Object argsArr,
       @Shared("indirect") @Cached final IndirectCallNode call) {
-    SInvokable invokable = Types.getClassOf(receiver).lookupInvokable(selector);
+    SInvokable invokable = MethodCache.lookup(Types.getClassOf(receiver), selector);
 
     Object[] arguments = {receiver};
 
@@ -145,7 +147,7 @@ public abstract class AbstractSymbolDispatch extends Node
   public Object doUncached(final Object receiver, final SSymbol selector, final SArray argsArr,
       @Shared("indirect") @Cached final IndirectCallNode call,
       @Shared("arg") @Cached("createArgArrayNode()") final ToArgumentsArrayNode toArgArray) {
-    SInvokable invokable = Types.getClassOf(receiver).lookupInvokable(selector);
+    SInvokable invokable = MethodCache.lookup(Types.getClassOf(receiver), selector);
 
     Object[] arguments = toArgArray.executedEvaluated(null, argsArr, receiver);
 
@@ -17,7 +17,7 @@ import trufflesom.vmobjects.SObject;
 
 
 public abstract class IndexDispatch extends Node implements DispatchChain {
-  public static final int INLINE_CACHE_SIZE = 6;
+  public static final int INLINE_CACHE_SIZE = VmSettings.InlineCacheSize;
 
   @NeverDefault
   public static IndexDispatch create() {
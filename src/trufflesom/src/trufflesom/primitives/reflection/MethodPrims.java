@@ -54,6 +54,7 @@ public final class MethodPrims {
       executeWith = {"somArr", "target"})
   @Primitive(selector = "invokeOn:with:", extraChild = ToArgumentsArrayNodeFactory.class)
   public abstract static class InvokeOnPrim extends EagerlySpecializableNode {
+    protected static final int INLINE_CACHE_SIZE = AbstractDispatchNode.INLINE_CACHE_SIZE;
 
     public abstract Object executeEvaluated(VirtualFrame frame, SInvokable receiver,
         Object target, SArray somArr);
@@ -65,7 +66,7 @@ public final class MethodPrims {
     }
 
     @Specialization(guards = "receiver == cachedReceiver",
-        limit = "" + AbstractDispatchNode.INLINE_CACHE_SIZE)
+        limit = "INLINE_CACHE_SIZE")
     @SuppressWarnings("unused")
     public static final Object doCached(
         final SInvokable receiver, final Object target, final SArray somArr,
@@ -0,0 +1,92 @@
+package trufflesom.tools.dispatchstats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The state of the dispatch chain of a single call site at the end of the execution,
+ * together with how often it was executed and rewritten.
+ */
+public final class CallSiteStats {
+  public static final class Entry {
+    final String nodeType;
+    final long   hits;
+    final long   guardFailures;
+
+    public Entry(final String nodeType, final long hits, final long guardFailures) {
+      this.nodeType = nodeType;
+      this.hits = hits;
+      this.guardFailures = guardFailures;
+    }
+  }
+
+  final String location;
+  final String selector;
+
+  private final List<Entry> entries;
+
+  private long rewrites;
+  private long genericDispatches;
+  private int  dnuEntries;
+
+  private boolean megamorphic;
+
+  public CallSiteStats(final String location, final String selector) {
+    this.location = location;
+    this.selector = selector;
+    this.entries = new ArrayList<>();
+  }
+
+  public void addEntry(final Entry entry, final boolean isDnu) {
+    entries.add(entry);
+    if (isDnu) {
+      dnuEntries += 1;
+    }
+  }
+
+  public void addRewrites(final long n) {
+    rewrites += n;
+  }
+
+  public void setGeneric(final long dispatches) {
+    megamorphic = true;
+    genericDispatches = dispatches;
+  }
+
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  public long getRewrites() {
+    return rewrites;
+  }
+
+  public long getGenericDispatches() {
+    return genericDispatches;
+  }
+
+  public int getDnuEntries() {
+    return dnuEntries;
+  }
+
+  public boolean isMegamorphic() {
+    return megamorphic;
+  }
+
+  public long getGuardFailures() {
+    long sum = 0;
+    for (Entry e : entries) {
+      sum += e.guardFailures;
+    }
+    return sum;
+  }
+
+  /**
+   * Sends that fail guards or use the generic lookup are slow in the steady state,
+   * which is what the score is meant to highlight.
+   */
+  public long getScore() {
+    return getGuardFailures() + genericDispatches;
+  }
+}
@@ -0,0 +1,18 @@
+package trufflesom.tools.dispatchstats;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+
+
+public class DispatchActivation extends ExecutionEventNode {
+  private long activations;
+
+  public long getActivations() {
+    return activations;
+  }
+
+  @Override
+  protected void onEnter(final VirtualFrame frame) {
+    activations += 1;
+  }
+}
@@ -0,0 +1,23 @@
+package trufflesom.tools.dispatchstats;
+
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionStability;
+
+import com.oracle.truffle.api.Option;
+
+
+@Option.Group(DispatchStatsTool.ID)
+class DispatchStatsCLI {
+  @Option(name = "",
+      help = "Enable DispatchStatsTool.",
+      category = OptionCategory.USER,
+      stability = OptionStability.EXPERIMENTAL) //
+  static final OptionKey<Boolean> ENABLED = new OptionKey<>(false);
+
+  @Option(name = "OutputFile",
+      help = "Save output to the given file.",
+      category = OptionCategory.USER,
+      stability = OptionStability.EXPERIMENTAL) //
+  static final OptionKey<String> OUTPUT_FILE = new OptionKey<>("dispatch-stats.yml");
+}
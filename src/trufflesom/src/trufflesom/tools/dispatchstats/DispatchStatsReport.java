@@ -0,0 +1,92 @@
+package trufflesom.tools.dispatchstats;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import trufflesom.tools.dispatchstats.CallSiteStats.Entry;
+
+
+public class DispatchStatsReport {
+  private static final class ScoredLocationOrder implements Comparator<CallSiteStats> {
+    @Override
+    public int compare(final CallSiteStats s1, final CallSiteStats s2) {
+      int score = Long.compare(s2.getScore(), s1.getScore());
+      if (score != 0) {
+        return score;
+      }
+
+      int rewrites = Long.compare(s2.getRewrites(), s1.getRewrites());
+      if (rewrites != 0) {
+        return rewrites;
+      }
+
+      return s1.location.compareTo(s2.location);
+    }
+  }
+
+  private static void reportSummary(final List<CallSiteStats> sites,
+      final StringBuilder builder, final String indent) {
+    long megamorphic = sites.stream().filter(CallSiteStats::isMegamorphic).count();
+    long rewrites = sites.stream().mapToLong(CallSiteStats::getRewrites).sum();
+    long guardFailures = sites.stream().mapToLong(CallSiteStats::getGuardFailures).sum();
+    long generic = sites.stream().mapToLong(CallSiteStats::getGenericDispatches).sum();
+
+    builder.append(indent).append("call-sites: ").append(sites.size()).append('\n');
+    builder.append(indent).append("megamorphic-sites: ").append(megamorphic).append('\n');
+    builder.append(indent).append("rewrites: ").append(rewrites).append('\n');
+    builder.append(indent).append("guard-failures: ").append(guardFailures).append('\n');
+    builder.append(indent).append("generic-dispatches: ").append(generic).append('\n');
+  }
+
+  private static void reportSite(final CallSiteStats site, final StringBuilder builder,
+      final String indent) {
+    builder.append(indent).append("- location: '").append(site.location).append("'\n");
+
+    String i = indent + "  ";
+    builder.append(i).append("selector: '").append(site.selector).append("'\n");
+    builder.append(i).append("megamorphic: ").append(site.isMegamorphic()).append('\n');
+    builder.append(i).append("cache-entries: ").append(site.getEntries().size()).append('\n');
+    builder.append(i).append("dnu-entries: ").append(site.getDnuEntries()).append('\n');
+    builder.append(i).append("rewrites: ").append(site.getRewrites()).append('\n');
+    builder.append(i).append("guard-failures: ").append(site.getGuardFailures()).append('\n');
+    builder.append(i).append("generic-dispatches: ").append(site.getGenericDispatches())
+           .append('\n');
+
+    if (site.getEntries().isEmpty()) {
+      return;
+    }
+
+    builder.append(i).append("entries:\n");
+    for (Entry e : site.getEntries()) {
+      builder.append(i).append("  - { node: ").append(e.nodeType);
+      builder.append(", hits: ").append(e.hits);
+      builder.append(", guard-failures: ").append(e.guardFailures);
+      builder.append(" }\n");
+    }
+  }
+
+  public static String createReport(final List<CallSiteStats> sites) {
+    StringBuilder builder = new StringBuilder();
+
+    builder.append("# Dispatch Statistics Report\n");
+    builder.append("# Covers sends with a dispatch chain, in the AST and the bytecode\n");
+    builder.append("# interpreter, which does not use its PICs when the tool is enabled.\n");
+    builder.append("# Super sends and sends specialized to primitives are not included.\n");
+    builder.append("report:\n");
+
+    reportSummary(sites, builder, "  ");
+
+    builder.append('\n');
+    builder.append("  sites:\n");
+
+    List<CallSiteStats> sorted = sites.stream()
+                                      .sorted(new ScoredLocationOrder())
+                                      .collect(Collectors.toList());
+    for (CallSiteStats site : sorted) {
+      reportSite(site, builder, "    ");
+    }
+
+    return builder.toString();
+  }
+}
@@ -0,0 +1,192 @@
+package trufflesom.tools.dispatchstats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.options.OptionDescriptors;
+
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Registration;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.SourceSection;
+
+import trufflesom.interpreter.nodes.GenericMessageSendNode;
+import trufflesom.interpreter.nodes.SOMNode;
+import trufflesom.interpreter.nodes.dispatch.AbstractDispatchNode;
+import trufflesom.interpreter.nodes.dispatch.CachedDnuNode;
+import trufflesom.interpreter.nodes.dispatch.GenericDispatchNode;
+import trufflesom.interpreter.nodes.dispatch.UninitializedDispatchNode;
+import trufflesom.tools.dispatchstats.CallSiteStats.Entry;
+import trufflesom.tools.nodestats.Tags.AnyNode;
+
+
+/**
+ * The {@link DispatchStatsTool} is a Truffle instrumentation tool that reports
+ * the state of the dispatch chains of all executed call sites at the end of an execution.
+ *
+ * <p>
+ * For each call site, it reports how often the chain was rewritten, how often the guards
+ * of its cache entries failed, its DNU entries, and how often megamorphic sites used the
+ * generic lookup.
+ *
+ * <p>
+ * It covers the sends that use a dispatch chain, i.e., {@link GenericMessageSendNode}s.
+ * In the bytecode interpreter, these are the Q_SEND bytecodes. Since the interpreter
+ * does not install PICs when instrumentation is enabled, there are no Q_SEND_PIC sends.
+ */
+@Registration(name = "Dispatch Statistics", id = DispatchStatsTool.ID, version = "0.1",
+    services = {DispatchStatsTool.class})
+public class DispatchStatsTool extends TruffleInstrument {
+
+  public static final String ID = "dispatchstats";
+
+  private final Map<Node, DispatchActivation> activations;
+
+  /** Activations of the uninitialized dispatch nodes of a send, i.e., its rewrites. */
+  private final Map<GenericMessageSendNode, List<DispatchActivation>> rewrites;
+
+  public DispatchStatsTool() {
+    activations = new HashMap<>();
+    rewrites = new HashMap<>();
+  }
+
+  @Override
+  protected void onCreate(final Env env) {
+    if (env.getOptions().get(DispatchStatsCLI.ENABLED)) {
+      instrumentDispatchNodes(env.getInstrumenter());
+    }
+
+    env.registerService(this);
+  }
+
+  private void instrumentDispatchNodes(final Instrumenter instrumenter) {
+    SourceSectionFilter forAnyNode =
+        SourceSectionFilter.newBuilder().tagIs(AnyNode.class).build();
+
+    ExecutionEventNodeFactory factory = (final EventContext ctx) -> {
+      Node instrumentedNode = ctx.getInstrumentedNode();
+      if (!(instrumentedNode instanceof AbstractDispatchNode)) {
+        return null;
+      }
+
+      DispatchActivation activation = new DispatchActivation();
+      activations.put(instrumentedNode, activation);
+
+      if (instrumentedNode instanceof UninitializedDispatchNode) {
+        GenericMessageSendNode send = getSendNode(instrumentedNode);
+        if (send != null) {
+          rewrites.computeIfAbsent(send, s -> new ArrayList<>()).add(activation);
+        }
+      }
+      return activation;
+    };
+
+    instrumenter.attachExecutionEventFactory(forAnyNode, factory);
+  }
+
+  private static GenericMessageSendNode getSendNode(final Node dispatchNode) {
+    Node n = dispatchNode.getParent();
+    while (n != null && !(n instanceof GenericMessageSendNode)) {
+      n = n.getParent();
+    }
+    return (GenericMessageSendNode) n;
+  }
+
+  @Override
+  protected void onDispose(final Env env) {
+    if (env.getOptions().get(DispatchStatsCLI.ENABLED)) {
+      String outputFile = env.getOptions().get(DispatchStatsCLI.OUTPUT_FILE);
+      writeReport(outputFile);
+    }
+  }
+
+  @Override
+  protected OptionDescriptors getOptionDescriptors() {
+    return new DispatchStatsCLIOptionDescriptors();
+  }
+
+  private long getActivations(final Node node) {
+    DispatchActivation a = activations.get(node);
+    if (a == null) {
+      return 0;
+    }
+    return a.getActivations();
+  }
+
+  private List<CallSiteStats> collectCallSites() {
+    List<CallSiteStats> sites = new ArrayList<>();
+
+    for (Map.Entry<GenericMessageSendNode, List<DispatchActivation>> e : rewrites.entrySet()) {
+      long numRewrites = 0;
+      for (DispatchActivation a : e.getValue()) {
+        numRewrites += a.getActivations();
+      }
+
+      if (numRewrites == 0) {
+        // the send was never executed
+        continue;
+      }
+
+      GenericMessageSendNode send = e.getKey();
+      CallSiteStats site = new CallSiteStats(
+          getLocation(send), send.getInvocationIdentifier().getString());
+      site.addRewrites(numRewrites);
+
+      AbstractDispatchNode d = SOMNode.unwrapIfNeeded(send.getDispatchNode());
+      while (d.getNextInCache() != null) {
+        long hits = d.getHits();
+        long guardFailures = Math.max(0, getActivations(d) - hits);
+        site.addEntry(new Entry(d.getClass().getSimpleName(), hits, guardFailures),
+            d instanceof CachedDnuNode);
+        d = SOMNode.unwrapIfNeeded(d.getNextInCache());
+      }
+
+      if (d instanceof GenericDispatchNode) {
+        site.setGeneric(getActivations(d));
+      }
+      sites.add(site);
+    }
+    return sites;
+  }
+
+  private static String getLocation(final Node node) {
+    SourceSection section = node.getSourceSection();
+    if (section == null) {
+      return "unknown";
+    }
+    return section.getSource().getName() + ":" + section.getStartLine() + ":"
+        + section.getStartColumn();
+  }
+
+  private void writeReport(final String outputFile) {
+    List<CallSiteStats> sites = collectCallSites();
+
+    println("[ds] Dispatch Statistics");
+    println("[ds] -------------------\n");
+    println("[ds] Output File:         " + outputFile);
+    println("[ds] Number of Sites:     " + sites.size());
+
+    String report = DispatchStatsReport.createReport(sites);
+
+    try {
+      Files.write(Paths.get(outputFile), report.getBytes());
+    } catch (IOException e) {
+      throw new RuntimeException("Could not write Dispatch Statistics: " + e);
+    }
+  }
+
+  public static void println(final String msg) {
+    // Checkstyle: stop
+    System.out.println(msg);
+    // Checkstyle: resume
+  }
+}
@@ -0,0 +1,75 @@
+package trufflesom.vm;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable;
+import trufflesom.vmobjects.SSymbol;
+
+
+/**
+ * A VM-wide cache for method lookups, indexed by the receiver class and selector.
+ *
+ * <p>
+ * It is used by megamorphic sends, which would otherwise do a full lookup, possibly along
+ * the whole superclass chain, for every send. The cache has a fixed size, and colliding
+ * entries simply replace each other. Failed lookups are not cached.
+ *
+ * <p>
+ * Since lookup results depend on the method dictionaries and superclasses of all classes,
+ * any change to them invalidates the whole cache. These changes happen only while loading
+ * classes, so the cache is stable once a program runs. The cache is also cleared when a
+ * context is disposed, so that it does not keep the classes of the context alive.
+ */
+public final class MethodCache {
+  private static final int SIZE = 1024;
+  private static final int MASK = SIZE - 1;
+
+  private static final Entry[] entries = new Entry[SIZE];
+
+  private MethodCache() {}
+
+  @TruffleBoundary
+  public static SInvokable lookup(final SClass rcvrClass, final SSymbol selector) {
+    int idx = index(rcvrClass, selector);
+
+    // read the entry only once, another thread may replace it concurrently
+    Entry entry = entries[idx];
+    if (entry != null && entry.rcvrClass == rcvrClass && entry.selector == selector) {
+      return entry.invokable;
+    }
+
+    SInvokable invokable = rcvrClass.lookupInvokable(selector);
+    if (invokable != null) {
+      entries[idx] = new Entry(rcvrClass, selector, invokable);
+    }
+    return invokable;
+  }
+
+  private static int index(final SClass rcvrClass, final SSymbol selector) {
+    int hash = System.identityHashCode(rcvrClass) * 31 + System.identityHashCode(selector);
+    return (hash ^ (hash >>> 16)) & MASK;
+  }
+
+  /**
+   * Invalidate all entries. Needs to be called whenever a method dictionary or a
+   * superclass changes.
+   */
+  public static void invalidate() {
+    Arrays.fill(entries, null);
+  }
+
+  private static final class Entry {
+    private final SClass     rcvrClass;
+    private final SSymbol    selector;
+    private final SInvokable invokable;
+
+    Entry(final SClass rcvrClass, final SSymbol selector, final SInvokable invokable) {
+      this.rcvrClass = rcvrClass;
+      this.selector = selector;
+      this.invokable = invokable;
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package trufflesom.vm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+
+/**
+ * Writes the reports of the diagnostic tools, e.g., the bytecode profile, to the file
+ * configured for them. They are written when the context is disposed.
+ */
+public final class ReportWriter {
+  private ReportWriter() {}
+
+  public static void write(final String file, final String report, final String what) {
+    try {
+      Files.write(Paths.get(file), report.getBytes());
+    } catch (IOException e) {
+      throw new RuntimeException("Could not write " + what + " to " + file, e);
+    }
+  }
+}
@@ -62,7 +62,9 @@ import trufflesom.bdt.tools.structure.StructuralProbe;
 import trufflesom.compiler.Disassembler;
 import trufflesom.compiler.Field;
 import trufflesom.compiler.SourcecodeCompiler;
+import trufflesom.compiler.SourcecodeCompiler.BcCompiler;
 import trufflesom.compiler.Variable;
+import trufflesom.compiler.bc.BytecodeCache;
 import trufflesom.primitives.Primitives;
 import trufflesom.vm.constants.Nil;
 import trufflesom.vmobjects.SArray;
@@ -89,6 +91,10 @@ public final class Universe {
 
   private static SourcecodeCompiler sourceCompiler;
 
+  private static final BytecodeCache bytecodeCache = VmSettings.BytecodeCacheDir == null
+      ? null
+      : new BytecodeCache(new File(VmSettings.BytecodeCacheDir));
+
   private static StructuralProbe<SSymbol, SClass, SInvokable, Field, Variable> structuralProbe;
 
   @CompilationFinal private static boolean alreadyInitialized;
@@ -361,7 +367,7 @@ public final class Universe {
 
     // Load the system class and create an instance of it
     systemClass = loadClass(symbolFor("System"));
-    systemObject = new SObject(systemClass);
+    systemObject = SObject.create(systemClass);
 
     // Put special objects into the dictionary of globals
     setGlobal("nil", nilObject);
@@ -488,8 +494,15 @@ public final class Universe {
     for (String cpEntry : classPath) {
       try {
         // Load the class from a file and return the loaded class
-        SClass result = sourceCompiler.compileClass(
-            cpEntry, name.getString(), sysClass, structuralProbe);
+        SClass result;
+        if (bytecodeCache != null && structuralProbe == null
+            && sourceCompiler instanceof BcCompiler) {
+          result = bytecodeCache.compileClass(
+              sourceCompiler, cpEntry, name.getString(), sysClass);
+        } else {
+          result = sourceCompiler.compileClass(
+              cpEntry, name.getString(), sysClass, structuralProbe);
+        }
         if (printIR > 0) {
           Disassembler.dump(result.getSOMClass());
           Disassembler.dump(result);
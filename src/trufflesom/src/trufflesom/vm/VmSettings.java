@@ -9,6 +9,60 @@ public class VmSettings {
 
   public static final boolean UseInstrumentation;
 
+  /** Count the hits of inline cache entries for the dispatch statistics tool. */
+  public static final boolean CollectDispatchStats;
+
+  /**
+   * Keep the operand stack of the bytecode interpreter in frame slots
+   * instead of allocating an array for each activation.
+   */
+  public static final boolean UseFrameSlotStack;
+
+  /**
+   * Guard sends to objects by their class instead of their object layout,
+   * so that layout changes do not add new entries to inline caches.
+   */
+  public static final boolean UseClassDispatchGuards;
+
+  /** Maximum number of entries in the inline cache of a send. */
+  public static final int InlineCacheSize;
+
+  /**
+   * Maximum number of object layouts cached by a field access. Field caches are separate
+   * from inline caches of sends, and by default have the same size.
+   */
+  public static final int FieldCacheSize;
+
+  /**
+   * Number of most frequently used entries of an inline cache that are kept
+   * when a send becomes megamorphic. With 0, the whole cache is replaced.
+   */
+  public static final int InlineCacheHotEntries;
+
+  /** Directory for the bytecode cache, or null, if caching is disabled. */
+  public static final String BytecodeCacheDir;
+
+  /** File to write the bytecode profile to, or null, if profiling is disabled. */
+  public static final String BytecodeProfileFile;
+
+  /** File to write the layout transition trace to, or null, if tracing is disabled. */
+  public static final String LayoutTraceFile;
+
+  /**
+   * Minimum length of long and double arrays to be stored off-heap,
+   * or 0, if off-heap storage is disabled.
+   */
+  public static final int OffHeapArrayThreshold;
+
+  /** Split methods with megamorphic block sends for each of their callers. */
+  public static final boolean SplitBlockDispatch;
+
+  /** File to write the megamorphic block sends to, or null, if reporting is disabled. */
+  public static final String BlockDispatchReportFile;
+
+  /** Whether megamorphic block sends need to be tracked. */
+  public static final boolean TrackBlockDispatch;
+
   static {
     String val = System.getProperty("som.interp", "AST").toUpperCase();
     UseAstInterp = "AST".equals(val);
@@ -24,9 +78,45 @@ public class VmSettings {
 
     val = System.getProperty("polyglot.nodestats", "false");
     String val2 = System.getProperty("polyglot.coverage", "false");
-    UseInstrumentation = "true".equals(val) || "true".equals(val2);
+    String val3 = System.getProperty("polyglot.dispatchstats", "false");
+    CollectDispatchStats = "true".equals(val3);
+    UseInstrumentation = "true".equals(val) || "true".equals(val2) || CollectDispatchStats;
 
     val = System.getProperty("som.printStackTraceOnDNU", "false");
     PrintStackTraceOnDNU = "true".equals(val);
+
+    val = System.getProperty("som.frameSlotStack", "false");
+    UseFrameSlotStack = UseBcInterp && "true".equals(val);
+
+    val = System.getProperty("som.classDispatchGuards", "false");
+    UseClassDispatchGuards = "true".equals(val);
+
+    InlineCacheSize = Integer.parseInt(System.getProperty("som.inlineCacheSize", "6"));
+    if (InlineCacheSize < 1) {
+      throw new IllegalStateException("The Java property -Dsom.inlineCacheSize="
+          + InlineCacheSize + " was set, but the inline cache needs at least one entry.");
+    }
+
+    FieldCacheSize = Integer.parseInt(
+        System.getProperty("som.fieldCacheSize", String.valueOf(InlineCacheSize)));
+    if (FieldCacheSize < 1) {
+      throw new IllegalStateException("The Java property -Dsom.fieldCacheSize="
+          + FieldCacheSize + " was set, but the field cache needs at least one entry.");
+    }
+
+    int hotEntries = Integer.parseInt(System.getProperty("som.inlineCacheHotEntries", "0"));
+    InlineCacheHotEntries = Math.max(0, Math.min(hotEntries, InlineCacheSize - 1));
+
+    BytecodeCacheDir = UseBcInterp ? System.getProperty("som.bytecodeCache") : null;
+    BytecodeProfileFile = UseBcInterp ? System.getProperty("som.bytecodeProfile") : null;
+    LayoutTraceFile = System.getProperty("som.layoutTrace");
+
+    OffHeapArrayThreshold = Integer.parseInt(
+        System.getProperty("som.offHeapArrayThreshold", "0"));
+
+    val = System.getProperty("som.splitBlockDispatch", "false");
+    SplitBlockDispatch = "true".equals(val);
+    BlockDispatchReportFile = System.getProperty("som.blockDispatchReport");
+    TrackBlockDispatch = SplitBlockDispatch || BlockDispatchReportFile != null;
   }
 }
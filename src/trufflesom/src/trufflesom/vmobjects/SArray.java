@@ -1,10 +1,17 @@
 package trufflesom.vmobjects;
 
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
 import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 
+import sun.misc.Unsafe;
+import trufflesom.interpreter.objectstorage.UnsafeUtil;
 import trufflesom.vm.Classes;
+import trufflesom.vm.VmSettings;
 import trufflesom.vm.constants.Nil;
 
 
@@ -71,6 +78,47 @@ public final class SArray extends SAbstractObject {
     return (boolean[]) storage;
   }
 
+  /** Byte storage holds the elements as unsigned values, i.e., from 0 to 255. */
+  public byte[] getByteStorage() {
+    assert isByteType();
+    return (byte[]) storage;
+  }
+
+  public int[] getIntStorage() {
+    assert isIntType();
+    return (int[]) storage;
+  }
+
+  public PartiallyFilledArray getPartiallyFilledStorage() {
+    assert isPartiallyFilledType();
+    return (PartiallyFilledArray) storage;
+  }
+
+  public PartiallyFilledLongArray getPartiallyFilledLongStorage() {
+    assert isPartiallyFilledLongType();
+    return (PartiallyFilledLongArray) storage;
+  }
+
+  public PartiallyFilledDoubleArray getPartiallyFilledDoubleStorage() {
+    assert isPartiallyFilledDoubleType();
+    return (PartiallyFilledDoubleArray) storage;
+  }
+
+  public PartiallyFilledBooleanArray getPartiallyFilledBooleanStorage() {
+    assert isPartiallyFilledBooleanType();
+    return (PartiallyFilledBooleanArray) storage;
+  }
+
+  public OffHeapLongArray getOffHeapLongStorage() {
+    assert isOffHeapLongType();
+    return (OffHeapLongArray) storage;
+  }
+
+  public OffHeapDoubleArray getOffHeapDoubleStorage() {
+    assert isOffHeapDoubleType();
+    return (OffHeapDoubleArray) storage;
+  }
+
   public boolean isEmptyType() {
     return storage.getClass() == Integer.class;
   }
@@ -95,6 +143,38 @@ public final class SArray extends SAbstractObject {
     return storage.getClass() == boolean[].class;
   }
 
+  public boolean isByteType() {
+    return storage.getClass() == byte[].class;
+  }
+
+  public boolean isIntType() {
+    return storage.getClass() == int[].class;
+  }
+
+  public boolean isPartiallyFilledType() {
+    return storage instanceof PartiallyFilledArray;
+  }
+
+  public boolean isPartiallyFilledLongType() {
+    return storage.getClass() == PartiallyFilledLongArray.class;
+  }
+
+  public boolean isPartiallyFilledDoubleType() {
+    return storage.getClass() == PartiallyFilledDoubleArray.class;
+  }
+
+  public boolean isPartiallyFilledBooleanType() {
+    return storage.getClass() == PartiallyFilledBooleanArray.class;
+  }
+
+  public boolean isOffHeapLongType() {
+    return storage.getClass() == OffHeapLongArray.class;
+  }
+
+  public boolean isOffHeapDoubleType() {
+    return storage.getClass() == OffHeapDoubleArray.class;
+  }
+
   /**
    * Creates and empty array, using the EMPTY strategy.
    *
@@ -116,14 +196,34 @@ public final class SArray extends SAbstractObject {
     storage = new PartiallyEmptyArray(type, length, idx, val);
   }
 
+  private static boolean useOffHeapStorage(final int length) {
+    return VmSettings.OffHeapArrayThreshold > 0 && length >= VmSettings.OffHeapArrayThreshold;
+  }
+
   /**
    * Transition from the Empty, to the PartiallyEmpty state/strategy.
+   * Arrays of at least {@link VmSettings#OffHeapArrayThreshold} elements transition
+   * directly to the off-heap strategy instead, in which unset elements are nil.
    */
   public void transitionFromEmptyToPartiallyEmptyWith(final long idx, final long val) {
+    int length = getEmptyStorage();
+    if (useOffHeapStorage(length) && OffHeapLongArray.canStore(val)) {
+      OffHeapLongArray arr = new OffHeapLongArray(length);
+      arr.set(idx, val);
+      storage = arr;
+      return;
+    }
     fromEmptyToParticalWithType(PartiallyEmptyArray.Type.LONG, idx, val);
   }
 
   public void transitionFromEmptyToPartiallyEmptyWith(final long idx, final double val) {
+    int length = getEmptyStorage();
+    if (useOffHeapStorage(length) && OffHeapDoubleArray.canStore(val)) {
+      OffHeapDoubleArray arr = new OffHeapDoubleArray(length);
+      arr.set(idx, val);
+      storage = arr;
+      return;
+    }
     fromEmptyToParticalWithType(PartiallyEmptyArray.Type.DOUBLE, idx, val);
   }
 
@@ -165,6 +265,78 @@ public final class SArray extends SAbstractObject {
     storage = arr;
   }
 
+  public static boolean fitsInByte(final long val) {
+    return 0 <= val && val <= 0xFF;
+  }
+
+  public static boolean fitsInInt(final long val) {
+    return Integer.MIN_VALUE <= val && val <= Integer.MAX_VALUE;
+  }
+
+  /**
+   * Creates the narrowest storage that can hold all the given long values,
+   * i.e., byte[], int[], or long[] storage.
+   */
+  private static Object createLongOrNarrower(final Object[] arr) {
+    long min = 0;
+    long max = 0;
+    for (Object o : arr) {
+      long val = (long) o;
+      min = Math.min(min, val);
+      max = Math.max(max, val);
+    }
+
+    if (fitsInByte(min) && fitsInByte(max)) {
+      return createByte(arr);
+    }
+    if (fitsInInt(min) && fitsInInt(max)) {
+      return createInt(arr);
+    }
+    return createLong(arr);
+  }
+
+  /** Like {@link #createLongOrNarrower(Object[])}, but reuses the given array for longs. */
+  private static Object createLongOrNarrower(final long[] arr) {
+    long min = 0;
+    long max = 0;
+    for (long val : arr) {
+      min = Math.min(min, val);
+      max = Math.max(max, val);
+    }
+
+    if (fitsInByte(min) && fitsInByte(max)) {
+      byte[] storage = new byte[arr.length];
+      for (int i = 0; i < arr.length; i++) {
+        storage[i] = (byte) arr[i];
+      }
+      return storage;
+    }
+    if (fitsInInt(min) && fitsInInt(max)) {
+      int[] storage = new int[arr.length];
+      for (int i = 0; i < arr.length; i++) {
+        storage[i] = (int) arr[i];
+      }
+      return storage;
+    }
+    return arr;
+  }
+
+  private static byte[] createByte(final Object[] arr) {
+    byte[] storage = new byte[arr.length];
+    for (int i = 0; i < arr.length; i++) {
+      storage[i] = (byte) (long) arr[i];
+    }
+    return storage;
+  }
+
+  private static int[] createInt(final Object[] arr) {
+    int[] storage = new int[arr.length];
+    for (int i = 0; i < arr.length; i++) {
+      storage[i] = (int) (long) arr[i];
+    }
+    return storage;
+  }
+
   private static long[] createLong(final Object[] arr) {
     long[] storage = new long[arr.length];
     for (int i = 0; i < arr.length; i++) {
@@ -199,7 +371,7 @@ public final class SArray extends SAbstractObject {
 
     if (arr.isFull()) {
       if (arr.type == PartiallyEmptyArray.Type.LONG) {
-        storage = createLong(arr.getStorage());
+        storage = createLongOrNarrower(arr.getStorage());
       } else if (arr.type == PartiallyEmptyArray.Type.DOUBLE) {
         storage = createDouble(arr.getStorage());
       } else if (arr.type == PartiallyEmptyArray.Type.BOOLEAN) {
@@ -210,6 +382,28 @@ public final class SArray extends SAbstractObject {
     }
   }
 
+  /**
+   * Once all elements are set, the primitive array becomes the storage itself.
+   * Long arrays transition to the narrowest storage that can hold their elements.
+   */
+  public void ifFullTransitionPartiallyFilled() {
+    PartiallyFilledArray arr = getPartiallyFilledStorage();
+    if (!arr.isFull()) {
+      return;
+    }
+
+    if (arr instanceof PartiallyFilledLongArray) {
+      storage = createLongOrNarrower(((PartiallyFilledLongArray) arr).arr);
+    } else {
+      storage = arr.getStorage();
+    }
+  }
+
+  /** For changes that would leave a gap in the filled elements, or change their type. */
+  public void transitionPartiallyFilledToPartiallyEmpty() {
+    storage = getPartiallyFilledStorage().toPartiallyEmpty();
+  }
+
   public static final class PartiallyEmptyArray {
     private final Object[] arr;
     private int            emptyElements;
@@ -236,6 +430,24 @@ public final class SArray extends SAbstractObject {
       type = old.type;
     }
 
+    private PartiallyEmptyArray(final Type type, final Object[] arr,
+        final int emptyElements) {
+      this.arr = arr;
+      this.emptyElements = emptyElements;
+      this.type = type;
+    }
+
+    /**
+     * Create a partially empty array of the given length, starting with the given
+     * elements, which are all non-nil values of the given type, followed by nils.
+     */
+    public static PartiallyEmptyArray createWithLength(final Type type,
+        final Object[] elements, final int length) {
+      Object[] arr = Arrays.copyOf(elements, length);
+      Arrays.fill(arr, elements.length, length, Nil.nilObject);
+      return new PartiallyEmptyArray(type, arr, length - elements.length);
+    }
+
     public Type getType() {
       return type;
     }
@@ -275,6 +487,449 @@ public final class SArray extends SAbstractObject {
     public PartiallyEmptyArray copy() {
       return new PartiallyEmptyArray(this);
     }
+
+    public PartiallyEmptyArray copyWithLength(final int length) {
+      assert length >= arr.length;
+      Object[] newArr = Arrays.copyOf(arr, length);
+      Arrays.fill(newArr, arr.length, length, Nil.nilObject);
+      return new PartiallyEmptyArray(type, newArr, emptyElements + length - arr.length);
+    }
+  }
+
+  /**
+   * Storage of a grown primitive array, i.e., of long, double, or boolean elements.
+   * The first {@link #getFilled()} elements are set, and the remaining ones are nil.
+   * This is the state of a growing collection, which appends to its array and removes
+   * elements from its end. Setting the element after the filled ones, or nil to the last
+   * one, keeps the primitive storage. Other changes transition to a
+   * {@link PartiallyEmptyArray}.
+   */
+  public abstract static class PartiallyFilledArray {
+    protected int filled;
+
+    protected PartiallyFilledArray(final int filled) {
+      this.filled = filled;
+    }
+
+    public final int getFilled() {
+      return filled;
+    }
+
+    public abstract int getLength();
+
+    public final boolean isFull() {
+      return filled == getLength();
+    }
+
+    /** @return whether the element can be set without leaving a gap */
+    public final boolean canSet(final long idx) {
+      return idx <= filled;
+    }
+
+    /** @return whether the element can be set to nil without leaving a gap */
+    public final boolean canSetNil(final long idx) {
+      return idx >= filled - 1;
+    }
+
+    protected final void incFilledIfNext(final long idx) {
+      if (idx == filled) {
+        filled++;
+      }
+    }
+
+    public final void setNil(final long idx) {
+      assert canSetNil(idx);
+      if (idx >= getLength()) {
+        CompilerDirectives.transferToInterpreter();
+        throw new ArrayIndexOutOfBoundsException(
+            "Index " + idx + " out of bounds for length " + getLength());
+      }
+      if (idx == filled - 1) {
+        filled--;
+      }
+    }
+
+    /** @return the element at the given index, or nil, if it is not set */
+    public abstract Object get(long idx);
+
+    /** @return the primitive array holding the elements */
+    protected abstract Object getStorage();
+
+    protected abstract PartiallyEmptyArray.Type getType();
+
+    public abstract PartiallyFilledArray copy();
+
+    /** The elements beyond the length of this array are nil. */
+    public abstract PartiallyFilledArray copyWithLength(int length);
+
+    public final Object[] toObjectArray() {
+      int length = getLength();
+      Object[] arr = new Object[length];
+      for (int i = 0; i < length; i++) {
+        arr[i] = get(i);
+      }
+      return arr;
+    }
+
+    public final PartiallyEmptyArray toPartiallyEmpty() {
+      Object[] elements = new Object[filled];
+      for (int i = 0; i < filled; i++) {
+        elements[i] = get(i);
+      }
+      return PartiallyEmptyArray.createWithLength(getType(), elements, getLength());
+    }
+  }
+
+  public static final class PartiallyFilledLongArray extends PartiallyFilledArray {
+    private final long[] arr;
+
+    public PartiallyFilledLongArray(final long[] arr, final int filled) {
+      super(filled);
+      this.arr = arr;
+    }
+
+    @Override
+    public int getLength() {
+      return arr.length;
+    }
+
+    @Override
+    public Object get(final long idx) {
+      long val = arr[(int) idx];
+      if (idx >= filled) {
+        return Nil.nilObject;
+      }
+      return val;
+    }
+
+    /** @throws UnexpectedResultException with nil, if the element is not set */
+    public long getLong(final long idx) throws UnexpectedResultException {
+      long val = arr[(int) idx];
+      if (idx >= filled) {
+        throw new UnexpectedResultException(Nil.nilObject);
+      }
+      return val;
+    }
+
+    public void set(final long idx, final long val) {
+      assert canSet(idx);
+      arr[(int) idx] = val;
+      incFilledIfNext(idx);
+    }
+
+    @Override
+    protected Object getStorage() {
+      return arr;
+    }
+
+    @Override
+    protected PartiallyEmptyArray.Type getType() {
+      return PartiallyEmptyArray.Type.LONG;
+    }
+
+    @Override
+    public PartiallyFilledLongArray copy() {
+      return new PartiallyFilledLongArray(arr.clone(), filled);
+    }
+
+    @Override
+    public PartiallyFilledLongArray copyWithLength(final int length) {
+      return new PartiallyFilledLongArray(Arrays.copyOf(arr, length), filled);
+    }
+  }
+
+  public static final class PartiallyFilledDoubleArray extends PartiallyFilledArray {
+    private final double[] arr;
+
+    public PartiallyFilledDoubleArray(final double[] arr, final int filled) {
+      super(filled);
+      this.arr = arr;
+    }
+
+    @Override
+    public int getLength() {
+      return arr.length;
+    }
+
+    @Override
+    public Object get(final long idx) {
+      double val = arr[(int) idx];
+      if (idx >= filled) {
+        return Nil.nilObject;
+      }
+      return val;
+    }
+
+    /** @throws UnexpectedResultException with nil, if the element is not set */
+    public double getDouble(final long idx) throws UnexpectedResultException {
+      double val = arr[(int) idx];
+      if (idx >= filled) {
+        throw new UnexpectedResultException(Nil.nilObject);
+      }
+      return val;
+    }
+
+    public void set(final long idx, final double val) {
+      assert canSet(idx);
+      arr[(int) idx] = val;
+      incFilledIfNext(idx);
+    }
+
+    @Override
+    protected Object getStorage() {
+      return arr;
+    }
+
+    @Override
+    protected PartiallyEmptyArray.Type getType() {
+      return PartiallyEmptyArray.Type.DOUBLE;
+    }
+
+    @Override
+    public PartiallyFilledDoubleArray copy() {
+      return new PartiallyFilledDoubleArray(arr.clone(), filled);
+    }
+
+    @Override
+    public PartiallyFilledDoubleArray copyWithLength(final int length) {
+      return new PartiallyFilledDoubleArray(Arrays.copyOf(arr, length), filled);
+    }
+  }
+
+  public static final class PartiallyFilledBooleanArray extends PartiallyFilledArray {
+    private final boolean[] arr;
+
+    public PartiallyFilledBooleanArray(final boolean[] arr, final int filled) {
+      super(filled);
+      this.arr = arr;
+    }
+
+    @Override
+    public int getLength() {
+      return arr.length;
+    }
+
+    @Override
+    public Object get(final long idx) {
+      boolean val = arr[(int) idx];
+      if (idx >= filled) {
+        return Nil.nilObject;
+      }
+      return val;
+    }
+
+    public void set(final long idx, final boolean val) {
+      assert canSet(idx);
+      arr[(int) idx] = val;
+      incFilledIfNext(idx);
+    }
+
+    @Override
+    protected Object getStorage() {
+      return arr;
+    }
+
+    @Override
+    protected PartiallyEmptyArray.Type getType() {
+      return PartiallyEmptyArray.Type.BOOLEAN;
+    }
+
+    @Override
+    public PartiallyFilledBooleanArray copy() {
+      return new PartiallyFilledBooleanArray(arr.clone(), filled);
+    }
+
+    @Override
+    public PartiallyFilledBooleanArray copyWithLength(final int length) {
+      return new PartiallyFilledBooleanArray(Arrays.copyOf(arr, length), filled);
+    }
+  }
+
+  /**
+   * Storage of long or double elements outside of the Java heap, used for large arrays,
+   * which would otherwise put pressure on the garbage collector.
+   * Elements that were not set, or were set to nil, hold the {@link #UNSET} bit pattern.
+   * The memory is freed when the storage becomes unreachable. Since accesses use only the
+   * address, they keep the storage reachable with a fence until they completed.
+   */
+  public abstract static class OffHeapArray {
+    public static final long UNSET = SObject.UNSET_PRIMITIVE;
+
+    private static final Unsafe  unsafe  = UnsafeUtil.load();
+    private static final Cleaner cleaner = Cleaner.create();
+
+    private final long address;
+    private final int  length;
+
+    private static final class Deallocator implements Runnable {
+      private final long address;
+
+      Deallocator(final long address) {
+        this.address = address;
+      }
+
+      @Override
+      public void run() {
+        unsafe.freeMemory(address);
+      }
+    }
+
+    @TruffleBoundary
+    protected OffHeapArray(final int length) {
+      this.length = length;
+      this.address = unsafe.allocateMemory((long) length * Long.BYTES);
+      cleaner.register(this, new Deallocator(address));
+
+      for (long i = 0; i < length; i++) {
+        unsafe.putLong(address + i * Long.BYTES, UNSET);
+      }
+      Reference.reachabilityFence(this);
+    }
+
+    protected final long getRaw(final long idx) {
+      checkIndex(idx);
+      try {
+        return unsafe.getLong(address + idx * Long.BYTES);
+      } finally {
+        Reference.reachabilityFence(this);
+      }
+    }
+
+    protected final void setRaw(final long idx, final long val) {
+      checkIndex(idx);
+      try {
+        unsafe.putLong(address + idx * Long.BYTES, val);
+      } finally {
+        Reference.reachabilityFence(this);
+      }
+    }
+
+    private void checkIndex(final long idx) {
+      if (idx < 0 || idx >= length) {
+        CompilerDirectives.transferToInterpreter();
+        throw new ArrayIndexOutOfBoundsException(
+            "Index " + idx + " out of bounds for length " + length);
+      }
+    }
+
+    protected final void copyInto(final OffHeapArray copy) {
+      assert copy.length >= length;
+      try {
+        unsafe.copyMemory(address, copy.address, (long) length * Long.BYTES);
+      } finally {
+        Reference.reachabilityFence(this);
+        Reference.reachabilityFence(copy);
+      }
+    }
+
+    public final int getLength() {
+      return length;
+    }
+
+    public final void setNil(final long idx) {
+      setRaw(idx, UNSET);
+    }
+
+    /** @return the element at the given index, or nil, if it is not set */
+    public abstract Object get(long idx);
+
+    public final Object[] toObjectArray() {
+      Object[] arr = new Object[length];
+      for (int i = 0; i < length; i++) {
+        arr[i] = get(i);
+      }
+      return arr;
+    }
+  }
+
+  public static final class OffHeapLongArray extends OffHeapArray {
+    public OffHeapLongArray(final int length) {
+      super(length);
+    }
+
+    /** The {@link #UNSET} value itself cannot be stored, because it would read as nil. */
+    public static boolean canStore(final long val) {
+      return val != UNSET;
+    }
+
+    @Override
+    public Object get(final long idx) {
+      long val = getRaw(idx);
+      if (val == UNSET) {
+        return Nil.nilObject;
+      }
+      return val;
+    }
+
+    /** @throws UnexpectedResultException with nil, if the element is not set */
+    public long getLong(final long idx) throws UnexpectedResultException {
+      long val = getRaw(idx);
+      if (val == UNSET) {
+        throw new UnexpectedResultException(Nil.nilObject);
+      }
+      return val;
+    }
+
+    public void set(final long idx, final long val) {
+      assert canStore(val);
+      setRaw(idx, val);
+    }
+
+    public OffHeapLongArray copy() {
+      return copyWithLength(getLength());
+    }
+
+    /** The elements beyond the length of this array are nil. */
+    public OffHeapLongArray copyWithLength(final int length) {
+      OffHeapLongArray copy = new OffHeapLongArray(length);
+      copyInto(copy);
+      return copy;
+    }
+  }
+
+  public static final class OffHeapDoubleArray extends OffHeapArray {
+    public OffHeapDoubleArray(final int length) {
+      super(length);
+    }
+
+    /** The NaN with the {@link #UNSET} bit pattern cannot be stored. */
+    public static boolean canStore(final double val) {
+      return Double.doubleToRawLongBits(val) != UNSET;
+    }
+
+    @Override
+    public Object get(final long idx) {
+      long val = getRaw(idx);
+      if (val == UNSET) {
+        return Nil.nilObject;
+      }
+      return Double.longBitsToDouble(val);
+    }
+
+    /** @throws UnexpectedResultException with nil, if the element is not set */
+    public double getDouble(final long idx) throws UnexpectedResultException {
+      long val = getRaw(idx);
+      if (val == UNSET) {
+        throw new UnexpectedResultException(Nil.nilObject);
+      }
+      return Double.longBitsToDouble(val);
+    }
+
+    public void set(final long idx, final double val) {
+      assert canStore(val);
+      setRaw(idx, Double.doubleToRawLongBits(val));
+    }
+
+    public OffHeapDoubleArray copy() {
+      return copyWithLength(getLength());
+    }
+
+    /** The elements beyond the length of this array are nil. */
+    public OffHeapDoubleArray copyWithLength(final int length) {
+      OffHeapDoubleArray copy = new OffHeapDoubleArray(length);
+      copyInto(copy);
+      return copy;
+    }
   }
 
   /**
@@ -32,15 +32,18 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
 
 import trufflesom.compiler.Field;
 import trufflesom.interpreter.objectstorage.ObjectLayout;
 import trufflesom.vm.Classes;
+import trufflesom.vm.MethodCache;
 import trufflesom.vm.constants.Nil;
 
 
@@ -66,6 +69,7 @@ public final class SClass extends SObject {
   }
 
   public void resetSystemClass() {
+    methodsChanged();
     invokablesTable = null;
     superclass = Nil.nilObject;
     layoutForInstances = new ObjectLayout(0, this);
@@ -74,6 +78,7 @@ public final class SClass extends SObject {
   }
 
   public void resetMetaclassClass() {
+    methodsChanged();
     invokablesTable = null;
     superclass = Nil.nilObject;
     layoutForInstances = new ObjectLayout(0, this);
@@ -87,7 +92,13 @@ public final class SClass extends SObject {
 
   public void setSuperClass(final SClass value) {
     transferToInterpreterAndInvalidate();
+    methodsChanged();
     superclass = value;
+
+    // lookupInvokable() caches inherited invokables, which may be the old superclass's
+    if (invokablesTable != null) {
+      invokablesTable.values().removeIf(i -> i.getHolder() != this);
+    }
   }
 
   public boolean hasSuperClass() {
@@ -131,12 +142,12 @@ public final class SClass extends SObject {
     instanceFields = SArray.create(fieldNames);
 
     // Check and possibly update layout
-    if (layoutForInstances == null
-        || fields.size() != layoutForInstances.getNumberOfFields()) {
-      if (layoutForInstances != null) {
-        layoutForInstances.invalidate();
-      }
+    if (layoutForInstances == null) {
       layoutForInstances = new ObjectLayout(fields.size(), this);
+    } else if (fields.size() != layoutForInstances.getNumberOfFields()) {
+      // system classes get their fields only after nil, true, etc. were created
+      layoutForInstances.invalidate();
+      layoutForInstances = layoutForInstances.withNumberOfFields(fields.size());
     }
   }
 
@@ -162,6 +173,7 @@ public final class SClass extends SObject {
     this.hasPrimitives = hasPrimitives;
 
     transferToInterpreterAndInvalidate();
+    methodsChanged();
     if (value == null || value.isEmpty()) {
       assert invokablesTable == null;
       return;
@@ -236,6 +248,7 @@ public final class SClass extends SObject {
 
     value.setHolder(this);
     invokablesTable.put(value.getSignature(), value);
+    methodsChanged();
   }
 
   public SSymbol getInstanceFieldName(final int index) {
@@ -246,6 +259,44 @@ public final class SClass extends SObject {
     return instanceFields.getObjectStorage().length;
   }
 
+  /**
+   * @return an assumption that is valid as long as the invokables and the superclass
+   *         of this class do not change
+   */
+  public Assumption getMethodsUnchanged() {
+    return methodsUnchanged.getAssumption();
+  }
+
+  /**
+   * @return the assumptions that the methods of this class and its superclasses do not
+   *         change, which together guard the result of a lookup in this class
+   */
+  public Assumption[] getMethodsUnchangedInHierarchy() {
+    List<Assumption> assumptions = new ArrayList<>();
+    SClass c = this;
+    while (true) {
+      assumptions.add(c.getMethodsUnchanged());
+      if (!c.hasSuperClass()) {
+        return assumptions.toArray(new Assumption[0]);
+      }
+      c = (SClass) c.getSuperClass();
+    }
+  }
+
+  private void methodsChanged() {
+    methodsUnchanged.invalidate();
+    MethodCache.invalidate();
+  }
+
+  /**
+   * @return true, if the instances of this class are classes themselves, i.e.,
+   *         if this is a metaclass
+   */
+  public boolean hasClassesAsInstances() {
+    return clazz == Classes.metaclassClass || this == Classes.metaclassClass
+        || this == Classes.classClass;
+  }
+
   public boolean hasPrimitives() {
     return this.hasPrimitives || clazz.hasPrimitives;
   }
@@ -290,4 +341,6 @@ public final class SClass extends SObject {
   @CompilationFinal(dimensions = 1) private Field[] instanceFieldDefinitions;
 
   @CompilationFinal private ObjectLayout layoutForInstances;
+
+  private final CyclicAssumption methodsUnchanged = new CyclicAssumption("methods unchanged");
 }
@@ -33,9 +33,10 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
+import trufflesom.interpreter.objectstorage.LayoutTrace;
 import trufflesom.interpreter.objectstorage.ObjectLayout;
 import trufflesom.interpreter.objectstorage.StorageLocation;
-import trufflesom.interpreter.objectstorage.StorageLocation.AbstractObjectStorageLocation;
+import trufflesom.vm.VmSettings;
 import trufflesom.vm.constants.Nil;
 
 
@@ -46,6 +47,13 @@ public class SObject extends SAbstractObject {
   public static final int NUM_PRIMITIVE_FIELDS = 5;
   public static final int NUM_OBJECT_FIELDS    = 5;
 
+  /**
+   * Marks primitive fields that were not written yet. It is a signaling NaN, which is not
+   * produced by arithmetic, and an unlikely integer. Fields to which it is written as value
+   * are generalized to object storage.
+   */
+  public static final long UNSET_PRIMITIVE = 0x7FF0_0000_0000_0001L;
+
   protected long primField1;
   protected long primField2;
   protected long primField3;
@@ -65,8 +73,6 @@ public class SObject extends SAbstractObject {
   // to know in case the layout changed that we can update the instances lazily
   @CompilationFinal private ObjectLayout objectLayout;
 
-  private int primitiveUsedMap;
-
   public SObject(final SClass instanceClass) {
     clazz = instanceClass;
     setLayoutInitially(instanceClass.getLayoutForInstances());
@@ -82,7 +88,9 @@ public class SObject extends SAbstractObject {
   }
 
   private void setLayoutInitially(final ObjectLayout layout) {
+    assert layout.getNumberOfInlineFields() == getNumberOfInlineFields();
     field1 = field2 = field3 = field4 = field5 = Nil.nilObject;
+    primField1 = primField2 = primField3 = primField4 = primField5 = UNSET_PRIMITIVE;
 
     objectLayout = layout;
     // Can't check this cheaply
@@ -93,6 +101,14 @@ public class SObject extends SAbstractObject {
     extensionObjFields = getExtendedObjectStorage(layout);
   }
 
+  /**
+   * @return the number of primitive and object fields stored directly in this object,
+   *         which depends on the subclass
+   */
+  protected int getNumberOfInlineFields() {
+    return NUM_OBJECT_FIELDS;
+  }
+
   public final int getNumberOfFields() {
     return objectLayout.getNumberOfFields();
   }
@@ -115,9 +131,17 @@ public class SObject extends SAbstractObject {
     transferToInterpreterAndInvalidate();
     assert value != null;
 
+    ObjectLayout layout = value.getLayoutForInstances();
+    if (layout.getNumberOfInlineFields() != getNumberOfInlineFields()) {
+      // the Java class of an object decides its inline fields, and cannot change
+      throw new IllegalStateException("The layout of the new class has "
+          + layout.getNumberOfInlineFields() + " inline fields, but this "
+          + getClass().getSimpleName() + " has " + getNumberOfInlineFields());
+    }
+
     // Set the class of this object by writing to the field with class index
     clazz = value;
-    setLayoutInitially(value.getLayoutForInstances());
+    setLayoutInitially(layout);
   }
 
   private static long[] getExtendedPrimStorage(final ObjectLayout layout) {
@@ -126,7 +150,9 @@ public class SObject extends SAbstractObject {
     if (numExtFields == 0) {
       return null;
     }
-    return new long[numExtFields];
+    long[] storage = new long[numExtFields];
+    Arrays.fill(storage, UNSET_PRIMITIVE);
+    return storage;
   }
 
   private static Object[] getExtendedObjectStorage(final ObjectLayout layout) {
@@ -155,15 +181,14 @@ public class SObject extends SAbstractObject {
   @ExplodeLoop
   private void setAllFields(final Object[] fieldValues) {
     field1 = field2 = field3 = field4 = field5 = null;
-    primField1 = primField2 = primField3 = primField4 = primField5 = Long.MIN_VALUE;
 
     assert fieldValues.length == objectLayout.getNumberOfFields();
 
     for (int i = 0; i < objectLayout.getNumberOfFields(); i++) {
       if (fieldValues[i] != null) {
         setField(i, fieldValues[i]);
-      } else if (getLocation(i) instanceof AbstractObjectStorageLocation) {
-        setField(i, Nil.nilObject);
+      } else {
+        getLocation(i).clear(this);
       }
     }
   }
@@ -175,6 +200,9 @@ public class SObject extends SAbstractObject {
     if (objectLayout != layoutAtClass) {
       assert !objectLayout.isValid();
       assert layoutAtClass.isValid();
+      if (VmSettings.LayoutTraceFile != null) {
+        LayoutTrace.recordObjectUpdate(clazz);
+      }
       setLayoutAndTransferFields(layoutAtClass);
       return true;
     } else {
@@ -189,7 +217,6 @@ public class SObject extends SAbstractObject {
 
     objectLayout = layout;
 
-    primitiveUsedMap = 0;
     extensionPrimFields = getExtendedPrimStorage(layout);
     extensionObjFields = getExtendedObjectStorage(layout);
 
@@ -228,18 +255,23 @@ public class SObject extends SAbstractObject {
     return new SObject(numFields);
   }
 
-  public static int getPrimitiveFieldMask(final int fieldIndex) {
-    assert 0 <= fieldIndex && fieldIndex < 32; // this limits the number of object fields for
-                                               // the moment...
-    return 1 << fieldIndex;
+  public static SObject create(final SClass instanceClass) {
+    return create(instanceClass, instanceClass.getLayoutForInstances());
   }
 
-  public final boolean isPrimitiveSet(final int mask) {
-    return (primitiveUsedMap & mask) != 0;
-  }
-
-  public final void markPrimAsSet(final int mask) {
-    primitiveUsedMap |= mask;
+  /**
+   * Create a new instance, using the subclass with the number of inline fields that the
+   * layout was determined for.
+   */
+  public static SObject create(final SClass instanceClass, final ObjectLayout layout) {
+    switch (layout.getNumberOfInlineFields()) {
+      case SObject16.NUM_OBJECT_FIELDS:
+        return new SObject16(instanceClass, layout);
+      case SObject10.NUM_OBJECT_FIELDS:
+        return new SObject10(instanceClass, layout);
+      default:
+        return new SObject(instanceClass, layout);
+    }
   }
 
   private StorageLocation getLocation(final long index) {
@@ -262,7 +294,8 @@ public class SObject extends SAbstractObject {
 
   public final void setUninitializedField(final long index, final Object value) {
     CompilerAsserts.neverPartOfCompilation("setUninitializedField");
-    updateLayoutWithInitializedField(index, value.getClass());
+    Class<?> type = value == Nil.nilObject ? Nil.class : value.getClass();
+    updateLayoutWithInitializedField(index, type);
     setFieldAfterLayoutChange(index, value);
   }
 
@@ -0,0 +1,36 @@
+package trufflesom.vmobjects;
+
+import trufflesom.interpreter.objectstorage.ObjectLayout;
+import trufflesom.vm.constants.Nil;
+
+
+/**
+ * An object with ten inline primitive and object fields, used for classes with six to ten
+ * fields, which would otherwise need the extension arrays of {@link SObject}.
+ */
+public class SObject10 extends SObject {
+
+  public static final int NUM_PRIMITIVE_FIELDS = 10;
+  public static final int NUM_OBJECT_FIELDS    = 10;
+
+  protected long primField6  = UNSET_PRIMITIVE;
+  protected long primField7  = UNSET_PRIMITIVE;
+  protected long primField8  = UNSET_PRIMITIVE;
+  protected long primField9  = UNSET_PRIMITIVE;
+  protected long primField10 = UNSET_PRIMITIVE;
+
+  protected Object field6  = Nil.nilObject;
+  protected Object field7  = Nil.nilObject;
+  protected Object field8  = Nil.nilObject;
+  protected Object field9  = Nil.nilObject;
+  protected Object field10 = Nil.nilObject;
+
+  public SObject10(final SClass instanceClass, final ObjectLayout layout) {
+    super(instanceClass, layout);
+  }
+
+  @Override
+  protected int getNumberOfInlineFields() {
+    return NUM_OBJECT_FIELDS;
+  }
+}
@@ -0,0 +1,38 @@
+package trufflesom.vmobjects;
+
+import trufflesom.interpreter.objectstorage.ObjectLayout;
+import trufflesom.vm.constants.Nil;
+
+
+/**
+ * An object with sixteen inline primitive and object fields, used for classes with more
+ * than ten fields. Only fields beyond the sixteenth are stored in the extension arrays.
+ */
+public final class SObject16 extends SObject10 {
+
+  public static final int NUM_PRIMITIVE_FIELDS = 16;
+  public static final int NUM_OBJECT_FIELDS    = 16;
+
+  protected long primField11 = UNSET_PRIMITIVE;
+  protected long primField12 = UNSET_PRIMITIVE;
+  protected long primField13 = UNSET_PRIMITIVE;
+  protected long primField14 = UNSET_PRIMITIVE;
+  protected long primField15 = UNSET_PRIMITIVE;
+  protected long primField16 = UNSET_PRIMITIVE;
+
+  protected Object field11 = Nil.nilObject;
+  protected Object field12 = Nil.nilObject;
+  protected Object field13 = Nil.nilObject;
+  protected Object field14 = Nil.nilObject;
+  protected Object field15 = Nil.nilObject;
+  protected Object field16 = Nil.nilObject;
+
+  public SObject16(final SClass instanceClass, final ObjectLayout layout) {
+    super(instanceClass, layout);
+  }
+
+  @Override
+  protected int getNumberOfInlineFields() {
+    return NUM_OBJECT_FIELDS;
+  }
+}
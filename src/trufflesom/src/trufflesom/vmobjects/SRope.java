@@ -0,0 +1,151 @@
+package trufflesom.vmobjects;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import trufflesom.vm.Classes;
+
+
+/**
+ * A string that is the result of concatenating long strings.
+ *
+ * <p>
+ * Ropes are immutable views of the first <code>length</code> characters of a buffer.
+ * Concatenating to a rope that ends where its buffer ends appends in place, and the new
+ * rope shares the buffer. Thus, building a string in a loop with <code>,</code> copies
+ * each part only once, instead of copying the whole string for every concatenation.
+ * The Java string is only created when it is needed, and then cached.
+ *
+ * <p>
+ * A rope does not keep a shared buffer alive that is much longer than the rope itself.
+ * Once later concatenations made the buffer more than twice as long, the rope copies its
+ * characters to a string and drops the buffer.
+ *
+ * <p>
+ * Strings shorter than {@link #MIN_LENGTH} remain Java strings.
+ */
+public final class SRope extends SAbstractObject {
+
+  /** Minimal length of the result of a concatenation to be represented as rope. */
+  public static final int MIN_LENGTH = 1024;
+
+  /** The characters of the rope, or null once it was copied to {@link #flattened}. */
+  private StringBuilder buffer;
+  private final int     length;
+
+  private String flattened;
+
+  private SRope(final StringBuilder buffer) {
+    this.buffer = buffer;
+    this.length = buffer.length();
+  }
+
+  @Override
+  public SClass getSOMClass() {
+    return Classes.stringClass;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  @TruffleBoundary
+  public String getString() {
+    if (flattened == null) {
+      flattened = buffer.substring(0, length);
+    }
+    if (buffer != null && buffer.length() > length * 2) {
+      buffer = null;
+    }
+    return flattened;
+  }
+
+  /** The characters of the rope, followed by unrelated ones beyond {@link #length}. */
+  private CharSequence getChars() {
+    if (buffer == null || buffer.length() > length * 2) {
+      return getString();
+    }
+    return buffer;
+  }
+
+  @TruffleBoundary
+  public char charAt(final int index) {
+    if (index >= length) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return getChars().charAt(index);
+  }
+
+  @TruffleBoundary
+  public String substring(final int start, final int end) {
+    if (end > length) {
+      throw new StringIndexOutOfBoundsException(end);
+    }
+    return getChars().subSequence(start, end).toString();
+  }
+
+  @TruffleBoundary
+  public void appendTo(final StringBuilder builder) {
+    builder.append(getChars(), 0, length);
+  }
+
+  @TruffleBoundary
+  public boolean contentEquals(final String str) {
+    return length == str.length() && getString().equals(str);
+  }
+
+  @TruffleBoundary
+  public boolean contentEquals(final SRope rope) {
+    return length == rope.length && getString().equals(rope.getString());
+  }
+
+  @TruffleBoundary
+  public int contentHashCode() {
+    return getString().hashCode();
+  }
+
+  /** Concatenate the strings, as rope, if the result is long enough. */
+  @TruffleBoundary
+  public static Object concat(final String left, final String right) {
+    int resultLength = left.length() + right.length();
+    if (resultLength < MIN_LENGTH) {
+      return left + right;
+    }
+
+    StringBuilder buffer = new StringBuilder(resultLength);
+    buffer.append(left);
+    buffer.append(right);
+    return new SRope(buffer);
+  }
+
+  @TruffleBoundary
+  public static SRope concat(final String left, final SRope right) {
+    StringBuilder buffer = new StringBuilder(left.length() + right.length);
+    buffer.append(left);
+    right.appendTo(buffer);
+    return new SRope(buffer);
+  }
+
+  @TruffleBoundary
+  public SRope concat(final String str) {
+    if (buffer != null && buffer.length() == length) {
+      // the builder grows the buffer by doubling, which amortizes the copying
+      buffer.append(str);
+      return new SRope(buffer);
+    }
+
+    // the buffer was already extended by another concatenation, so we need a copy
+    StringBuilder copy = new StringBuilder(length + str.length());
+    appendTo(copy);
+    copy.append(str);
+    return new SRope(copy);
+  }
+
+  public SRope concat(final SRope rope) {
+    return concat(rope.getString());
+  }
+
+  @Override
+  public String toString() {
+    return getString();
+  }
+}
@@ -0,0 +1,54 @@
+package trufflesom.vmobjects;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+
+/**
+ * A mutable buffer for building strings, the instances of the StringBuilder class.
+ * Appending to it does not create intermediate strings.
+ */
+public final class SStringBuilder extends SAbstractObject {
+
+  private final SClass        clazz;
+  private final StringBuilder buffer;
+
+  public SStringBuilder(final SClass clazz) {
+    this.clazz = clazz;
+    this.buffer = new StringBuilder();
+  }
+
+  @Override
+  public SClass getSOMClass() {
+    return clazz;
+  }
+
+  @TruffleBoundary
+  public int getLength() {
+    return buffer.length();
+  }
+
+  @TruffleBoundary
+  public void append(final String str) {
+    buffer.append(str);
+  }
+
+  @TruffleBoundary
+  public void append(final SRope rope) {
+    rope.appendTo(buffer);
+  }
+
+  @TruffleBoundary
+  public void append(final long value) {
+    buffer.append(value);
+  }
+
+  @TruffleBoundary
+  public void append(final double value) {
+    buffer.append(value);
+  }
+
+  @TruffleBoundary
+  public String getString() {
+    return buffer.toString();
+  }
+}
@@ -0,0 +1,145 @@
+package trufflesom.intepreter.objectstorage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+import trufflesom.interpreter.objectstorage.FieldAccessorNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractIncrementFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractReadFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.AbstractWriteFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.GenericIncrementFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.GenericReadFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.GenericWriteFieldNode;
+import trufflesom.interpreter.objectstorage.FieldAccessorNode.IncrementLongFieldNode;
+import trufflesom.tests.TruffleTestSetup;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SObject;
+
+
+public class FieldAccessorTests extends TruffleTestSetup {
+
+  private static final int NUM_LAYOUTS = FieldAccessorNode.INLINE_CACHE_SIZE + 1;
+  private static final int FIELD_IDX   = NUM_LAYOUTS - 1;
+
+  private static final class AccessRoot extends RootNode {
+    @Child private Node access;
+
+    AccessRoot(final Node access) {
+      super(null);
+      this.access = access;
+    }
+
+    @Override
+    public Object execute(final VirtualFrame frame) {
+      SObject obj = (SObject) frame.getArguments()[0];
+      if (access instanceof AbstractReadFieldNode) {
+        return ((AbstractReadFieldNode) access).read(obj);
+      }
+      if (access instanceof AbstractWriteFieldNode) {
+        return ((AbstractWriteFieldNode) access).write(obj, frame.getArguments()[1]);
+      }
+      return ((AbstractIncrementFieldNode) access).increment(obj);
+    }
+  }
+
+  @BeforeClass
+  public static void init() {
+    reinitTruffleAndEnterContext();
+  }
+
+  @AfterClass
+  public static void close() {
+    closeContext();
+  }
+
+  /**
+   * Create objects that store the last field in a different location each, because a
+   * different number of the fields before it are stored as primitives.
+   */
+  private static SObject[] createObjectsWithDistinctLocations() {
+    SObject[] objects = new SObject[NUM_LAYOUTS];
+    for (int i = 0; i < NUM_LAYOUTS; i += 1) {
+      SObject obj = SObject.create(new SClass(NUM_LAYOUTS));
+      for (int f = 0; f < FIELD_IDX; f += 1) {
+        obj.setField(f, f < i ? (Object) 1L : "obj");
+      }
+      obj.setField(FIELD_IDX, (long) i);
+      objects[i] = obj;
+    }
+    return objects;
+  }
+
+  @Test
+  public void testReadChainIsBoundedAndUsesGenericNode() {
+    SObject[] objects = createObjectsWithDistinctLocations();
+    AccessRoot root = new AccessRoot(FieldAccessorNode.createRead(FIELD_IDX));
+    CallTarget target = root.getCallTarget();
+
+    for (int i = 0; i < NUM_LAYOUTS; i += 1) {
+      assertEquals((long) i, target.call(objects[i]));
+    }
+    assertTrue(read(root, "access") instanceof GenericReadFieldNode);
+
+    for (int i = 0; i < NUM_LAYOUTS; i += 1) {
+      assertEquals((long) i, target.call(objects[i]));
+    }
+  }
+
+  @Test
+  public void testWriteChainIsBoundedAndUsesGenericNode() {
+    SObject[] objects = createObjectsWithDistinctLocations();
+    AccessRoot root = new AccessRoot(FieldAccessorNode.createWrite(FIELD_IDX));
+    CallTarget target = root.getCallTarget();
+
+    for (int i = 0; i < NUM_LAYOUTS; i += 1) {
+      target.call(objects[i], i + 10L);
+    }
+    assertTrue(read(root, "access") instanceof GenericWriteFieldNode);
+
+    target.call(objects[0], "str");
+    assertEquals("str", objects[0].getField(FIELD_IDX));
+    for (int i = 1; i < NUM_LAYOUTS; i += 1) {
+      assertEquals(i + 10L, objects[i].getField(FIELD_IDX));
+    }
+  }
+
+  @Test
+  public void testIncrementChainIsBoundedAndEndsWithGenericNode() {
+    SObject[] objects = createObjectsWithDistinctLocations();
+    AccessRoot root =
+        new AccessRoot(FieldAccessorNode.createIncrement(FIELD_IDX, objects[0]));
+    CallTarget target = root.getCallTarget();
+
+    for (int i = 0; i < NUM_LAYOUTS; i += 1) {
+      assertEquals(i + 1L, target.call(objects[i]));
+    }
+
+    Node node = read(root, "access");
+    for (int i = 0; i < FieldAccessorNode.INLINE_CACHE_SIZE; i += 1) {
+      assertTrue(node instanceof IncrementLongFieldNode);
+      node = read(node, "nextInCache");
+    }
+    assertTrue(node instanceof GenericIncrementFieldNode);
+  }
+
+  @Test
+  public void testIncrementOfFieldStoredAsObjectIsGeneric() {
+    SObject obj = SObject.create(new SClass(1));
+    obj.setField(0, "str");
+    obj.setField(0, 5L);
+
+    AbstractIncrementFieldNode inc = FieldAccessorNode.createIncrement(0, obj);
+    assertTrue(inc instanceof GenericIncrementFieldNode);
+    assertEquals(6L, new AccessRoot(inc).getCallTarget().call(obj));
+    assertEquals(6L, obj.getField(0));
+  }
+}
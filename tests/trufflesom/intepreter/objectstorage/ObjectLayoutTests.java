@@ -0,0 +1,279 @@
+package trufflesom.intepreter.objectstorage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import trufflesom.compiler.Field;
+import trufflesom.interpreter.objectstorage.CachedInstanceLayout;
+import trufflesom.interpreter.objectstorage.LayoutTrace;
+import trufflesom.interpreter.objectstorage.ObjectLayout;
+import trufflesom.interpreter.objectstorage.StorageAnalyzer;
+import trufflesom.interpreter.objectstorage.StorageLocation;
+import trufflesom.interpreter.objectstorage.StorageLocation.BooleanStorageLocation;
+import trufflesom.interpreter.objectstorage.StorageLocation.LongStorageLocation;
+import trufflesom.tests.TruffleTestSetup;
+import trufflesom.vm.NotYetImplementedException;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SObject;
+import trufflesom.vmobjects.SObject10;
+import trufflesom.vmobjects.SObject16;
+
+
+public class ObjectLayoutTests extends TruffleTestSetup {
+
+  @Test
+  public void testNumberOfInlineFields() {
+    assertEquals(5, StorageAnalyzer.getNumberOfInlineFields(0));
+    assertEquals(5, StorageAnalyzer.getNumberOfInlineFields(5));
+    assertEquals(10, StorageAnalyzer.getNumberOfInlineFields(6));
+    assertEquals(10, StorageAnalyzer.getNumberOfInlineFields(10));
+    assertEquals(16, StorageAnalyzer.getNumberOfInlineFields(11));
+    assertEquals(16, StorageAnalyzer.getNumberOfInlineFields(40));
+  }
+
+  @Test
+  public void testInstancesUseSubclassForNumberOfFields() {
+    assertSame(SObject.class, SObject.create(new SClass(3)).getClass());
+    assertSame(SObject10.class, SObject.create(new SClass(8)).getClass());
+    assertSame(SObject16.class, SObject.create(new SClass(12)).getClass());
+  }
+
+  @Test
+  public void testTwelveFieldsAreStoredInline() {
+    SObject obj = SObject.create(new SClass(12));
+
+    for (int i = 0; i < 6; i += 1) {
+      obj.setField(i, (long) i);
+    }
+    for (int i = 6; i < 12; i += 1) {
+      obj.setField(i, "field" + i);
+    }
+
+    assertNull(obj.getExtendedPrimFields());
+    assertNull(obj.getExtensionObjFields());
+
+    for (int i = 0; i < 6; i += 1) {
+      assertEquals((long) i, obj.getField(i));
+    }
+    for (int i = 6; i < 12; i += 1) {
+      assertEquals("field" + i, obj.getField(i));
+    }
+  }
+
+  @Test
+  public void testBooleanFieldsUsePrimitiveStorage() {
+    SObject obj = SObject.create(new SClass(20));
+
+    for (int i = 0; i < 20; i += 1) {
+      obj.setField(i, i % 2 == 0);
+    }
+
+    ObjectLayout layout = obj.getObjectLayout();
+    for (int i = 0; i < 20; i += 1) {
+      assertTrue(layout.getStorageLocation(i) instanceof BooleanStorageLocation);
+      assertEquals(i % 2 == 0, obj.getField(i));
+    }
+
+    assertNotNull(obj.getExtendedPrimFields());
+    assertNull(obj.getExtensionObjFields());
+  }
+
+  @Test
+  public void testNilFieldIsSpecializedOnFirstOtherValue() {
+    SObject obj = SObject.create(new SClass(2));
+
+    obj.setField(0, Nil.nilObject);
+    assertFalse(obj.getObjectLayout().getStorageLocation(0).isSet(obj));
+    assertSame(Nil.nilObject, obj.getField(0));
+
+    obj.setField(0, 42L);
+    assertTrue(obj.getObjectLayout().getStorageLocation(0) instanceof LongStorageLocation);
+    assertEquals(42L, obj.getField(0));
+  }
+
+  @Test
+  public void testCachedInstanceLayoutUsesLatestLayoutOfClass() {
+    SClass clazz = new SClass(2);
+    CachedInstanceLayout cache = new CachedInstanceLayout(clazz);
+
+    SObject first = cache.allocate();
+    first.setField(0, 1L);
+    first.setField(1, "value");
+
+    SObject second = cache.allocate();
+    assertSame(first.getObjectLayout(), second.getObjectLayout());
+    assertSame(clazz.getLayoutForInstances(), second.getObjectLayout());
+    assertEquals(1, cache.getLayoutChanges());
+  }
+
+  @Test
+  public void testCachedInstanceLayoutsCountLayoutChangesSeparately() {
+    SClass clazz = new SClass(5);
+    CachedInstanceLayout warmup = new CachedInstanceLayout(clazz);
+
+    // each object initializes another field, which changes the layout of the class
+    for (int i = 0; i < 5; i += 1) {
+      warmup.allocate().setField(i, (long) i);
+    }
+
+    SObject obj = warmup.allocate();
+    assertEquals(5, warmup.getLayoutChanges());
+    assertNull("the cache stopped caching the layout",
+        read(warmup, "layout", ObjectLayout.class));
+    assertSame(clazz.getLayoutForInstances(), obj.getObjectLayout());
+
+    CachedInstanceLayout settled = new CachedInstanceLayout(clazz);
+    obj = settled.allocate();
+    assertEquals(0, settled.getLayoutChanges());
+    assertSame("a cache created later still caches the layout",
+        clazz.getLayoutForInstances(), read(settled, "layout", ObjectLayout.class));
+    assertSame(clazz.getLayoutForInstances(), obj.getObjectLayout());
+  }
+
+  @Test
+  public void testLayoutTraceRecordsTypeHistoryOfFields() {
+    SClass clazz = new SClass(2);
+    LayoutTrace.reset();
+
+    LayoutTrace.recordFieldTransition(clazz, 1, Long.class);
+    LayoutTrace.recordInvalidation(clazz);
+    LayoutTrace.recordFieldTransition(clazz, 1, Object.class);
+    LayoutTrace.recordInvalidation(clazz);
+    LayoutTrace.recordObjectUpdate(clazz);
+
+    String report = LayoutTrace.createReport();
+    LayoutTrace.reset();
+
+    assertTrue(report.contains("    invalidations: 2\n"));
+    assertTrue(report.contains("    field-transitions: 2\n"));
+    assertTrue(report.contains("    object-updates: 1\n"));
+    assertTrue(report.contains("      - field: field1\n"
+        + "        types: [unwritten, Long, Object]\n"));
+  }
+
+  @Test
+  public void testUnsetPrimitiveFieldsReadAsNil() {
+    SClass clazz = new SClass(2);
+    SObject.create(clazz).setField(0, 1L);
+
+    SObject obj = SObject.create(clazz);
+    assertTrue(obj.getObjectLayout().getStorageLocation(0) instanceof LongStorageLocation);
+    assertFalse(obj.getObjectLayout().getStorageLocation(0).isSet(obj));
+    assertSame(Nil.nilObject, obj.getField(0));
+
+    obj.setField(0, SObject.UNSET_PRIMITIVE);
+    assertFalse(obj.getObjectLayout().getStorageLocation(0) instanceof LongStorageLocation);
+    assertEquals(SObject.UNSET_PRIMITIVE, obj.getField(0));
+  }
+
+  private static void assertIncrementAvoidsUnsetPrimitive(final int numFields,
+      final int fieldIdx) {
+    SClass clazz = new SClass(numFields);
+    SObject first = SObject.create(clazz);
+    for (int i = 0; i <= fieldIdx; i += 1) {
+      first.setField(i, 1L);
+    }
+
+    SObject unset = SObject.create(clazz);
+    LongStorageLocation location =
+        (LongStorageLocation) unset.getObjectLayout().getStorageLocation(fieldIdx);
+    try {
+      location.increment(unset);
+      fail("Incrementing nil is not supported");
+    } catch (NotYetImplementedException e) {
+      assertSame(Nil.nilObject, unset.getField(fieldIdx));
+    }
+
+    SObject obj = SObject.create(clazz);
+    obj.setField(fieldIdx, SObject.UNSET_PRIMITIVE - 1);
+    assertEquals(SObject.UNSET_PRIMITIVE, location.increment(obj));
+    assertEquals(SObject.UNSET_PRIMITIVE, obj.getField(fieldIdx));
+    assertFalse(
+        obj.getObjectLayout().getStorageLocation(fieldIdx) instanceof LongStorageLocation);
+  }
+
+  @Test
+  public void testIncrementOfInlineFieldAvoidsUnsetPrimitive() {
+    assertIncrementAvoidsUnsetPrimitive(2, 0);
+  }
+
+  @Test
+  public void testIncrementOfExtensionFieldAvoidsUnsetPrimitive() {
+    assertIncrementAvoidsUnsetPrimitive(20, 18);
+  }
+
+  @Test
+  public void testLayoutsShareLocationsOfFieldsWithSameTypes() {
+    SObject a = SObject.create(new SClass(3));
+    a.setField(0, 1L);
+    a.setField(1, "a");
+
+    SObject b = SObject.create(new SClass(12));
+    b.setField(0, 2L);
+    b.setField(1, "b");
+    b.setField(2, 3.0);
+
+    ObjectLayout la = a.getObjectLayout();
+    ObjectLayout lb = b.getObjectLayout();
+    assertSame(la.getStorageLocation(0), lb.getStorageLocation(0));
+    assertSame(la.getStorageLocation(1), lb.getStorageLocation(1));
+    assertNotSame(la.getStorageLocation(2), lb.getStorageLocation(2));
+  }
+
+  @Test
+  public void testResetDropsSharedLocations() {
+    StorageLocation before = StorageLocation.createForLong(4, 4, SObject.NUM_PRIMITIVE_FIELDS);
+    assertSame(before, StorageLocation.createForLong(4, 4, SObject.NUM_PRIMITIVE_FIELDS));
+    assertNotSame(before, StorageLocation.createForDouble(4, 4, SObject.NUM_PRIMITIVE_FIELDS));
+
+    StorageLocation.resetSharedLocations();
+    assertNotSame(before, StorageLocation.createForLong(4, 4, SObject.NUM_PRIMITIVE_FIELDS));
+  }
+
+  private static List<Field> fields(final int numFields) {
+    List<Field> fields = new ArrayList<>();
+    for (int i = 0; i < numFields; i += 1) {
+      fields.add(new Field(i, symbolFor("field" + i), 0));
+    }
+    return fields;
+  }
+
+  @Test
+  public void testChangedFieldsKeepNumberOfInlineFields() {
+    SClass clazz = new SClass(3);
+    SObject obj = SObject.create(clazz);
+
+    clazz.setInstanceFields(fields(8));
+    assertEquals(5, clazz.getLayoutForInstances().getNumberOfInlineFields());
+    assertSame(SObject.class, SObject.create(clazz).getClass());
+
+    obj.setClass(clazz);
+    assertEquals(8, obj.getNumberOfFields());
+    obj.setField(7, "field7");
+    assertEquals("field7", obj.getField(7));
+  }
+
+  @Test
+  public void testSetClassRejectsDifferentNumberOfInlineFields() {
+    SObject obj = SObject.create(new SClass(3));
+    try {
+      obj.setClass(new SClass(8));
+      fail("Expected the class with ten inline fields to be rejected");
+    } catch (IllegalStateException e) {
+      assertEquals(3, obj.getNumberOfFields());
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package trufflesom.interpreter.nodes.bc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+
+public class LocalSlotTests {
+
+  private static FrameDescriptor createDescriptor() {
+    FrameDescriptor.Builder builder = FrameDescriptor.newBuilder();
+    builder.addSlot(FrameSlotKind.Illegal, null, null);
+    return builder.build();
+  }
+
+  private static VirtualFrame createFrame(final FrameDescriptor descriptor) {
+    return Truffle.getRuntime().createVirtualFrame(new Object[0], descriptor);
+  }
+
+  @Test
+  public void testLongLocalIsGeneralizedToObject() {
+    FrameDescriptor descriptor = createDescriptor();
+    VirtualFrame first = createFrame(descriptor);
+
+    BytecodeLoopNode.speculateAndWriteLocal(first, 0, 42L);
+    assertEquals(FrameSlotKind.Long, descriptor.getSlotKind(0));
+    assertTrue(first.isLong(0));
+    assertEquals(42L, first.getLong(0));
+
+    VirtualFrame second = createFrame(descriptor);
+    BytecodeLoopNode.speculateAndWriteLocal(second, 0, "str");
+    assertEquals(FrameSlotKind.Object, descriptor.getSlotKind(0));
+    assertFalse(second.isLong(0));
+    assertEquals("str", second.getObject(0));
+
+    // the other activation still holds its primitive value
+    assertEquals(42L, first.getValue(0));
+
+    // once generalized, longs are stored boxed
+    BytecodeLoopNode.speculateAndWriteLocal(first, 0, 43L);
+    assertEquals(FrameSlotKind.Object, descriptor.getSlotKind(0));
+    assertTrue(first.isObject(0));
+    assertEquals(43L, first.getObject(0));
+  }
+
+  @Test
+  public void testDoubleLocalIsGeneralizedOnLong() {
+    FrameDescriptor descriptor = createDescriptor();
+    VirtualFrame frame = createFrame(descriptor);
+
+    BytecodeLoopNode.speculateAndWriteLocal(frame, 0, 1.5);
+    assertEquals(FrameSlotKind.Double, descriptor.getSlotKind(0));
+    assertEquals(1.5, frame.getDouble(0), 0.0);
+
+    BytecodeLoopNode.speculateAndWriteLocal(frame, 0, 2L);
+    assertEquals(FrameSlotKind.Object, descriptor.getSlotKind(0));
+    assertEquals(2L, frame.getObject(0));
+  }
+}
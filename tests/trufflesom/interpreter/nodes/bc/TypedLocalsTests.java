@@ -0,0 +1,78 @@
+package trufflesom.interpreter.nodes.bc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+
+import trufflesom.tests.TruffleTestSetup;
+import trufflesom.vm.Universe;
+import trufflesom.vm.VmSettings;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable;
+import trufflesom.vmobjects.SObject;
+
+
+/** Runs with the default settings, i.e., without <code>-Dsom.frameSlotStack</code>. */
+public class TypedLocalsTests extends TruffleTestSetup {
+
+  private static SClass  clazz;
+  private static SObject rcvr;
+
+  @BeforeClass
+  public static void init() {
+    assumeTrue(VmSettings.UseBcInterp);
+    Universe.setupClassPath("Smalltalk");
+
+    reinitTruffleAndEnterContext();
+    Universe.initializeObjectSystem();
+
+    clazz = Universe.loadShellClass("""
+        TypedLocals = (
+          longs    = ( | l | l := 1. l := l + 41. ^ l )
+          doubles  = ( | d | d := 1.5. d := d * 2.0. ^ d )
+          mixed: a = ( | m | m := 1. m := a. ^ m )
+        )
+        """);
+    rcvr = SObject.create(clazz);
+  }
+
+  @AfterClass
+  public static void close() {
+    if (VmSettings.UseBcInterp) {
+      closeContext();
+    }
+  }
+
+  private static FrameDescriptor run(final String selector, final Object... args) {
+    Object[] callArgs = new Object[args.length + 1];
+    callArgs[0] = rcvr;
+    System.arraycopy(args, 0, callArgs, 1, args.length);
+
+    SInvokable method = clazz.lookupInvokable(symbolFor(selector));
+    method.getCallTarget().call(callArgs);
+    return method.getInvokable().getFrameDescriptor();
+  }
+
+  @Test
+  public void testLongLocalIsStoredInLongSlot() {
+    assertEquals(FrameSlotKind.Long, run("longs").getSlotKind(0));
+  }
+
+  @Test
+  public void testDoubleLocalIsStoredInDoubleSlot() {
+    assertEquals(FrameSlotKind.Double, run("doubles").getSlotKind(0));
+  }
+
+  @Test
+  public void testLocalWithDifferentTypesIsGeneralized() {
+    assertEquals(FrameSlotKind.Long, run("mixed:", 2L).getSlotKind(0));
+    assertEquals(FrameSlotKind.Object, run("mixed:", symbolFor("sym")).getSlotKind(0));
+  }
+}
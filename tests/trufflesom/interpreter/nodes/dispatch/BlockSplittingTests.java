@@ -0,0 +1,150 @@
+package trufflesom.interpreter.nodes.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.NodeUtil;
+
+import trufflesom.interpreter.Invokable;
+import trufflesom.tests.TruffleTestSetup;
+import trufflesom.vm.Universe;
+import trufflesom.vm.VmSettings;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SObject;
+
+
+/** Needs to run with <code>-Dsom.splitBlockDispatch=true</code>, see mx tests-junit. */
+public class BlockSplittingTests extends TruffleTestSetup {
+
+  /** More callers with different blocks than the inline cache of a block send holds. */
+  private static final int NUM_CALLERS = VmSettings.InlineCacheSize + 2;
+
+  @BeforeClass
+  public static void init() {
+    assumeTrue(VmSettings.SplitBlockDispatch);
+    Universe.setupClassPath("Smalltalk");
+
+    reinitTruffleAndEnterContext();
+    Universe.initializeObjectSystem();
+  }
+
+  @AfterClass
+  public static void close() {
+    if (VmSettings.SplitBlockDispatch) {
+      closeContext();
+    }
+  }
+
+  @Before
+  public void resetReport() {
+    BlockSplitting.reset();
+  }
+
+  /**
+   * A class, in which <code>apply:</code> is called by <code>c1</code>, <code>c2</code>,
+   * ..., each with its own block. <code>run</code> returns the sum of 1 to NUM_CALLERS.
+   */
+  private static SClass loadClass(final String name) {
+    StringBuilder source = new StringBuilder();
+    source.append(name).append(" = (\n  | n |\n  apply: blk = ( ^ blk value )\n");
+
+    StringBuilder run = new StringBuilder("  run = ( n := 0. ^ 0");
+    for (int i = 1; i <= NUM_CALLERS; i += 1) {
+      source.append("  c" + i + " = ( ^ self apply: [ n + " + i + " ] )\n");
+      run.append(" + self c").append(i);
+    }
+    source.append(run).append(" )\n)\n");
+    return Universe.loadShellClass(source.toString());
+  }
+
+  private static Object run(final SClass clazz, final SObject rcvr) {
+    return clazz.lookupInvokable(symbolFor("run")).getCallTarget().call(rcvr);
+  }
+
+  private static Invokable getInvokable(final SClass clazz, final String selector) {
+    return clazz.lookupInvokable(symbolFor(selector)).getInvokable();
+  }
+
+  /** The method called by the only call node in the given method. */
+  private static Invokable getCallee(final SClass clazz, final String selector) {
+    List<DirectCallNode> calls =
+        NodeUtil.findAllNodeInstances(getInvokable(clazz, selector), DirectCallNode.class);
+    assertEquals(1, calls.size());
+
+    DirectCallNode call = calls.get(0);
+    if (VmSettings.UseAstInterp) {
+      assertTrue(call.getParent() instanceof CachedDispatchNode);
+    }
+    return (Invokable) ((RootCallTarget) call.getCallTarget()).getRootNode();
+  }
+
+  @Test
+  public void testMegamorphicBlockSendSplitsItsMethodForEachCaller() {
+    SClass clazz = loadClass("BlockSplitTest");
+    SObject rcvr = SObject.create(clazz);
+    long expected = NUM_CALLERS * (NUM_CALLERS + 1) / 2;
+
+    Invokable apply = getInvokable(clazz, "apply:");
+    assertFalse(apply.isSplittingRequested());
+
+    assertEquals(expected, run(clazz, rcvr));
+    assertTrue(apply.isSplittingRequested());
+    assertSame("split only once the block send became megamorphic",
+        apply, getCallee(clazz, "c1"));
+
+    assertEquals(expected, run(clazz, rcvr));
+
+    for (int i = 1; i <= NUM_CALLERS; i += 1) {
+      Invokable callee = getCallee(clazz, "c" + i);
+      assertNotSame(apply, callee);
+      assertEquals(apply.getName(), callee.getName());
+      assertTrue(callee.isSplitForCaller());
+      assertFalse(callee.isSplittingRequested());
+      assertSame(clazz, callee.getHolder());
+    }
+
+    assertNotSame(getCallee(clazz, "c1"), getCallee(clazz, "c2"));
+
+    // the callers of apply: are not split
+    for (DirectCallNode call : NodeUtil.findAllNodeInstances(
+        getInvokable(clazz, "run"), DirectCallNode.class)) {
+      assertFalse(((Invokable) ((RootCallTarget) call.getCallTarget()).getRootNode())
+          .isSplitForCaller());
+    }
+
+    // the block sends in the copies see a single block, and are not reported
+    assertEquals(expected, run(clazz, rcvr));
+    assertEquals("methods:\n"
+        + "  - method: 'BlockSplitTest>>#apply:'\n"
+        + "    megamorphic-block-sends: 1\n", BlockSplitting.createReport());
+  }
+
+  @Test
+  public void testReportListsEachMegamorphicSendOnce() {
+    assertEquals("# no megamorphic block sends\n", BlockSplitting.createReport());
+
+    SClass clazz = loadClass("BlockReportTest");
+    SObject rcvr = SObject.create(clazz);
+    for (int i = 0; i < 3; i += 1) {
+      run(clazz, rcvr);
+    }
+
+    assertEquals("methods:\n"
+        + "  - method: 'BlockReportTest>>#apply:'\n"
+        + "    megamorphic-block-sends: 1\n", BlockSplitting.createReport());
+  }
+}
@@ -0,0 +1,91 @@
+package trufflesom.interpreter.nodes.dispatch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedHashMap;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.nodes.InvalidAssumptionException;
+
+import trufflesom.interpreter.nodes.dispatch.DispatchGuard.CheckSObjectClass;
+import trufflesom.tests.TruffleTestSetup;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SObject;
+
+
+public class DispatchGuardTests extends TruffleTestSetup {
+
+  private static CheckSObjectClass createGuard(final SObject obj) {
+    return new CheckSObjectClass(obj.getClass(), obj.getSOMClass());
+  }
+
+  @Test
+  public void testClassGuardMatchesOnlyInstancesOfItsClass()
+      throws InvalidAssumptionException {
+    SObject obj = SObject.create(new SClass(0));
+    CheckSObjectClass guard = createGuard(obj);
+
+    assertTrue(guard.entryMatches(obj));
+    assertFalse(guard.entryMatches(SObject.create(new SClass(0))));
+  }
+
+  @Test
+  public void testClassGuardIgnoresLayoutChanges() throws InvalidAssumptionException {
+    SObject obj = SObject.create(new SClass(1));
+    CheckSObjectClass guard = createGuard(obj);
+
+    obj.setField(0, 1L);
+    obj.setField(0, "str");
+    assertTrue(guard.entryMatches(obj));
+  }
+
+  @Test
+  public void testClassGuardIsInvalidatedWhenMethodsChange()
+      throws InvalidAssumptionException {
+    SClass clazz = new SClass(0);
+    SObject obj = SObject.create(clazz);
+    CheckSObjectClass guard = createGuard(obj);
+
+    clazz.setInstanceInvokables(new LinkedHashMap<>(), false);
+    try {
+      guard.entryMatches(obj);
+      fail("Expected the guard to be invalid after the methods changed");
+    } catch (InvalidAssumptionException e) {
+      // the cyclic assumption provides a valid one for a new guard
+      assertTrue(createGuard(obj).entryMatches(obj));
+    }
+  }
+
+  @Test
+  public void testClassGuardIsInvalidatedWhenSuperclassChanges()
+      throws InvalidAssumptionException {
+    SClass superclass = new SClass(0);
+    SClass clazz = new SClass(0);
+    clazz.setSuperClass(superclass);
+
+    SObject obj = SObject.create(clazz);
+    CheckSObjectClass guard = createGuard(obj);
+    assertTrue(guard.entryMatches(obj));
+
+    // changing the methods of the superclass changes the lookup result
+    superclass.setInstanceInvokables(new LinkedHashMap<>(), false);
+    try {
+      guard.entryMatches(obj);
+      fail("Expected the guard to be invalid after the superclass's methods changed");
+    } catch (InvalidAssumptionException e) {
+      assertTrue(createGuard(obj).entryMatches(obj));
+    }
+
+    guard = createGuard(obj);
+    clazz.setSuperClass(new SClass(0));
+    try {
+      guard.entryMatches(obj);
+      fail("Expected the guard to be invalid after the superclass changed");
+    } catch (InvalidAssumptionException e) {
+      assertTrue(createGuard(obj).entryMatches(obj));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package trufflesom.interpreter.nodes.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+import trufflesom.tests.TruffleTestSetup;
+import trufflesom.vm.Universe;
+import trufflesom.vm.VmSettings;
+import trufflesom.vmobjects.SObject;
+
+
+/** Needs to run with <code>-Dsom.inlineCacheHotEntries=2</code>, see mx tests-junit. */
+public class HotEntriesTests extends TruffleTestSetup {
+
+  private static final class DispatchRoot extends RootNode {
+    @Child private AbstractDispatchNode dispatch;
+
+    DispatchRoot(final AbstractDispatchNode dispatch) {
+      super(null);
+      this.dispatch = dispatch;
+    }
+
+    @Override
+    public Object execute(final VirtualFrame frame) {
+      return dispatch.executeDispatch(frame, frame.getArguments());
+    }
+  }
+
+  @BeforeClass
+  public static void init() {
+    assumeTrue(VmSettings.InlineCacheHotEntries > 0);
+    Universe.setupClassPath("Smalltalk");
+
+    reinitTruffleAndEnterContext();
+    Universe.initializeObjectSystem();
+  }
+
+  @AfterClass
+  public static void close() {
+    if (VmSettings.InlineCacheHotEntries > 0) {
+      closeContext();
+    }
+  }
+
+  private static Object send(final DispatchRoot root, final SObject rcvr, final int times) {
+    Object result = null;
+    for (int i = 0; i < times; i += 1) {
+      result = root.getCallTarget().call(rcvr);
+    }
+    return result;
+  }
+
+  @Test
+  public void testMegamorphicSiteKeepsHotEntriesAndDispatchesCorrectly() {
+    // one more receiver class than the inline cache holds
+    SObject[] rcvrs = new SObject[AbstractDispatchNode.INLINE_CACHE_SIZE + 1];
+    for (int i = 0; i < rcvrs.length; i += 1) {
+      rcvrs[i] = SObject.create(Universe.loadShellClass(
+          "HotEntry" + i + " = ( answer = ( ^ " + i + " + 0 ) )"));
+    }
+
+    DispatchRoot root = new DispatchRoot(new UninitializedDispatchNode(symbolFor("answer")));
+
+    // the second and third receiver class are the hottest ones
+    assertEquals(1L, send(root, rcvrs[1], 5));
+    assertEquals(2L, send(root, rcvrs[2], 3));
+    for (int i = 0; i < rcvrs.length - 1; i += 1) {
+      assertEquals((long) i, send(root, rcvrs[i], 1));
+    }
+
+    AbstractDispatchNode full = root.dispatch;
+    assertEquals(rcvrs.length - 1, full.lengthOfDispatchChain());
+    assertEquals(6, full.getHits());
+
+    // the send becomes megamorphic
+    assertEquals((long) rcvrs.length - 1, send(root, rcvrs[rcvrs.length - 1], 1));
+
+    AbstractDispatchNode hot = root.dispatch;
+    assertNotSame(full, hot);
+    assertEquals(6, hot.getHits());
+    if (VmSettings.InlineCacheHotEntries > 1) {
+      assertEquals(4, hot.getNextInCache().getHits());
+    }
+
+    AbstractDispatchNode e = hot;
+    for (int i = 0; i < VmSettings.InlineCacheHotEntries; i += 1) {
+      assertTrue(e instanceof CachedDispatchNode);
+      e = e.getNextInCache();
+    }
+    assertTrue(e instanceof GenericDispatchNode);
+
+    // the copies have their own children, the old chain keeps its children
+    assertSame(hot, read(hot, "cachedMethod").getParent());
+    assertSame(full, read(full, "cachedMethod").getParent());
+
+    for (int i = 0; i < rcvrs.length; i += 1) {
+      assertEquals((long) i, send(root, rcvrs[i], 1));
+    }
+  }
+}
@@ -18,6 +18,7 @@ import trufflesom.interpreter.nodes.GlobalNode.FalseGlobalNode;
 import trufflesom.interpreter.nodes.GlobalNode.NilGlobalNode;
 import trufflesom.interpreter.nodes.GlobalNode.TrueGlobalNode;
 import trufflesom.interpreter.nodes.GlobalNode.UninitializedGlobalReadNode;
+import trufflesom.interpreter.nodes.LocalVariableNode.LocalVariableReadNode;
 import trufflesom.interpreter.nodes.LocalVariableNode.LocalVariableWriteNode;
 import trufflesom.interpreter.nodes.NonLocalVariableNode.NonLocalVariableReadNode;
 import trufflesom.interpreter.nodes.NonLocalVariableNode.NonLocalVariableWriteNode;
@@ -28,6 +29,7 @@ import trufflesom.interpreter.nodes.literals.BlockNode.BlockNodeWithContext;
 import trufflesom.interpreter.nodes.literals.DoubleLiteralNode;
 import trufflesom.interpreter.nodes.literals.GenericLiteralNode;
 import trufflesom.interpreter.nodes.literals.IntegerLiteralNode;
+import trufflesom.interpreter.nodes.specialized.ArrayDoInlinedLiteralNode;
 import trufflesom.interpreter.nodes.specialized.BooleanInlinedLiteralNode.AndInlinedLiteralNode;
 import trufflesom.interpreter.nodes.specialized.BooleanInlinedLiteralNode.OrInlinedLiteralNode;
 import trufflesom.interpreter.nodes.specialized.IfInlinedLiteralNode;
@@ -37,7 +39,6 @@ import trufflesom.interpreter.nodes.specialized.IntToDoInlinedLiteralsNode;
 import trufflesom.interpreter.nodes.specialized.whileloops.WhileInlinedLiteralsNode;
 import trufflesom.interpreter.supernodes.IntIncrementNode;
 import trufflesom.primitives.arithmetic.SubtractionPrim;
-import trufflesom.primitives.arrays.DoPrim;
 
 
 public class AstInliningTests extends AstTestSetup {
@@ -378,25 +379,18 @@ public class AstInliningTests extends AstTestSetup {
     IntToDoInlinedLiteralsNode toDo =
         (IntToDoInlinedLiteralsNode) read(seq, "expressions", 0);
 
-    DoPrim doPrim = read(toDo, "body", DoPrim.class);
-    BlockNode blockA = (BlockNode) doPrim.getArgument();
-    IfInlinedLiteralNode blockBIfTrue =
-        read(blockA.getMethod().getInvokable(), "body",
-            IfInlinedLiteralNode.class);
+    ArrayDoInlinedLiteralNode doNode = read(toDo, "body", ArrayDoInlinedLiteralNode.class);
+    assertEquals("b", doNode.getIndexName());
 
-    LocalArgumentReadNode readNode =
-        read(blockBIfTrue, "conditionNode", LocalArgumentReadNode.class);
+    IfInlinedLiteralNode blockBIfTrue = read(doNode, "body", IfInlinedLiteralNode.class);
+
+    LocalVariableReadNode readNode =
+        read(blockBIfTrue, "conditionNode", LocalVariableReadNode.class);
     assertEquals("b", readNode.getInvocationIdentifier().getString());
-    assertEquals(1, readNode.argumentIndex);
 
-    NonLocalVariableWriteNode writeNode =
-        read(blockBIfTrue, "bodyNode", NonLocalVariableWriteNode.class);
-    assertEquals(1, writeNode.getContextLevel());
+    LocalVariableWriteNode writeNode =
+        read(blockBIfTrue, "bodyNode", LocalVariableWriteNode.class);
     assertEquals("l2", writeNode.getInvocationIdentifier().getString());
-
-    IntIncrementNode incNode = (IntIncrementNode) writeNode.getExp();
-    NonLocalVariableReadNode readL2 = (NonLocalVariableReadNode) incNode.getRcvr();
-    assertEquals("l2", readL2.getInvocationIdentifier().getString());
   }
 
   @Test
@@ -429,4 +423,16 @@ public class AstInliningTests extends AstTestSetup {
         (IntToDoInlinedLiteralsNode) read(seq, "expressions", 0);
     assertEquals("i", toDo.getIndexName());
   }
+
+  @Test
+  public void testInliningOfDo() {
+    SequenceNode seq = (SequenceNode) parseMethod("test: arr = ( arr do: [:e | e ] )");
+    ArrayDoInlinedLiteralNode doNode =
+        (ArrayDoInlinedLiteralNode) read(seq, "expressions", 0);
+    assertEquals("e", doNode.getIndexName());
+
+    seq = (SequenceNode) parseMethod("test: arr = ( arr doIndexes: [:i | i ] )");
+    doNode = (ArrayDoInlinedLiteralNode) read(seq, "expressions", 0);
+    assertEquals("i", doNode.getIndexName());
+  }
 }
@@ -0,0 +1,135 @@
+package trufflesom.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import java.util.LinkedHashMap;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.api.nodes.NodeUtil;
+
+import trufflesom.interpreter.nodes.ExpressionNode;
+import trufflesom.interpreter.nodes.specialized.ArrayDoInlinedLiteralNode;
+import trufflesom.vm.Classes;
+import trufflesom.vm.Universe;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable;
+import trufflesom.vmobjects.SInvokable.SMethod;
+import trufflesom.vmobjects.SSymbol;
+
+
+public class BlockLiteralTests extends AstTestSetup {
+
+  @BeforeClass
+  public static void init() {
+    Universe.setupClassPath("Smalltalk");
+
+    reinitTruffleAndEnterContext();
+    Universe.initializeObjectSystem();
+  }
+
+  @AfterClass
+  public static void close() {
+    closeContext();
+  }
+
+  private Object run(final String source) {
+    ExpressionNode body = parseMethod(source);
+    SMethod method = assembleLastMethod(body);
+    return method.getInvokable().getCallTarget().call(Nil.nilObject);
+  }
+
+  @Test
+  public void testEvaluationsOfBlockWithoutContextAreDistinct() {
+    Object result = run("""
+        identity = (
+          | a b |
+          1 to: 2 do: [:i | b := a. a := [ 42 ] ].
+          ^ a == b
+        )
+        """);
+    assertEquals(false, result);
+  }
+
+  @Test
+  public void testEvaluationsOfBlockWithContextShareTheContext() {
+    Object result = run("""
+        contextful = (
+          | a b n |
+          n := 0.
+          1 to: 2 do: [:i | b := a. a := [ n := n + 1 ] ].
+          a value.
+          b value.
+          ^ (a == b) ifTrue: [ -1 ] ifFalse: [ n ]
+        )
+        """);
+    assertEquals(2L, result);
+  }
+
+  @Test
+  public void testLoopsRunTheBodyOfTheirLiteral() {
+    assertEquals(6L, run("sum = ( | s | s := 0. #(1 2 3) do: [:e | s := s + e ]. ^ s )"));
+    assertEquals(6L,
+        run("sumIdx = ( | s | s := 0. #(7 8 9) doIndexes: [:i | s := s + i ]. ^ s )"));
+    assertEquals(6L, run("sumTo = ( | s | s := 0. 1 to: 3 do: [:i | s := s + i ]. ^ s )"));
+    assertEquals(2L, run("find = ( #(1 2 3) do: [:e | e > 1 ifTrue: [ ^ e ] ]. ^ nil )"));
+  }
+
+  @Test
+  public void testLoopOverOtherReceiverSendsBlockOfTheLiteral() {
+    assertEquals(3L, run("""
+        sum = (
+          | s v |
+          s := 0.
+          v := Vector new. v append: 1. v append: 2.
+          v do: [:e | s := s + e ].
+          ^ s
+        )
+        """));
+    assertEquals(2L, run("""
+        find = (
+          | v |
+          v := Vector new. v append: 1. v append: 2.
+          v do: [:e | e > 1 ifTrue: [ ^ e ] ].
+          ^ nil
+        )
+        """));
+  }
+
+  @Test
+  public void testRedefiningValueStopsRunningTheInlinedBody() {
+    ExpressionNode body = parseMethod(
+        "sum = ( | s | s := 0. #(1 2 3) do: [:e | s := s + e ]. ^ s )");
+    SMethod method = assembleLastMethod(body);
+    assertEquals(6L, method.getInvokable().getCallTarget().call(Nil.nilObject));
+
+    ArrayDoInlinedLiteralNode loop =
+        NodeUtil.findFirstNodeInstance(method.getInvokable(), ArrayDoInlinedLiteralNode.class);
+    assertNull(read(loop, "send", Object.class));
+
+    SClass block2 = Classes.getBlockClass(2);
+    LinkedHashMap<SSymbol, SInvokable> original = new LinkedHashMap<>();
+    for (SInvokable i : block2.getInstanceInvokablesForDisassembler()) {
+      if (i.getHolder() == block2) {
+        original.put(i.getSignature(), i);
+      }
+    }
+
+    SClass redefining = Universe.loadShellClass("ValueRedefined = ( value: x = ( ^ x ) )");
+    LinkedHashMap<SSymbol, SInvokable> redefined = new LinkedHashMap<>(original);
+    redefined.put(symbolFor("value:"), redefining.lookupInvokable(symbolFor("value:")));
+    block2.setInstanceInvokables(redefined, true);
+    try {
+      method.getInvokable().getCallTarget().call(Nil.nilObject);
+      assertNotNull(read(loop, "send", Object.class));
+    } finally {
+      block2.setInstanceInvokables(original, true);
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package trufflesom.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import trufflesom.bdt.basic.ProgramDefinitionError;
+import trufflesom.compiler.SourcecodeCompiler.BcCompiler;
+import trufflesom.compiler.bc.BytecodeCache;
+import trufflesom.interpreter.Method;
+import trufflesom.interpreter.nodes.ExpressionNode;
+import trufflesom.interpreter.nodes.bc.BytecodeLoopNode;
+import trufflesom.vm.Globals;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable;
+import trufflesom.vmobjects.SInvokable.SMethod;
+
+
+public class BytecodeCacheTests extends TruffleTestSetup {
+
+  private static final String CLASS_NAME = symbolFor("CacheTest").getString();
+
+  private static final String SOURCE = "CacheTest = (\n"
+      + "  | a b |\n"
+      + "  a = ( ^ a )\n"
+      + "  a: val = ( a := val )\n"
+      + "  one = ( ^ 1 )\n"
+      + "  sum: arr = ( | s | s := 0. arr do: [:e | s := s + e]. ^ s )\n"
+      + "  find: arr = ( arr do: [:e | e > 2 ifTrue: [ ^ e ] ]. ^ nil )\n"
+      + "  loop = ( | i | i := 0. [ i < 10 ] whileTrue: [ i := i + 1 ]. ^ i )\n"
+      + "  lits = ( ^ #(1 2.5 'str' #sym 12345678901234567890) )\n"
+      + "  ----\n"
+      + "  | c |\n"
+      + "  create = ( ^ self new )\n"
+      + ")\n";
+
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  private File srcDir;
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws IOException {
+    srcDir = tmp.newFolder("src");
+    cacheDir = tmp.newFolder("cache");
+    writeSource(SOURCE);
+  }
+
+  private void writeSource(final String source) throws IOException {
+    Files.write(new File(srcDir, CLASS_NAME + ".som").toPath(),
+        source.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private SClass compile(final BytecodeCache cache)
+      throws IOException, ProgramDefinitionError {
+    return cache.compileClass(new BcCompiler(), srcDir.getPath(), CLASS_NAME, null);
+  }
+
+  private void assertSameMethods(final SClass expected, final SClass actual) {
+    assertEquals(expected.getNumberOfInstanceInvokables(),
+        actual.getNumberOfInstanceInvokables());
+
+    for (SInvokable e : expected.getInstanceInvokablesForDisassembler()) {
+      SInvokable a = actual.lookupInvokable(e.getSignature());
+      assertNotNull(a);
+      assertSame(actual, a.getHolder());
+      assertSameMethod((SMethod) e, (SMethod) a);
+    }
+  }
+
+  private void assertSameMethod(final SMethod expected, final SMethod actual) {
+    assertEquals(expected.getSignature(), actual.getSignature());
+    assertEquals(expected.getSourceCoordinate(), actual.getSourceCoordinate());
+
+    ExpressionNode e = ((Method) expected.getInvokable()).getUninitializedBody();
+    ExpressionNode a = ((Method) actual.getInvokable()).getUninitializedBody();
+    assertSame(e.getClass(), a.getClass());
+
+    if (e instanceof BytecodeLoopNode) {
+      BytecodeLoopNode eb = (BytecodeLoopNode) e;
+      BytecodeLoopNode ab = (BytecodeLoopNode) a;
+      assertArrayEquals(eb.getBytecodeArray(), ab.getBytecodeArray());
+      assertEquals(eb.getNumberOfLocals(), ab.getNumberOfLocals());
+      assertEquals(eb.getMaximumNumberOfStackElements(),
+          ab.getMaximumNumberOfStackElements());
+
+      Object[] el = eb.getLiterals();
+      Object[] al = ab.getLiterals();
+      assertEquals(el.length, al.length);
+      for (int i = 0; i < el.length; i += 1) {
+        if (el[i] instanceof SMethod) {
+          assertSameMethod((SMethod) el[i], (SMethod) al[i]);
+        } else {
+          assertEquals(el[i], al[i]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSecondLoadComesFromCache() throws IOException, ProgramDefinitionError {
+    BytecodeCache cache = new BytecodeCache(cacheDir);
+
+    SClass compiled = compile(cache);
+    assertEquals(0, cache.getNumberOfHits());
+    assertEquals(1, cache.getNumberOfMisses());
+    assertEquals(1, cacheDir.list().length);
+
+    SClass cached = compile(cache);
+    assertEquals(1, cache.getNumberOfHits());
+
+    assertEquals(compiled.getName(), cached.getName());
+    assertEquals(compiled.getNumberOfInstanceFields(), cached.getNumberOfInstanceFields());
+    assertSameMethods(compiled, cached);
+    assertSameMethods(compiled.getSOMClass(), cached.getSOMClass());
+  }
+
+  @Test
+  public void testChangedSourceIsNotServedFromCache()
+      throws IOException, ProgramDefinitionError {
+    BytecodeCache cache = new BytecodeCache(cacheDir);
+    compile(cache);
+
+    writeSource(SOURCE.replace("^ 1", "^ 2"));
+    compile(cache);
+
+    assertEquals(0, cache.getNumberOfHits());
+    assertEquals(2, cache.getNumberOfMisses());
+  }
+
+  @Test
+  public void testChangedSuperclassFieldsAreNotServedFromCache()
+      throws IOException, ProgramDefinitionError {
+    String superName = symbolFor("CacheTestSuper").getString();
+    File superFile = new File(srcDir, superName + ".som");
+    Files.write(superFile.toPath(),
+        (superName + " = ( | x | )\n").getBytes(StandardCharsets.UTF_8));
+    Globals.setGlobal(superName,
+        new BcCompiler().compileClass(srcDir.getPath(), superName, null, null));
+
+    writeSource(SOURCE.replace("CacheTest = (", "CacheTest = " + superName + " ("));
+    BytecodeCache cache = new BytecodeCache(cacheDir);
+    compile(cache);
+    compile(cache);
+    assertEquals(1, cache.getNumberOfHits());
+
+    Files.write(superFile.toPath(),
+        (superName + " = ( | y x | )\n").getBytes(StandardCharsets.UTF_8));
+    Globals.setGlobal(superName,
+        new BcCompiler().compileClass(srcDir.getPath(), superName, null, null));
+
+    SClass recompiled = compile(cache);
+    assertEquals(1, cache.getNumberOfHits());
+    assertEquals(2, cache.getNumberOfMisses());
+    assertEquals(4, recompiled.getNumberOfInstanceFields());
+
+    compile(cache);
+    assertEquals(2, cache.getNumberOfHits());
+  }
+
+  @Test
+  public void testCorruptedEntryIsRecompiled() throws IOException, ProgramDefinitionError {
+    BytecodeCache cache = new BytecodeCache(cacheDir);
+    compile(cache);
+
+    File entry = cacheDir.listFiles()[0];
+    byte[] content = Files.readAllBytes(entry.toPath());
+    Files.write(entry.toPath(), Arrays.copyOf(content, content.length / 2));
+
+    SClass recompiled = compile(cache);
+    assertEquals(0, cache.getNumberOfHits());
+    assertEquals(2, cache.getNumberOfMisses());
+    assertNotNull(recompiled.lookupInvokable(symbolFor("loop")));
+
+    compile(cache);
+    assertEquals(1, cache.getNumberOfHits());
+  }
+
+  @Test
+  public void testUnwritableCacheIsSkipped() throws IOException, ProgramDefinitionError {
+    BytecodeCache cache = new BytecodeCache(tmp.newFile("not-a-directory"));
+
+    SClass compiled = compile(cache);
+    assertNotNull(compiled.lookupInvokable(symbolFor("loop")));
+
+    compile(cache);
+    assertEquals(0, cache.getNumberOfHits());
+    assertEquals(2, cache.getNumberOfMisses());
+  }
+}
@@ -1108,6 +1108,44 @@ public class BytecodeMethodTests extends BytecodeTestSetup {
     }
   }
 
+  @Test
+  public void testIncLocal() {
+    byte[] bytecodes = methodToBytecodes(
+        "test = ( | a b c | 1. c := c + 1. 2 )");
+
+    assertEquals(7, bytecodes.length);
+    check(bytecodes,
+        Bytecodes.PUSH_1, Bytecodes.POP,
+        new BC(Bytecodes.INC_LOCAL, 2, 0),
+        Bytecodes.PUSH_CONSTANT_0,
+        Bytecodes.RETURN_SELF);
+  }
+
+  @Test
+  public void testReturnIncLocal() {
+    byte[] bytecodes = methodToBytecodes(
+        "test = ( | a | #foo. ^ a := a + 1 )");
+
+    assertEquals(6, bytecodes.length);
+    check(bytecodes,
+        Bytecodes.PUSH_CONSTANT_0,
+        Bytecodes.POP,
+        new BC(Bytecodes.INC_LOCAL_PUSH, 0, 0),
+        Bytecodes.RETURN_LOCAL);
+  }
+
+  @Test
+  public void testIncOtherLocalIsNotOptimized() {
+    byte[] bytecodes = methodToBytecodes(
+        "test = ( | a b | b := a + 1 )");
+
+    check(bytecodes,
+        Bytecodes.PUSH_LOCAL_0,
+        Bytecodes.INC,
+        Bytecodes.POP_LOCAL_1,
+        Bytecodes.RETURN_SELF);
+  }
+
   private void returnField(final int fieldNum, final Object bytecode) {
     addField("field0");
     addField("field1");
@@ -0,0 +1,108 @@
+package trufflesom.tests;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import java.util.LinkedHashMap;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import trufflesom.vm.Classes;
+import trufflesom.vm.MethodCache;
+import trufflesom.vm.Universe;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable;
+import trufflesom.vmobjects.SSymbol;
+
+
+public class MethodCacheTests extends TruffleTestSetup {
+
+  @BeforeClass
+  public static void init() {
+    Universe.setupClassPath("Smalltalk");
+
+    reinitTruffleAndEnterContext();
+    Universe.initializeObjectSystem();
+  }
+
+  @AfterClass
+  public static void close() {
+    closeContext();
+  }
+
+  private static Object[] getEntries() {
+    try {
+      java.lang.reflect.Field f = MethodCache.class.getDeclaredField("entries");
+      f.setAccessible(true);
+      return (Object[]) f.get(null);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void testLookupMatchesClassLookup() {
+    SSymbol selector = symbolFor("=");
+
+    SInvokable expected = Classes.integerClass.lookupInvokable(selector);
+    assertNotNull(expected);
+
+    assertSame(expected, MethodCache.lookup(Classes.integerClass, selector));
+    assertSame(expected, MethodCache.lookup(Classes.integerClass, selector));
+  }
+
+  @Test
+  public void testFailedLookupReturnsNull() {
+    assertNull(MethodCache.lookup(Classes.objectClass, symbolFor("notAMethodInObject")));
+  }
+
+  @Test
+  public void testRedefiningMethodInvalidatesEntry() {
+    SSymbol foo = symbolFor("foo");
+    SClass clazz = Universe.loadShellClass("CacheRedefine = ( foo = ( ^ 1 ) )");
+    SInvokable old = clazz.lookupInvokable(foo);
+    assertSame(old, MethodCache.lookup(clazz, foo));
+
+    SClass other = Universe.loadShellClass("CacheRedefined = ( foo = ( ^ 2 ) )");
+    SInvokable redefined = other.lookupInvokable(foo);
+    LinkedHashMap<SSymbol, SInvokable> invokables = new LinkedHashMap<>();
+    invokables.put(foo, redefined);
+    clazz.setInstanceInvokables(invokables, false);
+
+    assertSame(redefined, MethodCache.lookup(clazz, foo));
+    assertSame(clazz, redefined.getHolder());
+  }
+
+  @Test
+  public void testChangingSuperclassInvalidatesEntry() {
+    SSymbol foo = symbolFor("foo");
+    SClass superA = Universe.loadShellClass("CacheSuperA = ( foo = ( ^ 1 ) )");
+    SClass superB = Universe.loadShellClass("CacheSuperB = ( foo = ( ^ 2 ) )");
+    SClass clazz = Universe.loadShellClass("CacheSub = ( bar = ( ^ 3 ) )");
+
+    clazz.setSuperClass(superA);
+    assertSame(superA.lookupInvokable(foo), MethodCache.lookup(clazz, foo));
+
+    clazz.setSuperClass(superB);
+    assertSame(superB.lookupInvokable(foo), MethodCache.lookup(clazz, foo));
+    assertSame(clazz, MethodCache.lookup(clazz, symbolFor("bar")).getHolder());
+  }
+
+  @Test
+  public void testDisposingContextClearsCache() {
+    assertNotNull(MethodCache.lookup(Classes.integerClass, symbolFor("=")));
+
+    closeContext();
+    try {
+      for (Object e : getEntries()) {
+        assertNull("the cache does not keep classes of a disposed context alive", e);
+      }
+    } finally {
+      init();
+    }
+  }
+}
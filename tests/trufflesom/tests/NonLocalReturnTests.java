@@ -0,0 +1,131 @@
+package trufflesom.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import trufflesom.vm.Universe;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SObject;
+
+
+public class NonLocalReturnTests extends TruffleTestSetup {
+
+  private static SObject rcvr;
+
+  @BeforeClass
+  public static void init() {
+    Universe.setupClassPath("Smalltalk");
+
+    reinitTruffleAndEnterContext();
+    Universe.initializeObjectSystem();
+
+    SClass clazz = Universe.loadShellClass("""
+        NonLocalReturn = (
+          run: blk = (
+            | result |
+            blk isNil ifTrue: [
+              result := self run: [:x | [ ^ x * 2 ] value ].
+              ^ result + 1000 ].
+            blk value: 21.
+            ^ nil
+          )
+
+          sign: n = (
+            n > 0 ifTrue: [ ^ #positive ].
+            n < 0 ifTrue: [ (n + 1) = 0 ifTrue: [ ^ #minusOne ]. ^ #negative ].
+            ^ #zero
+          )
+
+          find: n = (
+            1 to: 10 do: [:i | i = n ifTrue: [ ^ i * 10 ] ].
+            ^ 0
+          )
+
+          findInBlock: n = (
+            #(1 2 3) do: [:i | i = n ifTrue: [ ^ i * 10 ] ].
+            ^ 0
+          )
+
+          countDown: n = (
+            n = 0 ifTrue: [ ^ 0 ].
+            #(1) do: [:i | ^ (self countDown: n - 1) + 1 ].
+            ^ nil
+          )
+
+          outer = ( self inner: [ ^ 7 ]. ^ 0 )
+          inner: blk = (
+            #(1 2) do: [:i | i = 2 ifTrue: [ ^ 2 ]. blk value ].
+            ^ 1
+          )
+
+          escaping = ( ^ [ ^ 1 ] )
+          escaped = ( ^ self escaping value )
+          escapedBlock: blk = ( ^ #escaped )
+        )
+        """);
+    rcvr = SObject.create(clazz);
+  }
+
+  @AfterClass
+  public static void close() {
+    closeContext();
+  }
+
+  private static Object send(final String selector, final Object... args) {
+    Object[] callArgs = new Object[args.length + 1];
+    callArgs[0] = rcvr;
+    System.arraycopy(args, 0, callArgs, 1, args.length);
+    return rcvr.getSOMClass().lookupInvokable(symbolFor(selector)).getCallTarget()
+               .call(callArgs);
+  }
+
+  @Test
+  public void testReturnFromNestedBlockReachesItsHomeActivation() {
+    // the block is evaluated by a second activation of the same method,
+    // which must not be the one that returns
+    assertEquals(42L, send("run:", Nil.nilObject));
+    assertEquals(42L, send("run:", Nil.nilObject));
+  }
+
+  @Test
+  public void testReturnFromInlinedBlocks() {
+    assertSame(symbolFor("positive"), send("sign:", 5L));
+    assertSame(symbolFor("minusOne"), send("sign:", -1L));
+    assertSame(symbolFor("negative"), send("sign:", -5L));
+    assertSame(symbolFor("zero"), send("sign:", 0L));
+  }
+
+  @Test
+  public void testReturnFromInlinedLoop() {
+    assertEquals(30L, send("find:", 3L));
+    assertEquals(0L, send("find:", 11L));
+  }
+
+  @Test
+  public void testReturnFromInlinedBlockInBlock() {
+    assertEquals(20L, send("findInBlock:", 2L));
+    assertEquals(0L, send("findInBlock:", 4L));
+  }
+
+  @Test
+  public void testReturnsOfRecursiveActivationsAreIndependent() {
+    assertEquals(5L, send("countDown:", 5L));
+  }
+
+  @Test
+  public void testReturnPassesThroughOtherMethodCatchingReturns() {
+    assertEquals(7L, send("outer"));
+    assertEquals(7L, send("outer"));
+  }
+
+  @Test
+  public void testReturnFromEscapedBlockIsReported() {
+    assertSame(symbolFor("escaped"), send("escaped"));
+  }
+}
@@ -0,0 +1,145 @@
+package trufflesom.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import trufflesom.interpreter.bc.Bytecodes;
+import trufflesom.interpreter.nodes.GenericMessageSendNode;
+import trufflesom.interpreter.nodes.bc.BytecodeLoopNode;
+import trufflesom.vm.Universe;
+import trufflesom.vm.VmSettings;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SClass;
+import trufflesom.vmobjects.SInvokable;
+import trufflesom.vmobjects.SObject;
+
+
+public class SendPicTests extends TruffleTestSetup {
+
+  @BeforeClass
+  public static void init() {
+    Universe.setupClassPath("Smalltalk");
+
+    reinitTruffleAndEnterContext();
+    Universe.initializeObjectSystem();
+  }
+
+  @AfterClass
+  public static void close() {
+    closeContext();
+  }
+
+  private static SObject createInstance(final String name, final int increment) {
+    SClass clazz = Universe.loadShellClass(
+        name + " = ( answer: n = ( ^ n + " + increment + " ) )");
+    return SObject.create(clazz);
+  }
+
+  private static int findSend(final byte[] bytecodes) {
+    int i = 0;
+    while (i < bytecodes.length) {
+      byte bc = bytecodes[i];
+      if (bc == Bytecodes.SEND || bc == Bytecodes.Q_SEND || bc == Bytecodes.Q_SEND_PIC) {
+        return i;
+      }
+      i += Bytecodes.getBytecodeLength(bc);
+    }
+    throw new AssertionError("No send found");
+  }
+
+  private boolean picArgsReusable(final SClass clazz, final String selector) {
+    SInvokable method = clazz.lookupInvokable(symbolFor(selector));
+    BytecodeLoopNode body = read(method.getInvokable(), "body", BytecodeLoopNode.class);
+    int sendIdx = findSend(body.getBytecodeArray());
+    assertEquals(Bytecodes.Q_SEND_PIC, body.getBytecodeArray()[sendIdx]);
+    return read(body, "picArgsReusableField", boolean[].class)[sendIdx];
+  }
+
+  @Test
+  public void testPicOverflowsToGenericSend() {
+    SObject a = createInstance("PicA", 1);
+    SObject b = createInstance("PicB", 2);
+    SObject c = createInstance("PicC", 3);
+
+    SClass caller = Universe.loadShellClass("PicCaller = ( call: o = ( ^ o answer: 10 ) )");
+    SInvokable call = caller.lookupInvokable(symbolFor("call:"));
+
+    assertEquals(11L, call.getCallTarget().call(Nil.nilObject, a));
+    assertEquals(12L, call.getCallTarget().call(Nil.nilObject, b));
+
+    BytecodeLoopNode body = null;
+    int sendIdx = -1;
+    if (VmSettings.UseBcInterp) {
+      body = read(call.getInvokable(), "body", BytecodeLoopNode.class);
+      sendIdx = findSend(body.getBytecodeArray());
+      assertEquals("bimorphic send is cached in the PIC",
+          Bytecodes.Q_SEND_PIC, body.getBytecodeArray()[sendIdx]);
+    }
+
+    assertEquals(13L, call.getCallTarget().call(Nil.nilObject, c));
+
+    if (VmSettings.UseBcInterp) {
+      assertEquals("third receiver class generalizes the send",
+          Bytecodes.Q_SEND, body.getBytecodeArray()[sendIdx]);
+      Object quickened = read(body, "quickenedField", Object[].class)[sendIdx];
+      assertTrue(quickened instanceof GenericMessageSendNode);
+      assertNull(read(body, "quickenedField", Object[].class)[sendIdx + 1]);
+    }
+
+    // the generic send still dispatches correctly for all receivers
+    assertEquals(11L, call.getCallTarget().call(Nil.nilObject, a));
+    assertEquals(12L, call.getCallTarget().call(Nil.nilObject, b));
+    assertEquals(13L, call.getCallTarget().call(Nil.nilObject, c));
+  }
+
+  @Test
+  public void testPicReusesArgumentsOnlyForMethodsWithoutBlocks() {
+    SClass clazz = Universe.loadShellClass("""
+        PicArgs = (
+          plus: a and: b = ( ^ a + b )
+          block: a = ( ^ [ a ] )
+
+          sum: n = (
+            | s i |
+            s := 0.
+            i := 1.
+            [ i <= n ] whileTrue: [ s := self plus: s and: i. i := i + 1 ].
+            ^ s
+          )
+          blocks: n = (
+            | blks i |
+            blks := Array new: n.
+            i := 1.
+            [ i <= n ] whileTrue: [ blks at: i put: (self block: i). i := i + 1 ].
+            ^ blks
+          )
+          values = (
+            | blks sum |
+            blks := self blocks: 3.
+            sum := 0.
+            1 to: 3 do: [:i | sum := sum * 10 + (blks at: i) value ].
+            ^ sum
+          )
+        )
+        """);
+    SObject rcvr = SObject.create(clazz);
+
+    assertEquals(6L, clazz.lookupInvokable(symbolFor("sum:")).getCallTarget().call(rcvr, 3L));
+    assertEquals(10L, clazz.lookupInvokable(symbolFor("sum:")).getCallTarget().call(rcvr, 4L));
+
+    // each block keeps the argument it was created with
+    assertEquals(123L, clazz.lookupInvokable(symbolFor("values")).getCallTarget().call(rcvr));
+
+    if (VmSettings.UseBcInterp) {
+      assertTrue(picArgsReusable(clazz, "sum:"));
+      assertFalse(picArgsReusable(clazz, "blocks:"));
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package trufflesom.tests;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 
@@ -11,6 +12,7 @@ import trufflesom.interpreter.Invokable;
 import trufflesom.interpreter.nodes.ExpressionNode;
 import trufflesom.vm.Universe;
 import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SBlock;
 import trufflesom.vmobjects.SInvokable.SMethod;
 
 
@@ -50,4 +52,35 @@ public class SplittingTests extends AstTestSetup {
     assertNotSame("Expect the split method to return #sym, and not nil", Nil.nilObject, sym2);
     assertSame(sym, sym2);
   }
+
+  @Test
+  public void testSplitBlockMethodRunsIndependentlyOfOriginal() {
+    ExpressionNode body = parseMethod("""
+        methodWithBlock = (
+          | local |
+          local := 10.
+          ^ [ local := local + 1 ]
+        )
+        """);
+
+    SMethod method = assembleLastMethod(body);
+    Invokable mOrg = method.getInvokable();
+    SBlock orgBlock = (SBlock) mOrg.getCallTarget().call(Nil.nilObject);
+
+    Invokable splitM = (Invokable) mOrg.deepCopy();
+    SBlock splitBlock = (SBlock) splitM.getCallTarget().call(Nil.nilObject);
+
+    assertNotSame(orgBlock.getMethod(), splitBlock.getMethod());
+    assertNotSame(orgBlock.getMethod().getInvokable(), splitBlock.getMethod().getInvokable());
+
+    // the split block only updates the context of the split method's activation
+    assertEquals(11L, splitBlock.getMethod().getCallTarget().call(splitBlock));
+    assertEquals(12L, splitBlock.getMethod().getCallTarget().call(splitBlock));
+    assertEquals(11L, orgBlock.getMethod().getCallTarget().call(orgBlock));
+
+    // the original method keeps its own block method
+    SBlock orgBlock2 = (SBlock) mOrg.getCallTarget().call(Nil.nilObject);
+    assertSame(orgBlock.getMethod(), orgBlock2.getMethod());
+    assertEquals(11L, orgBlock2.getMethod().getCallTarget().call(orgBlock2));
+  }
 }
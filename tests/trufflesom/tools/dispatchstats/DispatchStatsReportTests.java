@@ -0,0 +1,49 @@
+package trufflesom.tools.dispatchstats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import trufflesom.tools.dispatchstats.CallSiteStats.Entry;
+
+
+public class DispatchStatsReportTests {
+
+  @Test
+  public void testGuardFailuresAndDnuEntries() {
+    CallSiteStats site = new CallSiteStats("Test.som:1:1", "foo");
+    site.addEntry(new Entry("CachedDispatchNode", 10, 5), false);
+    site.addEntry(new Entry("CachedDnuNode", 5, 0), true);
+
+    assertEquals(5, site.getGuardFailures());
+    assertEquals(1, site.getDnuEntries());
+    assertEquals(5, site.getScore());
+  }
+
+  @Test
+  public void testMegamorphicSitesAreReportedFirst() {
+    CallSiteStats mono = new CallSiteStats("Test.som:1:1", "mono");
+    mono.addRewrites(1);
+    mono.addEntry(new Entry("CachedDispatchNode", 100, 0), false);
+
+    CallSiteStats mega = new CallSiteStats("Test.som:2:1", "mega");
+    mega.addRewrites(7);
+    mega.setGeneric(1000);
+
+    List<CallSiteStats> sites = new ArrayList<>();
+    sites.add(mono);
+    sites.add(mega);
+
+    String report = DispatchStatsReport.createReport(sites);
+
+    assertTrue(report.contains("# Covers sends with a dispatch chain"));
+    assertTrue(report.contains("megamorphic-sites: 1\n"));
+    assertTrue(report.contains("rewrites: 8\n"));
+    assertTrue(report.indexOf("'mega'") < report.indexOf("'mono'"));
+    assertTrue(report.contains("- { node: CachedDispatchNode, hits: 100, guard-failures: 0 }"));
+  }
+}
@@ -0,0 +1,207 @@
+package trufflesom.vmobjects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import trufflesom.primitives.arrays.AppendPrim;
+import trufflesom.primitives.arrays.AppendPrimFactory;
+import trufflesom.primitives.arrays.AtPutPrim;
+import trufflesom.primitives.arrays.AtPutPrimFactory;
+import trufflesom.primitives.arrays.EnsureCapacityPrim;
+import trufflesom.primitives.arrays.RemoveLastPrim;
+import trufflesom.primitives.arrays.RemoveLastPrimFactory;
+import trufflesom.tests.TruffleTestSetup;
+import trufflesom.vm.constants.Nil;
+import trufflesom.vmobjects.SArray.OffHeapArray;
+import trufflesom.vmobjects.SArray.OffHeapDoubleArray;
+import trufflesom.vmobjects.SArray.OffHeapLongArray;
+import trufflesom.vmobjects.SArray.PartiallyEmptyArray;
+import trufflesom.vmobjects.SArray.PartiallyFilledArray;
+
+
+public class SArrayTests extends TruffleTestSetup {
+
+  private static SArray fillWithLongs(final long... values) {
+    SArray arr = new SArray(values.length);
+    arr.transitionFromEmptyToPartiallyEmptyWith(0, values[0]);
+
+    PartiallyEmptyArray storage = arr.getPartiallyEmptyStorage();
+    for (int i = 1; i < values.length; i++) {
+      storage.set(i, values[i]);
+      storage.decEmptyElements();
+    }
+    arr.ifFullOrObjectTransitionPartiallyEmpty();
+    return arr;
+  }
+
+  @Test
+  public void testFullLongArrayUsesNarrowestStorage() {
+    SArray bytes = fillWithLongs(0, 255, 7);
+    assertTrue(bytes.isByteType());
+    assertEquals(255, bytes.getByteStorage()[1] & 0xFF);
+
+    SArray ints = fillWithLongs(-1, 256, Integer.MAX_VALUE);
+    assertTrue(ints.isIntType());
+    assertEquals(-1, ints.getIntStorage()[0]);
+
+    SArray longs = fillWithLongs(1, Integer.MAX_VALUE + 1L);
+    assertTrue(longs.isLongType());
+  }
+
+  @Test
+  public void testEnsureCapacityKeepsPrimitiveStorage() {
+    SArray longs = SArray.create(new long[] {1, 2});
+    SArray grown = EnsureCapacityPrim.doLongSArray(longs, 3);
+
+    PartiallyFilledArray storage = grown.getPartiallyFilledStorage();
+    assertTrue(grown.isPartiallyFilledLongType());
+    assertEquals(4, storage.getLength());
+    assertEquals(2, storage.getFilled());
+    assertEquals(2L, storage.get(1));
+    assertSame(Nil.nilObject, storage.get(2));
+    assertSame(grown, EnsureCapacityPrim.doPartiallyFilledSArray(grown, 4));
+
+    SArray bytes = fillWithLongs(200, 1);
+    assertTrue(bytes.isByteType());
+    grown = EnsureCapacityPrim.doByteSArray(bytes, 3);
+    assertTrue(grown.isPartiallyFilledLongType());
+    assertEquals(200L, grown.getPartiallyFilledStorage().get(0));
+    assertSame(Nil.nilObject, grown.getPartiallyFilledStorage().get(3));
+
+    SArray booleans = SArray.create(new boolean[] {true});
+    grown = EnsureCapacityPrim.doBooleanSArray(booleans, 2);
+    assertTrue(grown.isPartiallyFilledBooleanType());
+    assertSame(Nil.nilObject, grown.getPartiallyFilledStorage().get(1));
+
+    SArray objects = SArray.create(new Object[] {"a"});
+    Object[] grownObjects = EnsureCapacityPrim.doObjectSArray(objects, 2).getObjectStorage();
+    assertEquals(2, grownObjects.length);
+    assertSame(Nil.nilObject, grownObjects[1]);
+  }
+
+  @Test
+  public void testEnsureCapacityBeyondMaximalLengthFails() {
+    SArray longs = SArray.create(new long[] {1, 2});
+    try {
+      EnsureCapacityPrim.doLongSArray(longs, Integer.MAX_VALUE + 1L);
+      fail("Expected the capacity to be rejected");
+    } catch (ArrayIndexOutOfBoundsException e) {
+      assertTrue(longs.isLongType());
+    }
+  }
+
+  @Test
+  public void testAppendGrowsArrayWhenFull() {
+    AppendPrim append = AppendPrimFactory.create(null, null, null);
+    SArray longs = SArray.create(new long[] {1, 2});
+
+    SArray grown = (SArray) append.executeEvaluated(null, longs, 3L, 3L);
+    assertNotSame(longs, grown);
+    assertTrue(grown.isPartiallyFilledLongType());
+    assertEquals(3L, grown.getPartiallyFilledStorage().get(2));
+    assertSame(Nil.nilObject, grown.getPartiallyFilledStorage().get(3));
+
+    assertSame(grown, append.executeEvaluated(null, grown, 4L, 4L));
+    assertArrayEquals(new byte[] {1, 2, 3, 4}, grown.getByteStorage());
+
+    SArray withString = (SArray) append.executeEvaluated(null, grown, "str", 4L);
+    assertSame(grown, withString);
+    assertEquals("str", withString.getObjectStorage()[3]);
+  }
+
+  @Test
+  public void testRemoveLastClearsObjectsAndKeepsPrimitives() {
+    RemoveLastPrim removeLast = RemoveLastPrimFactory.create(null, null);
+
+    SArray objects = SArray.create(new Object[] {"a", "b"});
+    assertEquals("b", removeLast.executeEvaluated(null, objects, 2L));
+    assertSame(Nil.nilObject, objects.getObjectStorage()[1]);
+
+    SArray longs = SArray.create(new long[] {1, 2});
+    assertEquals(2L, removeLast.executeEvaluated(null, longs, 2L));
+    assertTrue(longs.isLongType());
+    assertEquals(1L, removeLast.executeEvaluated(null, longs, 1L));
+
+    SArray doubles = EnsureCapacityPrim.doDoubleSArray(SArray.create(new double[] {1.5}), 2);
+    assertEquals(1.5, removeLast.executeEvaluated(null, doubles, 1L));
+    assertTrue(doubles.isPartiallyFilledDoubleType());
+    assertEquals(0, doubles.getPartiallyFilledStorage().getFilled());
+  }
+
+  @Test
+  public void testPartiallyFilledArrayLeavingGapBecomesPartiallyEmpty() {
+    AtPutPrim atPut = AtPutPrimFactory.create(null, null, null);
+    SArray longs = EnsureCapacityPrim.doLongSArray(SArray.create(new long[] {1, 2}), 3);
+
+    atPut.executeEvaluated(null, longs, 4L, 4L);
+    assertTrue(longs.isPartiallyEmptyType());
+    assertEquals(PartiallyEmptyArray.Type.LONG, longs.getPartiallyEmptyStorage().getType());
+    assertSame(Nil.nilObject, longs.getPartiallyEmptyStorage().get(2));
+
+    SArray doubles = EnsureCapacityPrim.doDoubleSArray(SArray.create(new double[] {1.5}), 2);
+    atPut.executeEvaluated(null, doubles, 2L, "str");
+    assertArrayEquals(new Object[] {1.5, "str"}, doubles.getObjectStorage());
+  }
+
+  @Test
+  public void testOffHeapLongArrayReadsUnsetElementsAsNil() {
+    OffHeapLongArray arr = new OffHeapLongArray(3);
+    arr.set(1, 42L);
+
+    assertEquals(3, arr.getLength());
+    assertSame(Nil.nilObject, arr.get(0));
+    assertEquals(42L, arr.get(1));
+
+    arr.setNil(1);
+    assertArrayEquals(new Object[] {Nil.nilObject, Nil.nilObject, Nil.nilObject},
+        arr.toObjectArray());
+    assertFalse(OffHeapLongArray.canStore(OffHeapArray.UNSET));
+  }
+
+  @Test
+  public void testOffHeapDoubleArrayCopyIsIndependent() {
+    OffHeapDoubleArray arr = new OffHeapDoubleArray(2);
+    arr.set(0, 1.5);
+
+    OffHeapDoubleArray copy = arr.copy();
+    arr.set(1, 2.5);
+
+    assertEquals(1.5, copy.get(0));
+    assertSame(Nil.nilObject, copy.get(1));
+    assertEquals(2.5, arr.get(1));
+  }
+
+  @Test
+  public void testOffHeapArraysReadUnboxedUnlessUnset() throws UnexpectedResultException {
+    OffHeapLongArray longs = new OffHeapLongArray(2);
+    longs.set(0, 42L);
+    assertEquals(42L, longs.getLong(0));
+
+    OffHeapDoubleArray doubles = new OffHeapDoubleArray(2);
+    doubles.set(0, 1.5);
+    assertEquals(1.5, doubles.getDouble(0), 0.0);
+
+    try {
+      longs.getLong(1);
+      fail("unset elements cannot be read as long");
+    } catch (UnexpectedResultException e) {
+      assertSame(Nil.nilObject, e.getResult());
+    }
+
+    try {
+      doubles.getDouble(1);
+      fail("unset elements cannot be read as double");
+    } catch (UnexpectedResultException e) {
+      assertSame(Nil.nilObject, e.getResult());
+    }
+  }
+}
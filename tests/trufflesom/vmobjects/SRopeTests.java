@@ -0,0 +1,63 @@
+package trufflesom.vmobjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import trufflesom.tests.TruffleTestSetup;
+
+
+public class SRopeTests extends TruffleTestSetup {
+
+  private static String repeat(final char c) {
+    return String.valueOf(c).repeat(SRope.MIN_LENGTH);
+  }
+
+  @Test
+  public void testShortConcatenationsRemainStrings() {
+    assertEquals("ab", SRope.concat("a", "b"));
+  }
+
+  @Test
+  public void testRopeIsFlattenedToConcatenatedString() {
+    SRope rope = (SRope) SRope.concat(repeat('a'), "b");
+    rope = rope.concat("c").concat(rope);
+
+    String expected = repeat('a') + "bc" + repeat('a') + "b";
+    assertEquals(expected.length(), rope.getLength());
+    assertEquals('c', rope.charAt(SRope.MIN_LENGTH + 1));
+    assertEquals(expected, rope.getString());
+    assertTrue(rope.contentEquals(expected));
+    assertEquals(expected.hashCode(), rope.contentHashCode());
+  }
+
+  @Test
+  public void testConcatenationsToSameRopeDoNotInterfere() {
+    SRope base = (SRope) SRope.concat(repeat('a'), "");
+    SRope withB = base.concat("b");
+    SRope withC = base.concat("c");
+
+    assertEquals(repeat('a'), base.getString());
+    assertEquals(repeat('a') + "b", withB.getString());
+    assertEquals(repeat('a') + "c", withC.getString());
+    assertFalse(withB.contentEquals(withC));
+    assertEquals("ab", withB.substring(SRope.MIN_LENGTH - 1, SRope.MIN_LENGTH + 1));
+  }
+
+  @Test
+  public void testShortRopeIsUnaffectedWhenSharedBufferGrows() {
+    SRope base = (SRope) SRope.concat(repeat('a'), "");
+    SRope longer = base.concat(repeat('b')).concat(repeat('c'));
+
+    // base is now much shorter than the buffer it shares with longer
+    assertEquals('a', base.charAt(SRope.MIN_LENGTH - 1));
+    assertEquals(repeat('a'), base.getString());
+    assertEquals("aa", base.substring(SRope.MIN_LENGTH - 2, SRope.MIN_LENGTH));
+
+    SRope withD = base.concat("d");
+    assertEquals(repeat('a') + "d", withD.getString());
+    assertEquals(repeat('a') + repeat('b') + repeat('c'), longer.getString());
+  }
+}
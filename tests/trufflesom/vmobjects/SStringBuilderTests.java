@@ -0,0 +1,69 @@
+package trufflesom.vmobjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static trufflesom.vm.SymbolTable.symbolFor;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import trufflesom.primitives.basics.StringBuilderPrims.AppendPrim;
+import trufflesom.primitives.basics.StringBuilderPrims.BuilderAsStringPrim;
+import trufflesom.primitives.basics.StringBuilderPrims.BuilderLengthPrim;
+import trufflesom.primitives.basics.StringBuilderPrims.NewPrim;
+import trufflesom.tests.TruffleTestSetup;
+
+
+public class SStringBuilderTests extends TruffleTestSetup {
+
+  @Test
+  public void testNewBuilderIsEmpty() {
+    SClass clazz = new SClass(0);
+    SStringBuilder builder = NewPrim.doSClass(clazz);
+
+    assertSame(clazz, builder.getSOMClass());
+    assertEquals(0L, BuilderLengthPrim.doSStringBuilder(builder));
+    assertEquals("", BuilderAsStringPrim.doSStringBuilder(builder));
+  }
+
+  @Test
+  public void testAppendAnswersReceiver() {
+    SStringBuilder builder = NewPrim.doSClass(new SClass(0));
+
+    assertSame(builder, AppendPrim.doString(builder, "a"));
+    assertSame(builder, AppendPrim.doSSymbol(builder, symbolFor("b")));
+    assertSame(builder, AppendPrim.doLong(builder, 1L));
+    assertEquals("ab1", BuilderAsStringPrim.doSStringBuilder(builder));
+  }
+
+  @Test
+  public void testAppendOfNumbers() {
+    SStringBuilder builder = NewPrim.doSClass(new SClass(0));
+    AppendPrim.doLong(builder, -42L);
+    AppendPrim.doString(builder, " ");
+    AppendPrim.doDouble(builder, 2.5);
+    AppendPrim.doString(builder, " ");
+    AppendPrim.doBigInteger(builder, BigInteger.TWO.pow(70));
+
+    String expected = "-42 2.5 " + BigInteger.TWO.pow(70);
+    assertEquals(expected, BuilderAsStringPrim.doSStringBuilder(builder));
+    assertEquals(expected.length(), BuilderLengthPrim.doSStringBuilder(builder));
+  }
+
+  @Test
+  public void testAppendOfRopeCopiesOnlyItsCharacters() {
+    String as = "a".repeat(SRope.MIN_LENGTH);
+    SRope rope = (SRope) SRope.concat(as, "b");
+    // extends the shared buffer beyond the end of rope
+    rope.concat("c");
+
+    SStringBuilder builder = NewPrim.doSClass(new SClass(0));
+    AppendPrim.doString(builder, "<");
+    AppendPrim.doSRope(builder, rope);
+    AppendPrim.doString(builder, ">");
+
+    assertEquals("<" + as + "b>", BuilderAsStringPrim.doSStringBuilder(builder));
+    assertEquals(SRope.MIN_LENGTH + 3L, BuilderLengthPrim.doSStringBuilder(builder));
+  }
+}